@@ -3,13 +3,27 @@ package net.gcae.utils.extractor;
 import java.io.File;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.gcae.utils.extractor.analyzer.FileAnalyzer;
+import net.gcae.utils.extractor.analyzer.SourceWatcher;
+import net.gcae.utils.extractor.metrics.MetricsReporter;
+import net.gcae.utils.extractor.metrics.RunMetrics;
 import net.gcae.utils.extractor.model.AnalysisResult;
+import net.gcae.utils.extractor.reporter.CsvReporter;
 import net.gcae.utils.extractor.reporter.ExcelReporter;
+import net.gcae.utils.extractor.reporter.JsonLinesReporter;
+import net.gcae.utils.extractor.reporter.Reporter;
+import net.gcae.utils.extractor.reporter.TabularReporter;
 
 
 /**
@@ -18,17 +32,79 @@ import net.gcae.utils.extractor.reporter.ExcelReporter;
 public class ColdFusionExtractor {
     private static final Logger logger = LoggerFactory.getLogger(ColdFusionExtractor.class);
     
+    private static final Set<String> FORMATS = Set.of("xlsx", "csv", "jsonl");
+    
+    private int threads = 1;
+    private long contentCacheBytes = -1;
+    private Set<String> excludedDirectories;
+    private boolean streamingReport;
+    private int rowWindow = ExcelReporter.DEFAULT_ROW_WINDOW;
+    private int widthSampling = 1;
+    private File cacheFile;
+    private boolean watch;
+    private long debounceMillis = SourceWatcher.DEFAULT_DEBOUNCE_MILLIS;
+    private Set<String> formats = Set.of("xlsx");
+    private boolean groupQueries;
+    private boolean metricsTable;
+    private AnalysisResult.Storage storage = AnalysisResult.Storage.LIST;
+    private int spillThreshold = AnalysisResult.DEFAULT_SPILL_THRESHOLD;
+    private boolean dependencyGraph;
+    private boolean callGraph;
+    private Map<String, String> mappings = Map.of();
+    
     public static void main(String[] args) {
-        if (args.length < 1) {
-            logger.error("Usage: java -jar ColdFusionExtractor.jar <source_directory> [output_directory]");
+        List<String> positional = new ArrayList<>();
+        Map<String, String> options = new HashMap<>();
+        parseArguments(args, positional, options);
+        
+        if (positional.isEmpty()) {
+            logger.error("Usage: java -jar ColdFusionExtractor.jar [--threads=N] [--content-cache-mb=N] [--exclude-dirs=a,b] [--streaming-report] [--row-window=N] [--width-sample=N] [--cache=FILE] [--watch] [--debounce-ms=N] [--format=xlsx,csv,jsonl] [--group-queries] [--metrics-table] [--storage=list|columnar|spill] [--spill-threshold=N] [--dependency-graph] [--call-graph] [--mappings=/prefix=dir,...] <source_directory> [output_directory]");
             System.exit(1);
         }
         
-        String sourceDirectory = args[0];
-        String outputDirectory = args.length > 1 ? args[1] : System.getProperty("user.dir");
+        String sourceDirectory = positional.get(0);
+        String outputDirectory = positional.size() > 1 ? positional.get(1) : System.getProperty("user.dir");
         
         try {
             ColdFusionExtractor extractor = new ColdFusionExtractor();
+            extractor.setThreads(Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors()))));
+            if (options.containsKey("content-cache-mb")) {
+                extractor.setContentCacheBytes(Long.parseLong(options.get("content-cache-mb")) * 1024 * 1024);
+            }
+            if (options.containsKey("exclude-dirs")) {
+                extractor.setExcludedDirectories(Set.of(options.get("exclude-dirs").split(",")));
+            }
+            extractor.setStreamingReport(Boolean.parseBoolean(options.getOrDefault("streaming-report", "false")));
+            if (options.containsKey("row-window")) {
+                extractor.setRowWindow(Integer.parseInt(options.get("row-window")));
+            }
+            if (options.containsKey("width-sample")) {
+                extractor.setWidthSampling(Integer.parseInt(options.get("width-sample")));
+            }
+            if (options.containsKey("cache")) {
+                extractor.setCacheFile(new File(options.get("cache")));
+            }
+            extractor.setWatch(Boolean.parseBoolean(options.getOrDefault("watch", "false")));
+            if (options.containsKey("debounce-ms")) {
+                extractor.setDebounceMillis(Long.parseLong(options.get("debounce-ms")));
+            }
+            if (options.containsKey("format")) {
+                extractor.setFormats(new LinkedHashSet<>(List.of(options.get("format").toLowerCase(Locale.ROOT).split(","))));
+            }
+            extractor.setGroupQueries(Boolean.parseBoolean(options.getOrDefault("group-queries", "false")));
+            extractor.setMetricsTable(Boolean.parseBoolean(options.getOrDefault("metrics-table", "false")));
+            if (options.containsKey("storage")) {
+                extractor.setStorage(AnalysisResult.Storage.valueOf(options.get("storage").toUpperCase(Locale.ROOT)));
+            }
+            if (options.containsKey("spill-threshold")) {
+                extractor.setSpillThreshold(Integer.parseInt(options.get("spill-threshold")));
+            }
+            extractor.setDependencyGraph(Boolean.parseBoolean(options.getOrDefault("dependency-graph", "false")));
+            extractor.setCallGraph(Boolean.parseBoolean(options.getOrDefault("call-graph", "false")));
+            if (options.containsKey("mappings")) {
+                extractor.setMappings(parseMappings(options.get("mappings")));
+            }
             extractor.extractAndAnalyze(sourceDirectory, outputDirectory);
         } catch (Exception e) {
             logger.error("Error during extraction: {}", e.getMessage(), e);
@@ -36,6 +112,113 @@ public class ColdFusionExtractor {
         }
     }
     
+    /**
+     * Splits command line arguments into positional values and --name[=value] options
+     */
+    private static void parseArguments(String[] args, List<String> positional, Map<String, String> options) {
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                int separator = arg.indexOf('=');
+                if (separator > 0) {
+                    options.put(arg.substring(2, separator), arg.substring(separator + 1));
+                } else {
+                    options.put(arg.substring(2), "true");
+                }
+            } else {
+                positional.add(arg);
+            }
+        }
+    }
+    
+    /**
+     * Parses comma separated prefix=directory mappings
+     */
+    private static Map<String, String> parseMappings(String value) {
+        Map<String, String> mappings = new HashMap<>();
+        for (String mapping : value.split(",")) {
+            int separator = mapping.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Mapping must be prefix=directory: " + mapping);
+            }
+            mappings.put(mapping.substring(0, separator).trim(), mapping.substring(separator + 1).trim());
+        }
+        return mappings;
+    }
+    
+    public int getThreads() { return threads; }
+    public void setThreads(int threads) { this.threads = threads; }
+    
+    public long getContentCacheBytes() { return contentCacheBytes; }
+    /** Negative values keep the analyzer default */
+    public void setContentCacheBytes(long contentCacheBytes) { this.contentCacheBytes = contentCacheBytes; }
+    
+    public Set<String> getExcludedDirectories() { return excludedDirectories; }
+    /** Null keeps the analyzer default */
+    public void setExcludedDirectories(Set<String> excludedDirectories) { this.excludedDirectories = excludedDirectories; }
+    
+    public boolean isStreamingReport() { return streamingReport; }
+    public void setStreamingReport(boolean streamingReport) { this.streamingReport = streamingReport; }
+    
+    public int getRowWindow() { return rowWindow; }
+    public void setRowWindow(int rowWindow) { this.rowWindow = rowWindow; }
+    
+    public int getWidthSampling() { return widthSampling; }
+    public void setWidthSampling(int widthSampling) { this.widthSampling = widthSampling; }
+    
+    public File getCacheFile() { return cacheFile; }
+    /** Null disables incremental analysis */
+    public void setCacheFile(File cacheFile) { this.cacheFile = cacheFile; }
+    
+    public boolean isWatch() { return watch; }
+    /** Keeps running after the first report and regenerates it whenever source files change */
+    public void setWatch(boolean watch) { this.watch = watch; }
+    
+    public long getDebounceMillis() { return debounceMillis; }
+    public void setDebounceMillis(long debounceMillis) { this.debounceMillis = debounceMillis; }
+    
+    public Set<String> getFormats() { return formats; }
+    
+    /**
+     * Sets the report formats to write: xlsx, csv and jsonl
+     */
+    public void setFormats(Set<String> formats) {
+        if (formats.isEmpty() || !FORMATS.containsAll(formats)) {
+            throw new IllegalArgumentException("Unsupported report formats: " + formats + ", expected some of " + FORMATS);
+        }
+        this.formats = formats;
+    }
+    
+    public boolean isGroupQueries() { return groupQueries; }
+    /** Adds a report of distinct queries by fingerprint with their occurrences */
+    public void setGroupQueries(boolean groupQueries) { this.groupQueries = groupQueries; }
+    
+    public boolean isMetricsTable() { return metricsTable; }
+    /** Logs the run metrics as a table in addition to writing them next to the report */
+    public void setMetricsTable(boolean metricsTable) { this.metricsTable = metricsTable; }
+    
+    public AnalysisResult.Storage getStorage() { return storage; }
+    /** Sets how the analysis result keeps its records in memory */
+    public void setStorage(AnalysisResult.Storage storage) { this.storage = storage; }
+    
+    public int getSpillThreshold() { return spillThreshold; }
+    /**
+     * Records of each type kept in memory with spill storage before they are moved to temporary
+     * files; functions and components are never spilled
+     */
+    public void setSpillThreshold(int spillThreshold) { this.spillThreshold = spillThreshold; }
+    
+    public boolean isDependencyGraph() { return dependencyGraph; }
+    /** Adds a report of the files each file pulls in and is pulled in by through includes and modules */
+    public void setDependencyGraph(boolean dependencyGraph) { this.dependencyGraph = dependencyGraph; }
+    
+    public boolean isCallGraph() { return callGraph; }
+    /** Adds reports of component inheritance and of the functions each function calls through cfinvoke */
+    public void setCallGraph(boolean callGraph) { this.callGraph = callGraph; }
+    
+    public Map<String, String> getMappings() { return mappings; }
+    /** Logical path prefixes such as "/shared" and the directories they stand for, relative to the source directory */
+    public void setMappings(Map<String, String> mappings) { this.mappings = mappings; }
+    
     public void extractAndAnalyze(String sourceDirectory, String outputDirectory) throws Exception {
         logger.info("Starting ColdFusion code analysis...");
         logger.info("Source directory: {}", sourceDirectory);
@@ -47,22 +230,115 @@ public class ColdFusionExtractor {
         }
         
         // Analyze files
-        FileAnalyzer analyzer = new FileAnalyzer();
-        AnalysisResult result = analyzer.analyzeDirectory(sourceDir);
+        RunMetrics metrics = new RunMetrics();
+        FileAnalyzer analyzer = new FileAnalyzer(threads);
+        analyzer.setMetrics(metrics);
+        if (contentCacheBytes >= 0) {
+            analyzer.setContentCacheBytes(contentCacheBytes);
+        }
+        if (excludedDirectories != null) {
+            analyzer.setExcludedDirectories(excludedDirectories);
+        }
+        if (storage != AnalysisResult.Storage.LIST && (cacheFile != null || watch)) {
+            // Per-file results are kept as lists for the cache and for watching, whatever the storage
+            logger.warn("--storage={} does not bound the heap with --cache or --watch, which keep every file's records in memory",
+                storage.name().toLowerCase(Locale.ROOT));
+        }
+        analyzer.setCacheFile(cacheFile);
+        analyzer.setKeepFileResults(watch);
+        analyzer.setStorage(storage);
+        analyzer.setSpillThreshold(spillThreshold);
+        analyzer.setDependencyGraph(dependencyGraph);
+        analyzer.setCallGraph(callGraph);
+        analyzer.setMappings(mappings);
         
-        // Generate Excel report
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        String reportFileName = "OT_CodeAnalysis_" + timestamp + ".xlsx";
-        String reportPath = new File(outputDirectory, reportFileName).getAbsolutePath();
+        // Generate reports; in watch mode under a stable name that is replaced on every update
+        String reportName;
+        if (watch) {
+            reportName = "OT_CodeAnalysis_latest";
+        } else {
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+            reportName = "OT_CodeAnalysis_" + timestamp;
+        }
+        File reportDirectory = new File(outputDirectory).getAbsoluteFile();
+        // Closing deletes the temporary files of spilled records
+        try (AnalysisResult result = analyzer.analyzeDirectory(sourceDir)) {
+            report(result, metrics, reportDirectory, reportName);
+        }
         
-        ExcelReporter reporter = new ExcelReporter();
-        reporter.generateReport(result, reportPath);
+        if (watch) {
+            try (SourceWatcher watcher = new SourceWatcher(analyzer, debounceMillis)) {
+                watcher.watch(new SourceWatcher.Listener() {
+                    // Every update is measured on its own
+                    private RunMetrics updateMetrics = startUpdate(analyzer);
+                    
+                    @Override
+                    public void updated(AnalysisResult updated) throws Exception {
+                        try (AnalysisResult result = updated) {
+                            generateReports(result, updateMetrics, reportDirectory, reportName);
+                        }
+                        updateMetrics = startUpdate(analyzer);
+                        logger.info("Reports updated: {}", reportName);
+                    }
+                });
+            }
+        }
+    }
+    
+    private static RunMetrics startUpdate(FileAnalyzer analyzer) {
+        RunMetrics metrics = new RunMetrics();
+        analyzer.setMetrics(metrics);
+        return metrics;
+    }
+    
+    /**
+     * Writes the reports, the summary and the metrics of the first analysis
+     */
+    private void report(AnalysisResult result, RunMetrics metrics, File reportDirectory, String reportName) throws Exception {
+        generateReports(result, metrics, reportDirectory, reportName);
         
         logger.info("Analysis completed successfully!");
-        logger.info("Report generated: {}", reportPath);
+        logger.info("Reports generated in {} as {} ({})", reportDirectory, reportName, String.join(", ", formats));
         
         // Print summary
         printSummary(result);
+        
+        if (metricsTable) {
+            new MetricsReporter().logTable(metrics);
+        }
+    }
+    
+    /**
+     * Writes the reports and then the metrics of the analysis and of writing them
+     */
+    private void generateReports(AnalysisResult result, RunMetrics metrics, File reportDirectory, String reportName)
+            throws Exception {
+        for (String format : formats) {
+            long start = System.nanoTime();
+            createReporter(format).generateReport(result, reportDirectory, reportName);
+            metrics.recordTime("report." + format, System.nanoTime() - start);
+        }
+        new MetricsReporter().writeJson(metrics, new File(reportDirectory, reportName + "_metrics.json"));
+    }
+    
+    private Reporter createReporter(String format) {
+        TabularReporter reporter;
+        switch (format) {
+            case "csv":
+                reporter = new CsvReporter();
+                break;
+            case "jsonl":
+                reporter = new JsonLinesReporter();
+                break;
+            default:
+                ExcelReporter excelReporter = new ExcelReporter();
+                excelReporter.setStreaming(streamingReport);
+                excelReporter.setRowWindow(rowWindow);
+                excelReporter.setWidthSampling(widthSampling);
+                reporter = excelReporter;
+        }
+        reporter.setGroupQueries(groupQueries);
+        return reporter;
     }
     
     private void printSummary(AnalysisResult result) {
@@ -74,5 +350,13 @@ public class ColdFusionExtractor {
         logger.info("Components found: {}", result.getComponents().size());
         logger.info("Includes found: {}", result.getIncludes().size());
         logger.info("Modules found: {}", result.getModules().size());
+        if (result.getDependencies() != null) {
+            logger.info("Template dependencies resolved: {}", result.getDependencies().getEdgeCount());
+            logger.info("Templates unresolved: {}", result.getDependencies().getUnresolvedCount());
+        }
+        if (result.getCallGraph() != null) {
+            logger.info("Calls between functions resolved: {}", result.getCallGraph().getCallCount());
+            logger.info("Invokes unresolved: {}", result.getCallGraph().getUnresolvedInvokeCount());
+        }
     }
 }
\ No newline at end of file
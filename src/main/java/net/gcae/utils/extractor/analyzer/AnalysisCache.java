@@ -0,0 +1,178 @@
+package net.gcae.utils.extractor.analyzer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.gcae.utils.extractor.model.AnalysisResult;
+import net.gcae.utils.extractor.model.RecordCodec;
+import net.gcae.utils.extractor.model.StringPool;
+
+/**
+ * Per-file analysis results persisted between runs.
+ *
+ * An entry is keyed by relative path and validated by size and modification time;
+ * when those differ the file is read and its content hash decides whether the stored
+ * records can still be used. Each entry also keeps the declared names found in the
+ * file by the last usage pass, together with the set of names that were declared at
+ * the time, so unchanged files only need to be scanned for newly declared names.
+ */
+class AnalysisCache {
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisCache.class);
+
+    private static final int MAGIC = 0x43464143;
+    // Bump whenever the layout or the meaning of the stored records changes
+    private static final int VERSION = 5;
+
+    // Modification times this close to the save may still change without a visible
+    // difference on file systems with coarse timestamps, so they are not trusted
+    private static final long RACY_MILLIS = 2000;
+
+    /**
+     * Stored state of one file
+     */
+    static class Entry {
+        private final long size;
+        private final long modified;
+        private final byte[] digest;
+        private final AnalysisResult records;
+        private final List<String> usages;
+
+        Entry(long size, long modified, byte[] digest, AnalysisResult records, List<String> usages) {
+            this.size = size;
+            this.modified = modified;
+            this.digest = digest;
+            this.records = records;
+            this.usages = usages;
+        }
+
+        long getSize() { return size; }
+        long getModified() { return modified; }
+        byte[] getDigest() { return digest; }
+        AnalysisResult getRecords() { return records; }
+        List<String> getUsages() { return usages; }
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final Set<String> declaredNames;
+
+    /**
+     * @param declaredNames names the stored usages were searched for
+     */
+    AnalysisCache(Set<String> declaredNames) {
+        this.declaredNames = declaredNames;
+    }
+
+    Entry get(String relativePath) { return entries.get(relativePath); }
+
+    void put(String relativePath, Entry entry) { entries.put(relativePath, entry); }
+
+    Set<String> getDeclaredNames() { return Collections.unmodifiableSet(declaredNames); }
+
+    int size() { return entries.size(); }
+
+    /**
+     * Loads a cache file; a missing, outdated or unreadable file yields an empty cache
+     *
+     * @param pool canonical instances for the paths and values of the stored records
+     */
+    static AnalysisCache load(Path file, StringPool pool) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file), 65536)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                logger.info("Ignoring cache {} written by another version", file);
+                return new AnalysisCache(new HashSet<>());
+            }
+
+            int nameCount = in.readInt();
+            Set<String> names = new HashSet<>(nameCount * 2);
+            for (int i = 0; i < nameCount; i++) {
+                names.add(RecordCodec.readString(in, pool));
+            }
+
+            AnalysisCache cache = new AnalysisCache(names);
+            int entryCount = in.readInt();
+            for (int i = 0; i < entryCount; i++) {
+                String relativePath = RecordCodec.readString(in, pool);
+                long size = in.readLong();
+                long modified = in.readLong();
+                byte[] digest = new byte[in.readUnsignedByte()];
+                in.readFully(digest);
+                AnalysisResult records = RecordCodec.readResult(in, pool);
+                int usageCount = in.readInt();
+                List<String> usages = new ArrayList<>(usageCount);
+                for (int k = 0; k < usageCount; k++) {
+                    usages.add(RecordCodec.readString(in, pool));
+                }
+                cache.put(relativePath, new Entry(size, modified, digest, records, usages));
+            }
+            return cache;
+        } catch (NoSuchFileException e) {
+            return new AnalysisCache(new HashSet<>());
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable cache {}: {}", file, e.getMessage());
+            return new AnalysisCache(new HashSet<>());
+        }
+    }
+
+    /**
+     * Writes the cache to a temporary file next to the target and moves it into place,
+     * so an interrupted run never leaves a truncated cache behind
+     */
+    void save(Path file) throws IOException {
+        Path target = file.toAbsolutePath();
+        Path directory = target.getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        long racyAfter = System.currentTimeMillis() - RACY_MILLIS;
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(temporary), 65536)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+
+                out.writeInt(declaredNames.size());
+                for (String name : declaredNames) {
+                    RecordCodec.writeString(out, name);
+                }
+
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Entry> stored : entries.entrySet()) {
+                    Entry entry = stored.getValue();
+                    RecordCodec.writeString(out, stored.getKey());
+                    out.writeLong(entry.size);
+                    out.writeLong(entry.modified >= racyAfter ? -1 : entry.modified);
+                    out.writeByte(entry.digest.length);
+                    out.write(entry.digest);
+                    RecordCodec.writeResult(out, entry.records);
+                    out.writeInt(entry.usages.size());
+                    for (String name : entry.usages) {
+                        RecordCodec.writeString(out, name);
+                    }
+                }
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package net.gcae.utils.extractor.analyzer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import net.gcae.utils.extractor.model.AnalysisResult;
+import net.gcae.utils.extractor.model.CallGraph;
+import net.gcae.utils.extractor.model.ComponentInfo;
+import net.gcae.utils.extractor.model.FunctionInfo;
+import net.gcae.utils.extractor.model.InvokeInfo;
+
+/**
+ * Links components to the components they extend and invokes to the functions they
+ * call, in one pass over each record type, and collects the links in a {@link CallGraph}.
+ *
+ * A component is known by its dotted path from the source root ("com.app.UserService")
+ * and by its file name. A dotted reference is resolved as a full dotted path, then
+ * relative to the directory of the file using it; a plain name is looked up in that
+ * directory first, as ColdFusion does. Failing both, it is matched as the dotted path
+ * suffix of every component with the same name, so an ambiguous invoke calls all of
+ * them and an ambiguous extends none. An invoke without a component calls the
+ * component of its own file. Methods are looked up on the component and then up its
+ * extends chain. Names are matched ignoring case, as ColdFusion does; references with
+ * #expressions# stay unresolved.
+ */
+class CallGraphResolver {
+    private static final int[] NONE = new int[0];
+
+    // Dotted path and file name, lower case, of every component
+    private final Map<String, Integer> componentsByPath = new HashMap<>();
+    private final Map<String, List<Integer>> componentsByName = new HashMap<>();
+    private final Map<String, Integer> componentsByFile = new HashMap<>();
+    private final List<String> componentPaths = new ArrayList<>();
+    // Lower case method name to function, per component
+    private final List<Map<String, Integer>> methods = new ArrayList<>();
+    // Functions of every file, in line order
+    private final Map<String, List<Integer>> functionsByFile = new HashMap<>();
+    private final Map<String, int[]> resolved = new HashMap<>();
+
+    /**
+     * Builds the graph over the components, functions and invokes of the result
+     */
+    CallGraph buildGraph(AnalysisResult result) {
+        List<ComponentInfo> components = result.getComponents();
+        List<FunctionInfo> functions = result.getFunctions();
+        CallGraph.Builder builder = new CallGraph.Builder(components.size(), functions.size(),
+            result.getInvokes().size());
+
+        for (int i = 0; i < components.size(); i++) {
+            String path = dottedPath(components.get(i).getFilePath());
+            componentPaths.add(path);
+            componentsByPath.putIfAbsent(path, i);
+            componentsByName.computeIfAbsent(lastSegment(path), k -> new ArrayList<>(1)).add(i);
+            componentsByFile.putIfAbsent(components.get(i).getFilePath(), i);
+            methods.add(null);
+        }
+        for (int i = 0; i < components.size(); i++) {
+            ComponentInfo component = components.get(i);
+            int[] parents = resolveComponents(component.getExtends(), component.getFilePath());
+            if (parents.length == 1 && parents[0] != i) {
+                builder.setParent(i, parents[0]);
+            }
+        }
+
+        for (int i = 0; i < functions.size(); i++) {
+            FunctionInfo function = functions.get(i);
+            functionsByFile.computeIfAbsent(function.getFilePath(), k -> new ArrayList<>(4)).add(i);
+            Integer component = componentsByFile.get(function.getFilePath());
+            if (component == null || function.getFunctionName() == null) continue;
+            builder.setFunctionComponent(i, component);
+            if (methods.get(component) == null) methods.set(component, new HashMap<>());
+            methods.get(component).putIfAbsent(function.getFunctionName().toLowerCase(Locale.ROOT), i);
+        }
+
+        int invoke = 0;
+        for (InvokeInfo info : result.getInvokes()) {
+            builder.setInvokeCaller(invoke, findCaller(functions, info));
+            String method = info.getMethod();
+            if (method != null && method.indexOf('#') < 0) {
+                int[] targets;
+                if (info.getComponent() == null || info.getComponent().isBlank()
+                        || info.getComponent().equalsIgnoreCase("this")) {
+                    Integer own = componentsByFile.get(info.getFilePath());
+                    targets = own != null ? new int[] {own} : NONE;
+                } else {
+                    targets = resolveComponents(info.getComponent(), info.getFilePath());
+                }
+                String methodName = method.trim().toLowerCase(Locale.ROOT);
+                for (int component : targets) {
+                    int function = findMethod(builder, component, methodName);
+                    if (function >= 0) builder.addInvokeTarget(invoke, function);
+                }
+            }
+            invoke++;
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the function whose lines contain the invoke, or -1
+     */
+    private int findCaller(List<FunctionInfo> functions, InvokeInfo invoke) {
+        List<Integer> candidates = functionsByFile.get(invoke.getFilePath());
+        if (candidates == null) return -1;
+        // Functions cannot nest, so the last one starting before the invoke is the only candidate
+        int low = 0;
+        int high = candidates.size() - 1;
+        int found = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (functions.get(candidates.get(middle)).getLineNumber() <= invoke.getLineNumber()) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (found < 0) return -1;
+        int function = candidates.get(found);
+        return invoke.getLineNumber() <= functions.get(function).getEndLineNumber() ? function : -1;
+    }
+
+    /**
+     * Returns the function with the name on the component or the nearest component it extends, or -1
+     */
+    private int findMethod(CallGraph.Builder builder, int component, String methodName) {
+        // Bounded by the number of components, in case the chain leads back to itself
+        for (int steps = 0; component >= 0 && steps < methods.size(); steps++) {
+            Map<String, Integer> declared = methods.get(component);
+            Integer function = declared != null ? declared.get(methodName) : null;
+            if (function != null) return function;
+            component = builder.getParent(component);
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the components the reference can stand for, from the file using it
+     */
+    private int[] resolveComponents(String reference, String filePath) {
+        if (reference == null || reference.isBlank() || reference.indexOf('#') >= 0) return NONE;
+        String path = reference.trim().replace('/', '.').replace('\\', '.').toLowerCase(Locale.ROOT);
+        while (path.startsWith(".")) path = path.substring(1);
+        if (path.isEmpty()) return NONE;
+
+        // A plain name is first looked for next to the file using it
+        boolean qualified = path.indexOf('.') >= 0;
+        Integer component = qualified ? componentsByPath.get(path) : null;
+        if (component != null) return new int[] {component};
+
+        String directory = dottedDirectory(filePath);
+        String key = directory + "|" + path;
+        int[] components = resolved.get(key);
+        if (components != null) return components;
+
+        component = directory.isEmpty() ? null : componentsByPath.get(directory + "." + path);
+        if (component == null && !qualified) {
+            component = componentsByPath.get(path);
+        }
+        if (component != null) {
+            components = new int[] {component};
+        } else {
+            List<Integer> named = componentsByName.getOrDefault(lastSegment(path), List.of());
+            List<Integer> matching = new ArrayList<>(named.size());
+            for (int candidate : named) {
+                String candidatePath = componentPaths.get(candidate);
+                if (candidatePath.equals(path) || candidatePath.endsWith("." + path)) matching.add(candidate);
+            }
+            components = matching.stream().mapToInt(Integer::intValue).toArray();
+        }
+        resolved.put(key, components);
+        return components;
+    }
+
+    /**
+     * "com/app/UserService.cfc" becomes "com.app.userservice"
+     */
+    private static String dottedPath(String filePath) {
+        int slash = filePath.lastIndexOf('/');
+        int dot = filePath.lastIndexOf('.');
+        String path = dot > slash ? filePath.substring(0, dot) : filePath;
+        return path.replace('/', '.').toLowerCase(Locale.ROOT);
+    }
+
+    private static String dottedDirectory(String filePath) {
+        int slash = filePath.lastIndexOf('/');
+        return slash > 0 ? filePath.substring(0, slash).replace('/', '.').toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static String lastSegment(String dottedPath) {
+        return dottedPath.substring(dottedPath.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,137 @@
+package net.gcae.utils.extractor.analyzer;
+
+import java.util.Arrays;
+
+/**
+ * Streaming lexer that walks a CFML file once and reports the {@code cf*} tags of
+ * interest to a listener.
+ *
+ * Every recognised opening tag produces a {@link Listener#tagOpen} event and every
+ * closing tag a {@link Listener#tagClose} event. For block tags the lexer also pairs
+ * an opening tag with the next closing tag of the same name and reports the pair as
+ * a {@link Listener#body} event; openings of the same tag inside an unclosed block
+ * are part of that block's body. Quoted attribute values may contain {@code >}.
+ */
+class CfmlLexer {
+    /**
+     * Receives tag events in document order; positions are character offsets and ends are exclusive
+     */
+    interface Listener {
+        void tagOpen(String name, int start, int nameEnd, int end);
+
+        default void tagClose(String name, int start, int end) {
+        }
+
+        default void body(String name, int openStart, int bodyStart, int bodyEnd, int end) {
+        }
+    }
+
+    private final String[] tags;
+    private final boolean[] blockTag;
+
+    /**
+     * @param tags lower-case names of the tags to report
+     * @param blockTags lower-case names of the tags whose bodies are reported
+     */
+    CfmlLexer(String[] tags, String... blockTags) {
+        this.tags = tags.clone();
+        this.blockTag = new boolean[tags.length];
+        for (int i = 0; i < tags.length; i++) {
+            blockTag[i] = Arrays.asList(blockTags).contains(tags[i]);
+        }
+    }
+
+    void scan(String content, Listener listener) {
+        // Start and end of the pending opening tag per block tag, -1 when none
+        int[] openStart = new int[tags.length];
+        int[] openEnd = new int[tags.length];
+        Arrays.fill(openStart, -1);
+
+        int position = content.indexOf('<');
+        while (position >= 0) {
+            boolean closing = position + 1 < content.length() && content.charAt(position + 1) == '/';
+            int nameStart = closing ? position + 2 : position + 1;
+            int tag = matchTag(content, nameStart);
+            if (tag < 0) {
+                position = content.indexOf('<', position + 1);
+                continue;
+            }
+
+            int nameEnd = nameStart + tags[tag].length();
+            int end = findTagEnd(content, nameEnd);
+            if (end < 0) {
+                break;
+            }
+
+            if (closing) {
+                listener.tagClose(tags[tag], position, end);
+                if (blockTag[tag] && openStart[tag] >= 0) {
+                    listener.body(tags[tag], openStart[tag], openEnd[tag], position, end);
+                    openStart[tag] = -1;
+                }
+            } else {
+                listener.tagOpen(tags[tag], position, nameEnd, end);
+                if (blockTag[tag] && openStart[tag] < 0) {
+                    openStart[tag] = position;
+                    openEnd[tag] = end;
+                }
+            }
+            position = content.indexOf('<', end);
+        }
+    }
+
+    /**
+     * Returns the index of the tag whose name starts at the position, or -1
+     */
+    private int matchTag(String content, int nameStart) {
+        if (nameStart + 2 > content.length()
+                || Character.toLowerCase(content.charAt(nameStart)) != 'c'
+                || Character.toLowerCase(content.charAt(nameStart + 1)) != 'f') {
+            return -1;
+        }
+        for (int i = 0; i < tags.length; i++) {
+            int nameEnd = nameStart + tags[i].length();
+            if (content.regionMatches(true, nameStart, tags[i], 0, tags[i].length())
+                    && (nameEnd == content.length() || isNameTerminator(content.charAt(nameEnd)))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isNameTerminator(char c) {
+        return c == '>' || c == '/' || Character.isWhitespace(c);
+    }
+
+    private static boolean startsTag(String content, int position) {
+        if (position < content.length() && content.charAt(position) == '/') {
+            position++;
+        }
+        return content.regionMatches(true, position, "cf", 0, 2);
+    }
+
+    /**
+     * Returns the position after the closing '>' of a tag, skipping quoted attribute values,
+     * or -1 when the tag is not terminated
+     */
+    private static int findTagEnd(String content, int from) {
+        char quote = 0;
+        for (int i = from; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else if (c == '<' && startsTag(content, i + 1)) {
+                    break;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return i + 1;
+            }
+        }
+        // Unbalanced quote running into the next tag: fall back to the first '>'
+        int end = content.indexOf('>', from);
+        return end < 0 ? -1 : end + 1;
+    }
+}
@@ -0,0 +1,87 @@
+package net.gcae.utils.extractor.analyzer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps decoded file contents from the declaration pass so the usage pass does not
+ * read and decode the same files again.
+ *
+ * The cache holds at most {@code maxBytes} of content. Files that do not fit are not
+ * admitted and are read again by the usage pass. Entries are evicted as soon as the
+ * usage pass takes them, which frees room in the same order the files were admitted;
+ * an LRU policy would not help here because both passes visit the files in the same
+ * order, so the least recently used entry is always the next one needed.
+ *
+ * A retaining cache keeps what it admitted after the usage pass, for watch mode, where
+ * unchanged files only need to be searched again for newly declared names.
+ */
+class ContentCache {
+    private final long maxBytes;
+    private final boolean retain;
+    private final Map<String, String> contents = new HashMap<>();
+    private long usedBytes;
+    private int hits;
+    private int misses;
+
+    ContentCache(long maxBytes) {
+        this(maxBytes, false);
+    }
+
+    /**
+     * @param retain whether contents stay cached when they are taken
+     */
+    ContentCache(long maxBytes, boolean retain) {
+        this.maxBytes = maxBytes;
+        this.retain = retain;
+    }
+
+    boolean isRetaining() { return retain; }
+
+    /**
+     * Stores the content if it fits in the remaining budget; an earlier content of the
+     * file is dropped either way
+     */
+    synchronized void put(String relativePath, String content) {
+        remove(relativePath);
+        long size = sizeOf(content);
+        if (usedBytes + size > maxBytes) {
+            return;
+        }
+        contents.put(relativePath, content);
+        usedBytes += size;
+    }
+
+    /**
+     * Returns the cached content, or null when the file was not admitted; the content is
+     * removed unless the cache is retaining
+     */
+    synchronized String take(String relativePath) {
+        String content = retain ? contents.get(relativePath) : remove(relativePath);
+        if (content == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return content;
+    }
+
+    /**
+     * Drops the content of a file that changed or no longer exists
+     */
+    synchronized String remove(String relativePath) {
+        String content = contents.remove(relativePath);
+        if (content != null) {
+            usedBytes -= sizeOf(content);
+        }
+        return content;
+    }
+
+    synchronized int getHits() { return hits; }
+    synchronized int getMisses() { return misses; }
+
+    private static long sizeOf(String content) {
+        // Worst case for a String: two bytes per char
+        return 2L * content.length();
+    }
+}
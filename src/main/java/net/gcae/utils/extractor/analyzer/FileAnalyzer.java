@@ -2,36 +2,50 @@ package net.gcae.utils.extractor.analyzer;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.util.Collection;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Queue;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang3.StringUtils;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Attribute;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.gcae.utils.extractor.metrics.FileAnalysisEvent;
+import net.gcae.utils.extractor.metrics.FileReadEvent;
+import net.gcae.utils.extractor.metrics.MetricsRegistry;
+import net.gcae.utils.extractor.metrics.UsageScanEvent;
 import net.gcae.utils.extractor.model.AnalysisResult;
+import net.gcae.utils.extractor.model.CallGraph;
 import net.gcae.utils.extractor.model.ComponentInfo;
+import net.gcae.utils.extractor.model.DependencyGraph;
 import net.gcae.utils.extractor.model.FileInfo;
 import net.gcae.utils.extractor.model.FunctionInfo;
 import net.gcae.utils.extractor.model.IncludeInfo;
 import net.gcae.utils.extractor.model.InvokeInfo;
 import net.gcae.utils.extractor.model.ModuleInfo;
 import net.gcae.utils.extractor.model.QueryInfo;
+import net.gcae.utils.extractor.model.StringPool;
 
 /**
  * Analyzes ColdFusion files and extracts information
@@ -40,366 +54,839 @@ public class FileAnalyzer {
     private static final Logger logger = LoggerFactory.getLogger(FileAnalyzer.class);
     
     private static final Set<String> CF_EXTENSIONS = Set.of(".cfm", ".cfml", ".cfc", ".htm", ".html");
-    private static final Pattern CFQUERY_PATTERN = Pattern.compile("<cfquery[^>]*>.*?</cfquery>", Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
-    private static final Pattern CFFUNCTION_PATTERN = Pattern.compile("<cffunction[^>]*>.*?</cffunction>", Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
-    private static final Pattern CFINVOKE_PATTERN = Pattern.compile("<cfinvoke[^>]*/?[^>]*>", Pattern.CASE_INSENSITIVE);
-    private static final Pattern CFCOMPONENT_PATTERN = Pattern.compile("<cfcomponent[^>]*>", Pattern.CASE_INSENSITIVE);
-    private static final Pattern CFINCLUDE_PATTERN = Pattern.compile("<cfinclude[^>]*>", Pattern.CASE_INSENSITIVE);
-    private static final Pattern CFMODULE_PATTERN = Pattern.compile("<cfmodule[^>]*>", Pattern.CASE_INSENSITIVE);
+    private static final CfmlLexer LEXER = new CfmlLexer(
+        new String[] {"cfquery", "cffunction", "cfargument", "cfinvoke", "cfcomponent", "cfinclude", "cfmodule"},
+        "cfquery", "cffunction");
+    private static final SourceReader SOURCE_READER = new SourceReader();
+    private static final SqlAnalyzer SQL_ANALYZER = new SqlAnalyzer();
     
+    private final int parallelism;
+    private long contentCacheBytes = Math.min(256L * 1024 * 1024, Runtime.getRuntime().maxMemory() / 4);
+    private Set<String> excludedDirectories = Set.of(".git", ".svn", ".hg", "CVS");
+    private File cacheFile;
+    private boolean keepFileResults;
     private File rootDirectory;
-    private Map<String, Set<String>> usageTracker = new HashMap<>();
+    private MetricsRegistry metrics = MetricsRegistry.NONE;
+    private AnalysisResult.Storage storage = AnalysisResult.Storage.LIST;
+    private int spillThreshold = AnalysisResult.DEFAULT_SPILL_THRESHOLD;
+    private boolean dependencyGraph;
+    private boolean callGraph;
+    private Map<String, String> mappings = Map.of();
+    // Shared by all records, including those read back from the cache
+    private final StringPool strings = new StringPool();
+    
+    // State of the last analysis, kept for reanalyze when keepFileResults is set
+    private Map<String, SourceFile> analyzedFiles;
+    // The same paths sorted, so the files under a directory are a range
+    private NavigableSet<String> analyzedPaths;
+    private Set<String> declaredNames;
+    // Contents of the analyzed files that fit in the budget, to search them for new names
+    private ContentCache retainedContents;
+    
+    public FileAnalyzer() {
+        this(1);
+    }
+    
+    /**
+     * @param parallelism number of worker threads analyzing files; the tree is walked on its own thread
+     */
+    public FileAnalyzer(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+    
+    public long getContentCacheBytes() { return contentCacheBytes; }
+    
+    /**
+     * Sets how much decoded content is kept between the declaration and usage passes; 0 disables the cache
+     */
+    public void setContentCacheBytes(long contentCacheBytes) { this.contentCacheBytes = contentCacheBytes; }
+    
+    public Set<String> getExcludedDirectories() { return excludedDirectories; }
+    
+    /**
+     * Sets the directory names that are not descended into, wherever they occur in the tree
+     */
+    public void setExcludedDirectories(Set<String> excludedDirectories) { this.excludedDirectories = Set.copyOf(excludedDirectories); }
+    
+    public File getCacheFile() { return cacheFile; }
+    
+    /**
+     * Sets the file that keeps per-file results between runs; null analyzes every file from scratch
+     */
+    public void setCacheFile(File cacheFile) { this.cacheFile = cacheFile; }
+    
+    public boolean isKeepFileResults() { return keepFileResults; }
+    
+    /**
+     * Keeps the results of every file after an analysis so that {@link #reanalyze} can update them
+     */
+    public void setKeepFileResults(boolean keepFileResults) { this.keepFileResults = keepFileResults; }
+    
+    public File getRootDirectory() { return rootDirectory; }
+    
+    public MetricsRegistry getMetrics() { return metrics; }
+    
+    /**
+     * Sets the registry receiving phase times, counters and per-file analysis times
+     */
+    public void setMetrics(MetricsRegistry metrics) { this.metrics = metrics; }
+    
+    public AnalysisResult.Storage getStorage() { return storage; }
+    
+    /**
+     * Sets how the merged result keeps its records; per-file results are always plain lists
+     */
+    public void setStorage(AnalysisResult.Storage storage) { this.storage = storage; }
+    
+    public int getSpillThreshold() { return spillThreshold; }
+    
+    /**
+     * Sets how many records of each type the merged result keeps in memory with spill storage
+     */
+    public void setSpillThreshold(int spillThreshold) { this.spillThreshold = spillThreshold; }
+    
+    public boolean isDependencyGraph() { return dependencyGraph; }
+    
+    /**
+     * Resolves include and module templates to files and links them in a graph on the result
+     */
+    public void setDependencyGraph(boolean dependencyGraph) { this.dependencyGraph = dependencyGraph; }
+    
+    public boolean isCallGraph() { return callGraph; }
+    
+    /**
+     * Links components to the components they extend and invokes to the functions they call
+     * in a cross-reference on the result
+     */
+    public void setCallGraph(boolean callGraph) { this.callGraph = callGraph; }
+    
+    public Map<String, String> getMappings() { return mappings; }
+    
+    /**
+     * Sets the logical path prefixes, such as "/shared", that templates starting with a slash
+     * are resolved through, and the directories they stand for relative to the source root
+     */
+    public void setMappings(Map<String, String> mappings) { this.mappings = Map.copyOf(mappings); }
     
     public AnalysisResult analyzeDirectory(File directory) throws IOException {
-        logger.info("Analyzing directory: {}", directory.getAbsolutePath());
+        logger.info("Analyzing directory: {} using {} thread(s)", directory.getAbsolutePath(), parallelism);
         
         this.rootDirectory = directory; // Store root directory for relative path calculation
+        long start = System.nanoTime();
         
-        AnalysisResult result = new AnalysisResult();
-        Collection<File> files = FileUtils.listFiles(directory, null, true);
+        AnalysisResult result = AnalysisResult.create(storage, spillThreshold);
+        AnalysisCache analysisCache = null;
+        if (cacheFile != null) {
+            analysisCache = AnalysisCache.load(cacheFile.toPath(), strings);
+            metrics.recordTime("cache.load", System.nanoTime() - start);
+        }
+        ContentCache contentCache = new ContentCache(contentCacheBytes, keepFileResults);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            // First pass: collect all declarations while the tree is being walked
+            long passStart = System.nanoTime();
+            List<SourceFile> sources = analyzeSources(pool, contentCache, analysisCache, result);
+            metrics.recordTime("analysis.declarations", System.nanoTime() - passStart);
+            logger.info("Analyzed {} ColdFusion files", sources.size());
+            if (analysisCache != null) {
+                long unchanged = sources.stream().filter(source -> source.cachedUsages != null).count();
+                logger.info("Reused cached results for {} unchanged files, parsed {} files", unchanged, sources.size() - unchanged);
+            }
+            
+            // Second pass: find usages
+            passStart = System.nanoTime();
+            Set<String> names = findUsages(pool, sources, result, contentCache,
+                analysisCache != null ? analysisCache.getDeclaredNames() : null);
+            metrics.recordTime("analysis.usages", System.nanoTime() - passStart);
+            buildDependencies(result);
+            buildCallGraph(result);
+            
+            if (cacheFile != null) {
+                long saveStart = System.nanoTime();
+                saveCache(sources, names);
+                metrics.recordTime("cache.save", System.nanoTime() - saveStart);
+            }
+            if (keepFileResults) {
+                analyzedFiles = new LinkedHashMap<>();
+                for (SourceFile source : sources) {
+                    analyzedFiles.put(source.relativePath, source);
+                }
+                analyzedPaths = new TreeSet<>(analyzedFiles.keySet());
+                declaredNames = names;
+                retainedContents = contentCache;
+            }
+            metrics.increment("files.analyzed", sources.size());
+        } finally {
+            pool.shutdownNow();
+        }
         
-        // Filter ColdFusion and HTML files
-        List<File> cfFiles = files.stream()
-            .filter(this::isColdFusionFile)
-            .collect(Collectors.toList());
+        recordCounts(result);
+        metrics.recordTime("analysis", System.nanoTime() - start);
+        return result;
+    }
+    
+    private void recordCounts(AnalysisResult result) {
+        metrics.increment("records.queries", result.getQueries().size());
+        metrics.increment("records.functions", result.getFunctions().size());
+        metrics.increment("records.invokes", result.getInvokes().size());
+        metrics.increment("records.components", result.getComponents().size());
+        metrics.increment("records.includes", result.getIncludes().size());
+        metrics.increment("records.modules", result.getModules().size());
+    }
+    
+    /**
+     * Updates the last analysis for changed files and directories and returns the new
+     * result. Changed files are analyzed again, deleted ones dropped and created
+     * directories walked; the results of all other files are reused. Usages are only
+     * searched again in the changed files and, in the other files, for names declared
+     * since the last analysis, in the contents kept from earlier analyses where they fit.
+     * Files new to the tree are listed after the existing ones.
+     *
+     * @param changedPaths created, modified or deleted paths under the root directory
+     */
+    public AnalysisResult reanalyze(Collection<Path> changedPaths) throws IOException {
+        if (analyzedFiles == null) {
+            throw new IllegalStateException("No analysis to update; analyze a directory with keepFileResults set first");
+        }
+        long start = System.nanoTime();
+        
+        // Drop what no longer exists and collect the files to analyze again
+        SourceWalker walker = new SourceWalker(rootDirectory.toPath(), CF_EXTENSIONS, excludedDirectories);
+        Set<Path> changedFiles = new LinkedHashSet<>();
+        SourceWalker.Sink collector = (file, attrs) -> changedFiles.add(file);
+        for (Path path : changedPaths) {
+            String relativePath = getRelativePath(path.toFile());
+            if (isExcluded(relativePath)) continue;
+            
+            // The path itself and, as '0' follows '/', every path under it
+            List<String> affected = new ArrayList<>(analyzedPaths.subSet(relativePath + "/", relativePath + "0"));
+            if (analyzedPaths.contains(relativePath)) affected.add(relativePath);
+            for (String analyzedPath : affected) {
+                if (!Files.isRegularFile(new File(rootDirectory, analyzedPath).toPath())) {
+                    forget(analyzedPath);
+                }
+            }
+            
+            if (Files.isDirectory(path)) {
+                try {
+                    new SourceWalker(path, CF_EXTENSIONS, excludedDirectories).walk(collector);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Analysis interrupted", e);
+                }
+            } else if (Files.isRegularFile(path) && walker.hasExtension(path)) {
+                changedFiles.add(path);
+            }
+        }
         
-        logger.info("Found {} ColdFusion files to analyze", cfFiles.size());
+        for (SourceFile source : analyzedFiles.values()) {
+            source.cachedUsages = source.usages;
+        }
         
-        // First pass: collect all declarations
-        for (File file : cfFiles) {
+        ContentCache contentCache = retainedContents;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long passStart = System.nanoTime();
+            List<Path> files = new ArrayList<>(changedFiles);
+            List<SourceFile> reanalyzed = mapInOrder(pool, files, path -> {
+                SourceFile source;
+                try {
+                    BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                    source = new SourceFile(-1, path.toFile(), attrs.size(), attrs.lastModifiedTime().toMillis());
+                    source.result = analyzeRecorded(source, contentCache, null);
+                } catch (Exception e) {
+                    logger.warn("Error analyzing file {}: {}", path, e.getMessage());
+                    return null;
+                }
+                return source;
+            });
+            long bytes = 0;
+            for (int i = 0; i < reanalyzed.size(); i++) {
+                SourceFile source = reanalyzed.get(i);
+                if (source != null && source.result != null) {
+                    analyzedFiles.put(source.relativePath, source);
+                    analyzedPaths.add(source.relativePath);
+                    bytes += source.size;
+                } else {
+                    forget(getRelativePath(files.get(i).toFile()));
+                }
+            }
+            metrics.recordTime("analysis.declarations", System.nanoTime() - passStart);
+            
+            // Rebuild the result from the per-file results; usages are found again from scratch
+            AnalysisResult result = AnalysisResult.create(storage, spillThreshold);
+            List<SourceFile> sources = new ArrayList<>(analyzedFiles.values());
+            for (SourceFile source : sources) {
+                result.addAll(source.result);
+            }
+            result.getFunctions().forEach(FunctionInfo::clearUsages);
+            result.getComponents().forEach(ComponentInfo::clearUsages);
+            passStart = System.nanoTime();
+            declaredNames = findUsages(pool, sources, result, contentCache, declaredNames);
+            metrics.recordTime("analysis.usages", System.nanoTime() - passStart);
+            buildDependencies(result);
+            buildCallGraph(result);
+            
+            metrics.increment("files.analyzed", changedFiles.size());
+            metrics.increment("bytes.analyzed", bytes);
+            recordCounts(result);
+            metrics.recordTime("analysis", System.nanoTime() - start);
+            logger.info("Re-analyzed {} changed files, {} files in total", changedFiles.size(), sources.size());
+            return result;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    /**
+     * Drops a file that no longer exists or can no longer be read from the kept state
+     */
+    private void forget(String relativePath) {
+        analyzedFiles.remove(relativePath);
+        analyzedPaths.remove(relativePath);
+        retainedContents.remove(relativePath);
+    }
+    
+    /**
+     * Links the files of the result by their include and module templates, when enabled
+     */
+    private void buildDependencies(AnalysisResult result) {
+        if (!dependencyGraph) return;
+        long start = System.nanoTime();
+        DependencyGraph graph = new TemplateResolver(mappings).buildGraph(result);
+        result.setDependencies(graph);
+        metrics.recordTime("analysis.dependencies", System.nanoTime() - start);
+        metrics.increment("dependencies.edges", graph.getEdgeCount());
+        metrics.increment("dependencies.unresolved", graph.getUnresolvedCount());
+        logger.info("Resolved {} template dependencies, {} templates unresolved",
+            graph.getEdgeCount(), graph.getUnresolvedCount());
+    }
+    
+    /**
+     * Resolves the extends chains and the invoke targets of the result, when enabled
+     */
+    private void buildCallGraph(AnalysisResult result) {
+        if (!callGraph) return;
+        long start = System.nanoTime();
+        CallGraph graph = new CallGraphResolver().buildGraph(result);
+        result.setCallGraph(graph);
+        metrics.recordTime("analysis.calls", System.nanoTime() - start);
+        metrics.increment("calls.resolved", graph.getCallCount());
+        metrics.increment("invokes.unresolved", graph.getUnresolvedInvokeCount());
+        logger.info("Resolved {} calls between functions, {} invokes unresolved",
+            graph.getCallCount(), graph.getUnresolvedInvokeCount());
+    }
+    
+    /**
+     * Finds the usages of declared names in every file and records them on the declarations,
+     * applied in file order. Files with cached usages keep those that are still declared and
+     * are only searched for names missing from the previously declared ones.
+     *
+     * @param previousNames names the cached usages were searched for, or null when there are none
+     * @return the declared names
+     */
+    private Set<String> findUsages(ForkJoinPool pool, List<SourceFile> sources, AnalysisResult result,
+            ContentCache contentCache, Set<String> previousNames) throws IOException {
+        // Index declarations by name for usage finding
+        UsageIndex usageIndex = new UsageIndex(result);
+        Set<String> names = usageIndex.getNames();
+        NameMatcher nameMatcher = new NameMatcher(names);
+        
+        Set<String> addedNames = new HashSet<>(names);
+        if (previousNames != null) {
+            addedNames.removeAll(previousNames);
+        }
+        NameMatcher addedMatcher = addedNames.isEmpty() ? null : new NameMatcher(addedNames);
+        // A retained cache counts across analyses
+        int hitsBefore = contentCache.getHits();
+        int missesBefore = contentCache.getMisses();
+        // Scan state handed from one file to the next, at most one per worker, dropped with the pass
+        Queue<NameMatcher.Scratch> scratches = new ConcurrentLinkedQueue<>();
+        
+        List<List<String>> fileUsages = mapInOrder(pool, sources, source -> {
+            NameMatcher.Scratch scratch = scratches.poll();
+            if (scratch == null) {
+                scratch = new NameMatcher.Scratch();
+            }
             try {
-                analyzeFile(file, result);
+                UsageScanEvent event = new UsageScanEvent();
+                event.begin();
+                long start = System.nanoTime();
+                List<String> usages = findUsages(source, contentCache, names, nameMatcher, addedMatcher, scratch);
+                metrics.recordTime("analysis.scan", System.nanoTime() - start);
+                event.finish(source.relativePath, source.cachedUsages != null, usages != null ? usages.size() : 0);
+                return usages;
             } catch (Exception e) {
-                logger.warn("Error analyzing file {}: {}", file.getAbsolutePath(), e.getMessage());
+                logger.warn("Error finding usages in file {}: {}", source.relativePath, e.getMessage());
+                return null;
+            } finally {
+                scratches.offer(scratch);
             }
+        });
+        for (int i = 0; i < sources.size(); i++) {
+            SourceFile source = sources.get(i);
+            source.usages = fileUsages.get(i);
+            if (source.usages == null) continue;
+            for (String name : source.usages) {
+                usageIndex.recordUsage(name, source.relativePath);
+            }
+            metrics.increment("usages.found", source.usages.size());
         }
-        
-        // Second pass: find usages
-        for (File file : cfFiles) {
+        int hits = contentCache.getHits() - hitsBefore;
+        int misses = contentCache.getMisses() - missesBefore;
+        metrics.increment("content.cache.hits", hits);
+        metrics.increment("content.cache.misses", misses);
+        logger.info("Usage pass reused cached content for {} files, re-read {} files", hits, misses);
+        return names;
+    }
+    
+    /**
+     * Walks the tree on a separate thread and streams matching files through a bounded
+     * queue to one consumer per worker thread. Per-file results are merged into the
+     * result in walk order, whichever worker finishes first.
+     *
+     * @param analysisCache results of the previous run, or null
+     * @return the files analyzed, in walk order
+     */
+    private List<SourceFile> analyzeSources(ForkJoinPool pool, ContentCache contentCache, AnalysisCache analysisCache,
+            AnalysisResult result) throws IOException {
+        SourceWalker walker = new SourceWalker(rootDirectory.toPath(), CF_EXTENSIONS, excludedDirectories);
+        BlockingQueue<SourceFile> queue = new ArrayBlockingQueue<>(parallelism * 64);
+        BlockingQueue<SourceFile> completed = new LinkedBlockingQueue<>();
+        AtomicReference<Throwable> walkFailure = new AtomicReference<>();
+        AtomicReference<Throwable> workerFailure = new AtomicReference<>();
+        
+        Thread walkerThread = new Thread(() -> {
+            long start = System.nanoTime();
             try {
-                findUsages(file, result);
-            } catch (Exception e) {
-                logger.warn("Error finding usages in file {}: {}", file.getAbsolutePath(), e.getMessage());
+                walker.walk(new SourceWalker.Sink() {
+                    private int next;
+                    
+                    @Override
+                    public void accept(Path path, BasicFileAttributes attrs) throws InterruptedException {
+                        queue.put(new SourceFile(next++, path.toFile(), attrs.size(), attrs.lastModifiedTime().toMillis()));
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable e) {
+                walkFailure.set(e);
+            } finally {
+                metrics.recordTime("analysis.walk", System.nanoTime() - start);
+                // Whatever happened, let the workers stop
+                try {
+                    for (int i = 0; i < parallelism; i++) {
+                        queue.put(SourceFile.END);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
             }
+        }, "source-walker");
+        walkerThread.setDaemon(true);
+        walkerThread.start();
+        
+        for (int i = 0; i < parallelism; i++) {
+            pool.execute(() -> {
+                try {
+                    SourceFile source;
+                    while ((source = queue.take()) != SourceFile.END) {
+                        try {
+                            source.result = analyzeRecorded(source, contentCache, analysisCache);
+                        } catch (Exception e) {
+                            logger.warn("Error analyzing file {}: {}", source.file.getAbsolutePath(), e.getMessage());
+                        }
+                        completed.put(source);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Throwable e) {
+                    workerFailure.compareAndSet(null, e);
+                } finally {
+                    // The queue is unbounded, so the merge always learns this worker is done
+                    completed.offer(SourceFile.END);
+                }
+            });
         }
         
-        return result;
+        // Merge in walk order, holding back results that finished early
+        Map<Integer, SourceFile> pending = new HashMap<>();
+        List<SourceFile> analyzed = new ArrayList<>();
+        int next = 0;
+        try {
+            for (int finishedWorkers = 0; finishedWorkers < parallelism; ) {
+                SourceFile source = completed.take();
+                if (source == SourceFile.END) {
+                    finishedWorkers++;
+                    continue;
+                }
+                pending.put(source.sequence, source);
+                while ((source = pending.remove(next)) != null) {
+                    if (source.result != null) {
+                        result.addAll(source.result);
+                        analyzed.add(source);
+                        metrics.increment("bytes.analyzed", source.size);
+                        if (analysisCache == null && !keepFileResults) {
+                            // Per-file results are only kept to be written to the cache
+                            source.result = null;
+                        }
+                    }
+                    next++;
+                }
+            }
+        } catch (InterruptedException e) {
+            walkerThread.interrupt();
+            Thread.currentThread().interrupt();
+            throw new IOException("Analysis interrupted", e);
+        }
+        
+        Throwable failure = walkFailure.get();
+        if (failure == null && workerFailure.get() != null) {
+            // The walker may be blocked on a queue nobody takes from any more
+            walkerThread.interrupt();
+            failure = workerFailure.get();
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure != null) {
+            throw new IOException("Cannot walk " + rootDirectory.getAbsolutePath() + ": " + failure.getMessage(), failure);
+        }
+        return analyzed;
     }
     
-    private boolean isColdFusionFile(File file) {
-        String fileName = file.getName().toLowerCase();
-        return CF_EXTENSIONS.stream().anyMatch(fileName::endsWith);
+    /**
+     * Applies the task to every item, on the pool when running with more than one thread,
+     * and returns the results in the same order as the input regardless of the number of threads.
+     */
+    private <S, T> List<T> mapInOrder(ForkJoinPool pool, List<S> items, Function<S, T> task) throws IOException {
+        if (parallelism == 1) {
+            List<T> results = new ArrayList<>(items.size());
+            for (S item : items) {
+                results.add(task.apply(item));
+            }
+            return results;
+        }
+        
+        try {
+            return pool.submit(() -> items.parallelStream().map(task).collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Analysis interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Analysis failed: " + e.getCause().getMessage(), e.getCause());
+        }
     }
     
-    private void analyzeFile(File file, AnalysisResult result) throws IOException {
-        String content = readFileContent(file);
-        if (content == null) return;
+    /**
+     * Analyzes one file, recording its analysis time and a flight recorder event
+     */
+    private AnalysisResult analyzeRecorded(SourceFile source, ContentCache contentCache, AnalysisCache analysisCache)
+            throws IOException {
+        FileAnalysisEvent event = new FileAnalysisEvent();
+        event.begin();
+        long start = System.nanoTime();
+        AnalysisResult result = analyzeFile(source, contentCache, analysisCache);
+        metrics.recordFile(source.relativePath, System.nanoTime() - start);
+        event.finish(source.relativePath, source.cachedUsages != null, result);
+        return result;
+    }
+    
+    private AnalysisResult analyzeFile(SourceFile sourceFile, ContentCache contentCache, AnalysisCache analysisCache) throws IOException {
+        File file = sourceFile.file;
+        // Every record of the file refers to this one instance
+        String relativePath = strings.intern(getRelativePath(file));
+        sourceFile.relativePath = relativePath;
+        
+        // Unchanged size and modification time: reuse the stored records without reading the file
+        AnalysisCache.Entry cached = analysisCache != null ? analysisCache.get(relativePath) : null;
+        if (cached != null && cached.getSize() == sourceFile.size && cached.getModified() == sourceFile.modified) {
+            sourceFile.digest = cached.getDigest();
+            sourceFile.cachedUsages = cached.getUsages();
+            metrics.increment("files.reused", 1);
+            return cached.getRecords();
+        }
+        
+        SourceReader.Source source = readSource(file, analysisCache != null);
+        if (source == null) return null;
+        sourceFile.digest = source.getDigest();
+        
+        // Touched but identical content: reuse the stored records without parsing
+        if (cached != null && Arrays.equals(cached.getDigest(), source.getDigest())) {
+            sourceFile.cachedUsages = cached.getUsages();
+            metrics.increment("files.reused", 1);
+            return cached.getRecords();
+        }
         
-        String relativePath = getRelativePath(file);
-        int lineCount = content.split("\n").length;
+        String content = source.getContent();
+        AnalysisResult result = new AnalysisResult();
+        contentCache.put(relativePath, content);
+        LineIndex lines = new LineIndex(content);
+        int lineCount = lines.getLineCount();
         
         // Add file info
         result.getFiles().add(new FileInfo(
             file.getName(),
             relativePath,
             getFileType(file),
-            file.length(),
-            lineCount
+            source.getSize(),
+            lineCount,
+            source.getCharset().name()
         ));
         
-        // Analyze queries
-        analyzeQueries(content, relativePath, result);
-        
-        // Analyze functions
-        analyzeFunctions(content, relativePath, result);
-        
-        // Analyze invokes
-        analyzeInvokes(content, relativePath, result);
-        
-        // Analyze components
-        analyzeComponents(content, relativePath, result);
+        // Analyze all tags in a single pass
+        long start = System.nanoTime();
+        extractTags(content, lines, relativePath, result);
+        metrics.recordTime("analysis.extract", System.nanoTime() - start);
         
-        // Analyze includes
-        analyzeIncludes(content, relativePath, result);
-        
-        // Analyze modules
-        analyzeModules(content, relativePath, result);
+        return result;
+    }
+    
+    /**
+     * Adds the records of every tag in the content of one file to the result
+     */
+    void extractTags(String content, LineIndex lines, String relativePath, AnalysisResult result) {
+        LEXER.scan(content, new TagExtractor(content, lines, relativePath, result));
     }
     
-    private String readFileContent(File file) {
+    private SourceReader.Source readSource(File file, boolean digest) {
         try {
-            return Files.readString(file.toPath(), StandardCharsets.UTF_8);
+            FileReadEvent event = new FileReadEvent();
+            event.begin();
+            long start = System.nanoTime();
+            SourceReader.Source source = SOURCE_READER.read(file.toPath(), digest);
+            metrics.recordTime("analysis.read", System.nanoTime() - start);
+            event.finish(file.getPath(), source.getSize(), source.getCharset().name());
+            metrics.increment("files.read", 1);
+            metrics.increment("bytes.read", source.getSize());
+            return source;
         } catch (IOException e) {
-            try {
-                return Files.readString(file.toPath(), StandardCharsets.ISO_8859_1);
-            } catch (IOException e2) {
-                logger.warn("Cannot read file {}: {}", file.getAbsolutePath(), e2.getMessage());
-                return null;
-            }
+            logger.warn("Cannot read file {}: {}", file.getAbsolutePath(), e.getMessage());
+            return null;
         }
     }
     
-    private void analyzeQueries(String content, String filePath, AnalysisResult result) {
-        Matcher matcher = CFQUERY_PATTERN.matcher(content);
-        int lineOffset = 0;
+    /**
+     * Turns lexer events of one file into model records
+     */
+    private class TagExtractor implements CfmlLexer.Listener {
+        private final String content;
+        private final LineIndex lines;
+        private final String filePath;
+        private final AnalysisResult result;
+        private final TagAttributes attributes = new TagAttributes();
+        
+        // Argument names and types of the cffunction currently open, null outside a function
+        private List<String> functionParameters;
+        
+        TagExtractor(String content, LineIndex lines, String filePath, AnalysisResult result) {
+            this.content = content;
+            this.lines = lines;
+            this.filePath = filePath;
+            this.result = result;
+        }
         
-        while (matcher.find()) {
-            String queryBlock = matcher.group();
-            int lineNumber = getLineNumber(content, matcher.start());
-            
+        @Override
+        public void tagOpen(String name, int start, int nameEnd, int end) {
             try {
-                Document doc = Jsoup.parse(queryBlock);
-                Element queryElement = doc.select("cfquery").first();
-                
-                if (queryElement != null) {
-                    String queryName = queryElement.attr("name");
-                    String dataSource = queryElement.attr("datasource");
-                    String sqlQuery = queryElement.html().trim();
-                    
-                    String dbTable = extractTableNames(sqlQuery);
-                    String complexity = calculateComplexity(sqlQuery);
-                    
-                    result.getQueries().add(new QueryInfo(
-                        queryName,
-                        dbTable,
-                        filePath + ":" + lineNumber,
-                        dataSource,
-                        sqlQuery,
-                        complexity
-                    ));
+                attributes.parse(content, nameEnd, end - 1);
+                int lineNumber = lines.lineOf(start);
+                switch (name) {
+                    case "cffunction":
+                        if (functionParameters == null) functionParameters = new ArrayList<>();
+                        break;
+                    case "cfargument":
+                        addArgument();
+                        break;
+                    case "cfinvoke":
+                        analyzeInvoke(lineNumber);
+                        break;
+                    case "cfcomponent":
+                        analyzeComponent(lineNumber);
+                        break;
+                    case "cfinclude":
+                        analyzeInclude(lineNumber);
+                        break;
+                    case "cfmodule":
+                        analyzeModule(lineNumber);
+                        break;
+                    default:
+                        break;
                 }
             } catch (Exception e) {
-                logger.warn("Error parsing query in {}: {}", filePath, e.getMessage());
+                logger.warn("Error parsing {} in {}: {}", name, filePath, e.getMessage());
             }
         }
-    }
-    
-    private void analyzeFunctions(String content, String filePath, AnalysisResult result) {
-        Matcher matcher = CFFUNCTION_PATTERN.matcher(content);
         
-        while (matcher.find()) {
-            String functionBlock = matcher.group();
-            int lineNumber = getLineNumber(content, matcher.start());
-            
+        @Override
+        public void body(String name, int openStart, int bodyStart, int bodyEnd, int end) {
             try {
-                Document doc = Jsoup.parse(functionBlock);
-                Element functionElement = doc.select("cffunction").first();
-                
-                if (functionElement != null) {
-                    String functionName = functionElement.attr("name");
-                    String returnType = functionElement.attr("returntype");
-                    String access = functionElement.attr("access");
-                    
-                    // Extract parameters
-                    Elements params = doc.select("cfargument");
-                    StringBuilder parameters = new StringBuilder();
-                    for (Element param : params) {
-                        if (parameters.length() > 0) parameters.append(", ");
-                        parameters.append(param.attr("name"))
-                                .append(":")
-                                .append(param.attr("type"));
-                    }
-                    
-                    result.getFunctions().add(new FunctionInfo(
-                        functionName,
-                        returnType,
-                        access,
-                        filePath + ":" + lineNumber,
-                        parameters.toString(),
-                        "" // Will be populated in second pass
-                    ));
-                    
-                    // Track for usage finding
-                    usageTracker.computeIfAbsent("functions", k -> new HashSet<>()).add(functionName);
+                attributes.parse(content, openStart + name.length() + 1, bodyStart - 1);
+                int lineNumber = lines.lineOf(openStart);
+                if (name.equals("cfquery")) {
+                    analyzeQuery(content.substring(bodyStart, bodyEnd).trim(), lineNumber);
+                } else if (name.equals("cffunction")) {
+                    analyzeFunction(lineNumber, lines.lineOf(bodyEnd));
                 }
             } catch (Exception e) {
-                logger.warn("Error parsing function in {}: {}", filePath, e.getMessage());
+                logger.warn("Error parsing {} in {}: {}", name, filePath, e.getMessage());
             }
         }
-    }
-    
-    private void analyzeInvokes(String content, String filePath, AnalysisResult result) {
-        Matcher matcher = CFINVOKE_PATTERN.matcher(content);
         
-        while (matcher.find()) {
-            String invokeTag = matcher.group();
-            int lineNumber = getLineNumber(content, matcher.start());
+        private void analyzeQuery(String sqlQuery, int lineNumber) {
+            String queryName = attributes.get("name");
+            String dataSource = attributes.get("datasource");
             
-            try {
-                Document doc = Jsoup.parse(invokeTag);
-                Element invokeElement = doc.select("cfinvoke").first();
-                
-                if (invokeElement != null) {
-                    String component = invokeElement.attr("component");
-                    String method = invokeElement.attr("method");
-                    
-                    // Extract parameters
-                    StringBuilder parameters = new StringBuilder();
-                    for (Attribute attr : invokeElement.attributes().asList()) {
-                        if (!attr.getKey().equals("component") && !attr.getKey().equals("method")) {
-                            if (parameters.length() > 0) parameters.append(", ");
-                            parameters.append(attr.getKey()).append("=").append(attr.getValue());
-                        }
-                    }
-                    
-                    result.getInvokes().add(new InvokeInfo(
-                        component,
-                        method,
-                        filePath + ":" + lineNumber,
-                        parameters.toString()
-                    ));
-                }
-            } catch (Exception e) {
-                logger.warn("Error parsing invoke in {}: {}", filePath, e.getMessage());
-            }
+            // Tables and complexity from a single pass over the SQL
+            SqlAnalyzer.Profile profile = SQL_ANALYZER.analyze(sqlQuery);
+            
+            result.getQueries().add(new QueryInfo(
+                strings.intern(queryName),
+                strings.intern(String.join(", ", profile.getTables())),
+                filePath,
+                lineNumber,
+                strings.intern(dataSource),
+                sqlQuery,
+                profile.getComplexity(),
+                profile.getFingerprint()
+            ));
         }
-    }
-    
-    private void analyzeComponents(String content, String filePath, AnalysisResult result) {
-        Matcher matcher = CFCOMPONENT_PATTERN.matcher(content);
         
-        while (matcher.find()) {
-            String componentTag = matcher.group();
-            int lineNumber = getLineNumber(content, matcher.start());
-            
-            try {
-                Document doc = Jsoup.parse(componentTag);
-                Element componentElement = doc.select("cfcomponent").first();
-                
-                if (componentElement != null) {
-                    String componentName = extractComponentName(filePath);
-                    String extends_ = componentElement.attr("extends");
-                    
-                    result.getComponents().add(new ComponentInfo(
-                        componentName,
-                        extends_,
-                        filePath + ":" + lineNumber,
-                        "" // Will be populated in second pass
-                    ));
-                    
-                    // Track for usage finding
-                    usageTracker.computeIfAbsent("components", k -> new HashSet<>()).add(componentName);
-                }
-            } catch (Exception e) {
-                logger.warn("Error parsing component in {}: {}", filePath, e.getMessage());
-            }
+        private void addArgument() {
+            if (functionParameters == null) return;
+            functionParameters.add(attributes.get("name"));
+            functionParameters.add(attributes.get("type"));
         }
-    }
-    
-    private void analyzeIncludes(String content, String filePath, AnalysisResult result) {
-        Matcher matcher = CFINCLUDE_PATTERN.matcher(content);
         
-        while (matcher.find()) {
-            String includeTag = matcher.group();
-            int lineNumber = getLineNumber(content, matcher.start());
+        private void analyzeFunction(int lineNumber, int endLineNumber) {
+            String functionName = attributes.get("name");
+            String returnType = attributes.get("returntype");
+            String access = attributes.get("access");
+            String[] parameters = functionParameters != null
+                ? strings.intern(functionParameters.toArray(new String[0])) : null;
+            functionParameters = null;
             
-            try {
-                Document doc = Jsoup.parse(includeTag);
-                Element includeElement = doc.select("cfinclude").first();
-                
-                if (includeElement != null) {
-                    String template = includeElement.attr("template");
-                    
-                    result.getIncludes().add(new IncludeInfo(
-                        template,
-                        filePath + ":" + lineNumber
-                    ));
-                }
-            } catch (Exception e) {
-                logger.warn("Error parsing include in {}: {}", filePath, e.getMessage());
-            }
+            result.getFunctions().add(new FunctionInfo(
+                strings.intern(functionName),
+                strings.intern(returnType),
+                strings.intern(access),
+                filePath,
+                lineNumber,
+                endLineNumber,
+                parameters,
+                "" // Will be populated in second pass
+            ));
         }
-    }
-    
-    private void analyzeModules(String content, String filePath, AnalysisResult result) {
-        Matcher matcher = CFMODULE_PATTERN.matcher(content);
         
-        while (matcher.find()) {
-            String moduleTag = matcher.group();
-            int lineNumber = getLineNumber(content, matcher.start());
-            
-            try {
-                Document doc = Jsoup.parse(moduleTag);
-                Element moduleElement = doc.select("cfmodule").first();
-                
-                if (moduleElement != null) {
-                    String template = moduleElement.attr("template");
-                    
-                    // Extract attributes
-                    StringBuilder attributes = new StringBuilder();
-                    for (Attribute attr : moduleElement.attributes().asList()) {
-                        if (!attr.getKey().equals("template")) {
-                            if (attributes.length() > 0) attributes.append(", ");
-                            attributes.append(attr.getKey()).append("=").append(attr.getValue());
-                        }
-                    }
-                    
-                    result.getModules().add(new ModuleInfo(
-                        template,
-                        filePath + ":" + lineNumber,
-                        attributes.toString()
-                    ));
-                }
-            } catch (Exception e) {
-                logger.warn("Error parsing module in {}: {}", filePath, e.getMessage());
-            }
+        private void analyzeInvoke(int lineNumber) {
+            result.getInvokes().add(new InvokeInfo(
+                strings.intern(attributes.get("component")),
+                strings.intern(attributes.get("method")),
+                filePath,
+                lineNumber,
+                attributes.pairs(strings, "component", "method")
+            ));
         }
-    }
-    
-    private void findUsages(File file, AnalysisResult result) throws IOException {
-        String content = readFileContent(file);
-        if (content == null) return;
         
-        String relativePath = getRelativePath(file);
+        private void analyzeComponent(int lineNumber) {
+            result.getComponents().add(new ComponentInfo(
+                extractComponentName(filePath),
+                strings.intern(attributes.get("extends")),
+                filePath,
+                lineNumber,
+                "" // Will be populated in second pass
+            ));
+        }
         
-        // Find function usages
-        Set<String> functions = usageTracker.get("functions");
-        if (functions != null) {
-            for (String functionName : functions) {
-                if (content.contains(functionName)) {
-                    updateFunctionUsage(result, functionName, relativePath);
-                }
-            }
+        private void analyzeInclude(int lineNumber) {
+            result.getIncludes().add(new IncludeInfo(
+                strings.intern(attributes.get("template")),
+                filePath,
+                lineNumber
+            ));
         }
         
-        // Find component usages
-        Set<String> components = usageTracker.get("components");
-        if (components != null) {
-            for (String componentName : components) {
-                if (content.contains(componentName)) {
-                    updateComponentUsage(result, componentName, relativePath);
-                }
-            }
+        private void analyzeModule(int lineNumber) {
+            result.getModules().add(new ModuleInfo(
+                strings.intern(attributes.get("template")),
+                filePath,
+                lineNumber,
+                attributes.pairs(strings, "template")
+            ));
         }
     }
     
-    private void updateFunctionUsage(AnalysisResult result, String functionName, String usedIn) {
-        for (FunctionInfo function : result.getFunctions()) {
-            if (function.getFunctionName().equals(functionName)) {
-                String currentUsage = function.getUsedIn();
-                if (StringUtils.isBlank(currentUsage)) {
-                    function.setUsedIn(usedIn);
-                } else if (!currentUsage.contains(usedIn)) {
-                    function.setUsedIn(currentUsage + ", " + usedIn);
-                }
+    /**
+     * Returns the declared names used in the file, or null when it cannot be read
+     *
+     * @param addedMatcher names declared since the cached usages were found, or null when there are none
+     * @param scratch scan state of the calling thread
+     */
+    private List<String> findUsages(SourceFile source, ContentCache contentCache, Set<String> names,
+            NameMatcher nameMatcher, NameMatcher addedMatcher, NameMatcher.Scratch scratch) {
+        if (source.cachedUsages != null) {
+            // Drop names that are no longer declared and search only for the new ones
+            List<String> usages = new ArrayList<>();
+            for (String name : source.cachedUsages) {
+                if (names.contains(name)) usages.add(name);
             }
+            if (addedMatcher != null) {
+                String content = readContent(source.relativePath, contentCache);
+                if (content == null) return null;
+                usages.addAll(addedMatcher.findAll(content, scratch));
+            }
+            return usages;
         }
+        
+        // Find function and component usages in a single scan
+        String content = readContent(source.relativePath, contentCache);
+        return content != null ? nameMatcher.findAll(content, scratch) : null;
     }
     
-    private void updateComponentUsage(AnalysisResult result, String componentName, String usedIn) {
-        for (ComponentInfo component : result.getComponents()) {
-            if (component.getComponentName().equals(componentName)) {
-                String currentUsage = component.getUsedIn();
-                if (StringUtils.isBlank(currentUsage)) {
-                    component.setUsedIn(usedIn);
-                } else if (!currentUsage.contains(usedIn)) {
-                    component.setUsedIn(currentUsage + ", " + usedIn);
-                }
+    private String readContent(String relativePath, ContentCache contentCache) {
+        String content = contentCache.take(relativePath);
+        if (content == null) {
+            SourceReader.Source source = readSource(new File(rootDirectory, relativePath), false);
+            if (source == null) return null;
+            content = source.getContent();
+            if (contentCache.isRetaining()) {
+                // Files reused from the analysis cache were not read before
+                contentCache.put(relativePath, content);
             }
         }
+        return content;
+    }
+    
+    /**
+     * Stores the records and usages of every file whose usage pass completed
+     */
+    private void saveCache(List<SourceFile> sources, Set<String> names) {
+        AnalysisCache analysisCache = new AnalysisCache(names);
+        for (SourceFile source : sources) {
+            if (source.usages == null) continue;
+            analysisCache.put(source.relativePath, new AnalysisCache.Entry(
+                source.size, source.modified, source.digest, source.result, source.usages));
+        }
+        try {
+            analysisCache.save(cacheFile.toPath());
+            logger.info("Saved analysis cache for {} files to {}", analysisCache.size(), cacheFile.getAbsolutePath());
+        } catch (IOException e) {
+            logger.warn("Cannot write analysis cache {}: {}", cacheFile.getAbsolutePath(), e.getMessage());
+        }
     }
     
     // Helper methods
+    private boolean isExcluded(String relativePath) {
+        for (String segment : relativePath.split("/")) {
+            if (excludedDirectories.contains(segment)) return true;
+        }
+        return false;
+    }
+    
     private String getRelativePath(File file) {
         String rootPath = rootDirectory.getAbsolutePath();
         String filePath = file.getAbsolutePath();
@@ -424,87 +911,37 @@ public class FileAnalyzer {
         return "Unknown";
     }
     
-    private int getLineNumber(String content, int position) {
-        return content.substring(0, position).split("\n").length;
-    }
-    
-    private String extractTableNames(String sqlQuery) {
-        // Simple regex to extract table names from SQL
-        Set<String> tables = new HashSet<>();
-        Pattern fromPattern = Pattern.compile("FROM\\s+([\\w\\.]+)", Pattern.CASE_INSENSITIVE);
-        Pattern joinPattern = Pattern.compile("JOIN\\s+([\\w\\.]+)", Pattern.CASE_INSENSITIVE);
-        Pattern updatePattern = Pattern.compile("UPDATE\\s+([\\w\\.]+)", Pattern.CASE_INSENSITIVE);
-        Pattern insertPattern = Pattern.compile("INSERT\\s+INTO\\s+([\\w\\.]+)", Pattern.CASE_INSENSITIVE);
-        
-        Matcher matcher = fromPattern.matcher(sqlQuery);
-        while (matcher.find()) {
-            tables.add(matcher.group(1));
-        }
-        
-        matcher = joinPattern.matcher(sqlQuery);
-        while (matcher.find()) {
-            tables.add(matcher.group(1));
-        }
-        
-        matcher = updatePattern.matcher(sqlQuery);
-        while (matcher.find()) {
-            tables.add(matcher.group(1));
-        }
-        
-        matcher = insertPattern.matcher(sqlQuery);
-        while (matcher.find()) {
-            tables.add(matcher.group(1));
-        }
-        
-        return String.join(", ", tables);
-    }
-    
-    private String calculateComplexity(String sqlQuery) {
-        int complexity = 0;
-        String upperQuery = sqlQuery.toUpperCase();
-        
-        // Basic complexity factors
-        if (upperQuery.contains("SELECT")) complexity += 1;
-        if (upperQuery.contains("INSERT")) complexity += 1;
-        if (upperQuery.contains("UPDATE")) complexity += 1;
-        if (upperQuery.contains("DELETE")) complexity += 1;
-        
-        // Joins increase complexity
-        complexity += countOccurrences(upperQuery, "JOIN");
-        
-        // Subqueries increase complexity
-        complexity += countOccurrences(upperQuery, "SELECT") - 1; // Subtract main SELECT
-        
-        // Conditions increase complexity
-        complexity += countOccurrences(upperQuery, "WHERE");
-        complexity += countOccurrences(upperQuery, "HAVING");
-        complexity += countOccurrences(upperQuery, "AND");
-        complexity += countOccurrences(upperQuery, "OR");
-        
-        // Functions increase complexity
-        complexity += countOccurrences(upperQuery, "GROUP BY");
-        complexity += countOccurrences(upperQuery, "ORDER BY");
-        
-        // Categorize complexity
-        if (complexity <= 5) return "Low";
-        if (complexity <= 15) return "Medium";
-        return "High";
-    }
-    
-    private int countOccurrences(String text, String pattern) {
-        int count = 0;
-        int index = 0;
-        while ((index = text.indexOf(pattern, index)) != -1) {
-            count++;
-            index += pattern.length();
-        }
-        return count;
-    }
-    
     private String extractComponentName(String filePath) {
         File file = new File(filePath);
         String name = file.getName();
         int dotIndex = name.lastIndexOf('.');
         return dotIndex > 0 ? name.substring(0, dotIndex) : name;
     }
+    
+    /**
+     * A file travelling through the analysis pipeline, tagged with its position in walk order
+     */
+    private static class SourceFile {
+        private static final SourceFile END = new SourceFile(-1, null, 0, 0);
+        
+        private final int sequence;
+        private final File file;
+        private final long size;
+        private final long modified;
+        private String relativePath;
+        private AnalysisResult result;
+        // SHA-256 of the content, only computed when results are cached
+        private byte[] digest;
+        // Usages stored with reused records, null when the file was parsed
+        private List<String> cachedUsages;
+        // Declared names found by the usage pass
+        private List<String> usages;
+        
+        SourceFile(int sequence, File file, long size, long modified) {
+            this.sequence = sequence;
+            this.file = file;
+            this.size = size;
+            this.modified = modified;
+        }
+    }
 }
\ No newline at end of file
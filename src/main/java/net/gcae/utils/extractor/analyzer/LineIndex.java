@@ -0,0 +1,47 @@
+package net.gcae.utils.extractor.analyzer;
+
+import java.util.Arrays;
+
+/**
+ * Offsets of every newline in a file, built once so that character positions can be
+ * resolved to line numbers with a binary search.
+ */
+class LineIndex {
+    private final int[] newlines;
+    private final int length;
+    private final boolean endsWithNewline;
+
+    LineIndex(CharSequence content) {
+        int[] offsets = new int[64];
+        int count = 0;
+        for (int i = 0; i < content.length(); i++) {
+            if (content.charAt(i) == '\n') {
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                offsets[count++] = i;
+            }
+        }
+        this.newlines = Arrays.copyOf(offsets, count);
+        this.length = content.length();
+        this.endsWithNewline = count > 0 && offsets[count - 1] == length - 1;
+    }
+
+    /**
+     * Returns the 1-based line containing the character at the given position
+     */
+    int lineOf(int position) {
+        int index = Arrays.binarySearch(newlines, position);
+        // A newline belongs to the line it terminates
+        return (index >= 0 ? index : -index - 1) + 1;
+    }
+
+    /**
+     * Returns the number of lines; a trailing newline does not start a new line, but the
+     * empty lines before it count, so "a\n\n\n" has 3
+     */
+    int getLineCount() {
+        if (length == 0) return 0;
+        return endsWithNewline ? newlines.length : newlines.length + 1;
+    }
+}
@@ -0,0 +1,190 @@
+package net.gcae.utils.extractor.analyzer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton that finds every occurrence of a fixed set of names in a
+ * single linear scan of the text.
+ *
+ * A match only counts when it is not part of a longer identifier, so {@code getUser}
+ * is not reported inside {@code getUserById}. The automaton is immutable after
+ * construction and can be shared between threads.
+ */
+class NameMatcher {
+    private final String[] names;
+
+    // Goto function as a sorted edge list per node: edges of node n are [edgeStart[n], edgeStart[n + 1])
+    private final int[] edgeStart;
+    private final char[] edgeChar;
+    private final int[] edgeTarget;
+
+    private final int[] failure;
+    // Index of the name ending at the node, or -1
+    private final int[] nameAt;
+    // Nearest node on the failure chain that ends a name, or -1
+    private final int[] outputLink;
+
+    NameMatcher(Collection<String> candidates) {
+        List<String> accepted = new ArrayList<>();
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        ends.add(-1);
+
+        for (String name : candidates) {
+            if (name == null || name.isEmpty()) continue;
+            int node = 0;
+            for (int i = 0; i < name.length(); i++) {
+                Integer next = trie.get(node).get(name.charAt(i));
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    ends.add(-1);
+                    trie.get(node).put(name.charAt(i), next);
+                }
+                node = next;
+            }
+            if (ends.get(node) < 0) {
+                ends.set(node, accepted.size());
+                accepted.add(name);
+            }
+        }
+
+        int nodeCount = trie.size();
+        this.names = accepted.toArray(new String[0]);
+        this.edgeStart = new int[nodeCount + 1];
+        this.edgeChar = new char[nodeCount - 1];
+        this.edgeTarget = new int[nodeCount - 1];
+        this.nameAt = new int[nodeCount];
+        int edge = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            edgeStart[node] = edge;
+            for (Map.Entry<Character, Integer> entry : trie.get(node).entrySet()) {
+                edgeChar[edge] = entry.getKey();
+                edgeTarget[edge] = entry.getValue();
+                edge++;
+            }
+            nameAt[node] = ends.get(node);
+        }
+        edgeStart[nodeCount] = edge;
+
+        // Breadth-first construction of failure and output links
+        this.failure = new int[nodeCount];
+        this.outputLink = new int[nodeCount];
+        Arrays.fill(outputLink, -1);
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int e = edgeStart[0]; e < edgeStart[1]; e++) {
+            queue.add(edgeTarget[e]);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+                int child = edgeTarget[e];
+                int fallback = failure[node];
+                int target;
+                while ((target = next(fallback, edgeChar[e])) < 0 && fallback != 0) {
+                    fallback = failure[fallback];
+                }
+                failure[child] = target >= 0 ? target : 0;
+                outputLink[child] = nameAt[failure[child]] >= 0 ? failure[child] : outputLink[failure[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Returns the names that occur in the text as whole identifiers, in order of first occurrence
+     */
+    List<String> findAll(CharSequence text) {
+        return findAll(text, new Scratch());
+    }
+
+    /**
+     * Same as {@link #findAll(CharSequence)}, keeping the state of the scan in the given
+     * scratch so that scanning many texts allocates nothing per text
+     */
+    List<String> findAll(CharSequence text, Scratch scratch) {
+        List<String> found = new ArrayList<>();
+        if (names.length == 0) return found;
+
+        int generation = scratch.nextGeneration(names.length);
+        int[] generations = scratch.generations;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int target;
+            while ((target = next(state, c)) < 0 && state != 0) {
+                state = failure[state];
+            }
+            state = target >= 0 ? target : 0;
+
+            for (int node = nameAt[state] >= 0 ? state : outputLink[state]; node >= 0; node = outputLink[node]) {
+                int name = nameAt[node];
+                if (generations[name] != generation
+                        && isWholeIdentifier(text, i + 1 - names[name].length(), i + 1)) {
+                    generations[name] = generation;
+                    found.add(names[name]);
+                }
+            }
+        }
+        return found;
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    private int next(int node, char c) {
+        int low = edgeStart[node];
+        int high = edgeStart[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midChar = edgeChar[mid];
+            if (midChar < c) {
+                low = mid + 1;
+            } else if (midChar > c) {
+                high = mid - 1;
+            } else {
+                return edgeTarget[mid];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Scan in which each name was last found, so that nothing has to be cleared between
+     * scans. Not thread-safe: each thread scans with its own, which may be shared by
+     * several matchers.
+     */
+    static final class Scratch {
+        private int[] generations = new int[0];
+        private int generation;
+
+        private int nextGeneration(int size) {
+            if (generations.length < size) {
+                generations = new int[size];
+                generation = 0;
+            } else if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(generations, 0);
+                generation = 0;
+            }
+            return ++generation;
+        }
+    }
+
+    private static boolean isWholeIdentifier(CharSequence text, int start, int end) {
+        return (start == 0 || !isIdentifierChar(text.charAt(start - 1)))
+            && (end == text.length() || !isIdentifierChar(text.charAt(end)));
+    }
+
+    private static boolean isIdentifierChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
@@ -0,0 +1,175 @@
+package net.gcae.utils.extractor.analyzer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Reads a source file exactly once and decodes it with a charset detected from the
+ * bytes: a byte order mark when present, otherwise UTF-8 when the bytes are valid
+ * UTF-8 and Windows-1252 when they are not. Large files are memory-mapped instead of
+ * being copied onto the heap before decoding.
+ */
+class SourceReader {
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+    private static final long MAP_THRESHOLD = 1024 * 1024;
+
+    /**
+     * Decoded content of a file together with how it was decoded
+     */
+    static class Source {
+        private final String content;
+        private final Charset charset;
+        private final long size;
+        private byte[] digest;
+
+        Source(String content, Charset charset, long size) {
+            this.content = content;
+            this.charset = charset;
+            this.size = size;
+        }
+
+        String getContent() { return content; }
+        Charset getCharset() { return charset; }
+        long getSize() { return size; }
+        /** SHA-256 of the raw bytes, or null when it was not requested */
+        byte[] getDigest() { return digest; }
+    }
+
+    Source read(Path file) throws IOException {
+        return read(file, false);
+    }
+
+    /**
+     * @param digest whether to also hash the raw bytes while they are in memory
+     */
+    Source read(Path file, boolean digest) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large: " + size + " bytes");
+            }
+
+            ByteBuffer bytes;
+            if (size > MAP_THRESHOLD) {
+                bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                bytes = ByteBuffer.allocate((int) size);
+                while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                    // Keep reading until the buffer is full or the file ends
+                }
+                bytes.flip();
+            }
+            Source source = decode(bytes, size);
+            if (digest) {
+                source.digest = sha256(bytes);
+            }
+            return source;
+        }
+    }
+
+    private static byte[] sha256(ByteBuffer bytes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(bytes.duplicate());
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Source decode(ByteBuffer bytes, long size) {
+        int limit = bytes.limit();
+
+        // Byte order marks
+        if (startsWith(bytes, 0xEF, 0xBB, 0xBF)) {
+            return new Source(decode(bytes, 3, limit, StandardCharsets.UTF_8), StandardCharsets.UTF_8, size);
+        }
+        if (startsWith(bytes, 0xFE, 0xFF)) {
+            return new Source(decode(bytes, 2, limit, StandardCharsets.UTF_16BE), StandardCharsets.UTF_16BE, size);
+        }
+        if (startsWith(bytes, 0xFF, 0xFE)) {
+            return new Source(decode(bytes, 2, limit, StandardCharsets.UTF_16LE), StandardCharsets.UTF_16LE, size);
+        }
+
+        int firstNonAscii = 0;
+        while (firstNonAscii < limit && bytes.get(firstNonAscii) >= 0) {
+            firstNonAscii++;
+        }
+        if (firstNonAscii == limit) {
+            // Pure ASCII decodes identically in every candidate charset; Latin-1 is the cheapest
+            return new Source(decode(bytes, 0, limit, StandardCharsets.ISO_8859_1), StandardCharsets.US_ASCII, size);
+        }
+
+        Charset charset = isValidUtf8(bytes, firstNonAscii, limit) ? StandardCharsets.UTF_8 : WINDOWS_1252;
+        return new Source(decode(bytes, 0, limit, charset), charset, size);
+    }
+
+    private static String decode(ByteBuffer bytes, int from, int to, Charset charset) {
+        if (bytes.hasArray()) {
+            return new String(bytes.array(), bytes.arrayOffset() + from, to - from, charset);
+        }
+        ByteBuffer slice = bytes.duplicate();
+        slice.position(from).limit(to);
+        return charset.decode(slice).toString();
+    }
+
+    private static boolean startsWith(ByteBuffer bytes, int... prefix) {
+        if (bytes.limit() < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if ((bytes.get(i) & 0xFF) != prefix[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks well-formed UTF-8, rejecting overlong forms, surrogates and code points above U+10FFFF
+     */
+    private static boolean isValidUtf8(ByteBuffer bytes, int from, int to) {
+        int i = from;
+        while (i < to) {
+            int lead = bytes.get(i) & 0xFF;
+            if (lead < 0x80) {
+                i++;
+                continue;
+            }
+
+            int continuation;
+            int min = 0x80;
+            int max = 0xBF;
+            if (lead >= 0xC2 && lead <= 0xDF) {
+                continuation = 1;
+            } else if (lead >= 0xE0 && lead <= 0xEF) {
+                continuation = 2;
+                if (lead == 0xE0) min = 0xA0;
+                if (lead == 0xED) max = 0x9F;
+            } else if (lead >= 0xF0 && lead <= 0xF4) {
+                continuation = 3;
+                if (lead == 0xF0) min = 0x90;
+                if (lead == 0xF4) max = 0x8F;
+            } else {
+                return false;
+            }
+
+            if (i + continuation >= to) {
+                return false;
+            }
+            for (int k = 1; k <= continuation; k++) {
+                int b = bytes.get(i + k) & 0xFF;
+                int low = k == 1 ? min : 0x80;
+                int high = k == 1 ? max : 0xBF;
+                if (b < low || b > high) return false;
+            }
+            i += continuation + 1;
+        }
+        return true;
+    }
+}
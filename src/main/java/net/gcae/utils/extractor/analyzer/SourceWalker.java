@@ -0,0 +1,93 @@
+package net.gcae.utils.extractor.analyzer;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Locale;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Walks a source tree and streams matching files to a sink as they are found,
+ * pruning excluded directories without descending into them.
+ */
+class SourceWalker {
+    private static final Logger logger = LoggerFactory.getLogger(SourceWalker.class);
+
+    /**
+     * Receives files in walk order; may block, for example on a bounded queue
+     */
+    interface Sink {
+        void accept(Path file, BasicFileAttributes attrs) throws InterruptedException;
+    }
+
+    private final Path root;
+    private final Set<String> extensions;
+    private final Set<String> excludedDirectories;
+
+    /**
+     * @param extensions lower-case file extensions including the dot
+     * @param excludedDirectories directory names that are skipped wherever they occur
+     */
+    SourceWalker(Path root, Set<String> extensions, Set<String> excludedDirectories) {
+        this.root = root;
+        this.extensions = extensions;
+        this.excludedDirectories = excludedDirectories;
+    }
+
+    void walk(Sink sink) throws IOException, InterruptedException {
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(root) && excludedDirectories.contains(dir.getFileName().toString())) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && hasExtension(file)) {
+                        try {
+                            sink.accept(file, attrs);
+                        } catch (InterruptedException e) {
+                            throw new WalkInterruptedException(e);
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    logger.warn("Cannot access {}: {}", file, e.getMessage());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (WalkInterruptedException e) {
+            throw (InterruptedException) e.getCause();
+        }
+    }
+
+    boolean hasExtension(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 && extensions.contains(name.substring(dot));
+    }
+
+    /**
+     * Carries an interruption of the sink out of the file visitor
+     */
+    private static class WalkInterruptedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        WalkInterruptedException(InterruptedException cause) {
+            super(cause);
+        }
+    }
+}
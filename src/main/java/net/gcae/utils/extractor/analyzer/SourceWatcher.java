@@ -0,0 +1,168 @@
+package net.gcae.utils.extractor.analyzer;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.gcae.utils.extractor.model.AnalysisResult;
+
+/**
+ * Watches the analyzed source tree and keeps the analysis up to date as files change.
+ *
+ * Events are collected until the tree has been quiet for the debounce delay, so a burst
+ * such as a checkout or a save-all leads to a single update. Only the changed files are
+ * analyzed again; when the watch service overflows and events were lost, the whole tree
+ * is analyzed again instead.
+ */
+public class SourceWatcher implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(SourceWatcher.class);
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 200;
+
+    // Upper bound on how long a continuous stream of events can hold back an update
+    private static final long MAX_DELAY_MILLIS = 2000;
+
+    /**
+     * Receives every updated result, on the watching thread
+     */
+    public interface Listener {
+        void updated(AnalysisResult result) throws Exception;
+    }
+
+    private final FileAnalyzer analyzer;
+    private final Path root;
+    private final long debounceMillis;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+
+    /**
+     * @param analyzer an analyzer keeping its file results that has already analyzed the tree
+     */
+    public SourceWatcher(FileAnalyzer analyzer, long debounceMillis) throws IOException {
+        if (analyzer.getRootDirectory() == null || !analyzer.isKeepFileResults()) {
+            throw new IllegalArgumentException("The analyzer must keep its file results and have analyzed a directory");
+        }
+        this.analyzer = analyzer;
+        this.root = analyzer.getRootDirectory().toPath();
+        this.debounceMillis = debounceMillis;
+        this.watchService = root.getFileSystem().newWatchService();
+    }
+
+    /**
+     * Watches the tree until the thread is interrupted
+     */
+    public void watch(Listener listener) throws IOException, InterruptedException {
+        register(root);
+        logger.info("Watching {} directories under {} for changes", directories.size(), root);
+
+        while (true) {
+            WatchKey key = watchService.take();
+            Set<Path> changed = new LinkedHashSet<>();
+            boolean overflow = false;
+            long deadline = System.currentTimeMillis() + MAX_DELAY_MILLIS;
+            do {
+                overflow |= collect(key, changed);
+            } while (System.currentTimeMillis() < deadline
+                    && (key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null);
+
+            if (!overflow && changed.isEmpty()) continue;
+
+            long start = System.currentTimeMillis();
+            AnalysisResult result;
+            if (overflow) {
+                logger.warn("Missed file events under {}, analyzing the whole tree again", root);
+                register(root);
+                result = analyzer.analyzeDirectory(root.toFile());
+            } else {
+                result = analyzer.reanalyze(changed);
+            }
+            try {
+                listener.updated(result);
+            } catch (Exception e) {
+                logger.warn("Error publishing updated results: {}", e.getMessage(), e);
+            }
+            logger.info("Updated results for {} changed paths in {} ms", changed.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    /**
+     * Adds the paths of the key's events to the changes
+     *
+     * @return true when events were lost
+     */
+    private boolean collect(WatchKey key, Set<Path> changed) throws IOException {
+        Path directory = directories.get(key);
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            if (directory == null) continue;
+
+            Path path = directory.resolve((Path) event.context());
+            if (Files.isDirectory(path)) {
+                // A directory's own modification time changes with its entries; only new ones matter
+                if (event.kind() == ENTRY_CREATE && !isExcluded(path)) {
+                    register(path);
+                    changed.add(path);
+                }
+            } else {
+                changed.add(path);
+            }
+        }
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+        return overflow;
+    }
+
+    private void register(Path start) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(root) && isExcluded(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                directories.put(dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                logger.warn("Cannot watch {}: {}", file, e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private boolean isExcluded(Path directory) {
+        Path name = directory.getFileName();
+        return name != null && analyzer.getExcludedDirectories().contains(name.toString());
+    }
+}
@@ -0,0 +1,471 @@
+package net.gcae.utils.extractor.analyzer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Profiles the SQL of a {@code <cfquery>} body in a single pass over its tokens.
+ *
+ * ColdFusion tags such as {@code <cfqueryparam>} and {@code <cfif>}, {@code #expressions#},
+ * string literals and comments are skipped, and keywords only count as whole words, so
+ * {@code OR} is not found in {@code ORDER} and {@code AND} not in {@code BRAND_ID}.
+ *
+ * Table names are taken after {@code FROM} (including comma separated lists),
+ * {@code JOIN}, {@code UPDATE} and {@code INSERT INTO}. A {@code FROM} inside a function
+ * call such as {@code EXTRACT(YEAR FROM d)} is ignored. A subquery is a {@code SELECT}
+ * that directly follows an opening parenthesis.
+ *
+ * Every query also gets a fingerprint: a hash of its tokens with literals, numbers,
+ * {@code #expressions#} and {@code <cfqueryparam>} tags replaced by a placeholder, so
+ * copies that differ only in whitespace, comments or values share a fingerprint.
+ * Identifiers keep their case. The profile treats every placeholder the same way
+ * and depends on nothing else the fingerprint leaves out, so profiles are memoized by
+ * fingerprint and each distinct statement is only analyzed once, whichever copy comes
+ * first. The analyzer can be shared between threads.
+ */
+class SqlAnalyzer {
+    /**
+     * What a query does, as far as its complexity is concerned
+     */
+    static class Profile {
+        private final String fingerprint;
+        private final Set<String> tables;
+        private final int joins;
+        private final int subqueries;
+        private final int subqueryDepth;
+        private final int predicates;
+        private final int score;
+
+        Profile(String fingerprint, Set<String> tables, int joins, int subqueries, int subqueryDepth, int predicates, int score) {
+            this.fingerprint = fingerprint;
+            this.tables = Collections.unmodifiableSet(tables);
+            this.joins = joins;
+            this.subqueries = subqueries;
+            this.subqueryDepth = subqueryDepth;
+            this.predicates = predicates;
+            this.score = score;
+        }
+
+        /** 16 hex digits identifying the normalized statement */
+        String getFingerprint() { return fingerprint; }
+        /** Table names in order of first appearance, as written */
+        Set<String> getTables() { return tables; }
+        int getJoins() { return joins; }
+        int getSubqueries() { return subqueries; }
+        /** Deepest nesting of subqueries; 0 without subqueries */
+        int getSubqueryDepth() { return subqueryDepth; }
+        /** WHERE, HAVING, AND and OR keywords */
+        int getPredicates() { return predicates; }
+        int getScore() { return score; }
+
+        String getComplexity() {
+            if (score <= 5) return "Low";
+            if (score <= 15) return "Medium";
+            return "High";
+        }
+    }
+
+    // Token types
+    private static final int END = 0;
+    private static final int WORD = 1;
+    // A name with quoted parts, such as [dbo].[users]
+    private static final int NAME = 2;
+    private static final int LITERAL = 3;
+    private static final int SYMBOL = 4;
+
+    // Where the next name is expected to be a table
+    private static final int NO_TABLE = 0;
+    private static final int TABLE = 1;
+    private static final int TABLE_LIST = 2;
+    private static final int AFTER_LIST_TABLE = 3;
+
+    // Keywords that end a FROM list; any other word after a table is its alias
+    private static final String[] CLAUSE_KEYWORDS = {
+        "WHERE", "JOIN", "INNER", "LEFT", "RIGHT", "FULL", "CROSS", "OUTER", "NATURAL", "ON", "USING",
+        "GROUP", "ORDER", "HAVING", "UNION", "EXCEPT", "INTERSECT", "MINUS", "LIMIT", "OFFSET", "FETCH",
+        "WINDOW", "FOR", "SET", "VALUES", "SELECT", "WITH"
+    };
+
+    // The memo is dropped when it grows past this many statements
+    private static final int MAX_PROFILES = 200_000;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Map<Long, Profile> profiles = new ConcurrentHashMap<>();
+
+    Profile analyze(CharSequence sql) {
+        long fingerprint = fingerprint(sql);
+        Profile profile = profiles.get(fingerprint);
+        if (profile == null) {
+            if (profiles.size() >= MAX_PROFILES) {
+                profiles.clear();
+            }
+            profile = profile(sql, String.format("%016x", fingerprint));
+            profiles.putIfAbsent(fingerprint, profile);
+        }
+        return profile;
+    }
+
+    /**
+     * FNV-1a hash of the normalized tokens, separated by spaces
+     */
+    static long fingerprint(CharSequence sql) {
+        Scanner scanner = new Scanner(sql);
+        long hash = FNV_OFFSET;
+        int type;
+        while ((type = scanner.next()) != END) {
+            if (type == LITERAL || type == WORD && scanner.isNumber()) {
+                hash = (hash ^ '?') * FNV_PRIME;
+            } else {
+                for (int i = scanner.start; i < scanner.end; i++) {
+                    hash = (hash ^ sql.charAt(i)) * FNV_PRIME;
+                }
+            }
+            hash = (hash ^ ' ') * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private Profile profile(CharSequence sql, String fingerprint) {
+        Scanner scanner = new Scanner(sql);
+        Set<String> tables = new LinkedHashSet<>();
+        int joins = 0;
+        int subqueries = 0;
+        int subqueryDepth = 0;
+        int predicates = 0;
+        int groupings = 0;
+        boolean select = false;
+        boolean insert = false;
+        boolean update = false;
+        boolean delete = false;
+
+        // Parentheses: which ones opened a subquery, and how many of those are open
+        boolean[] subqueryParen = new boolean[16];
+        int parenDepth = 0;
+        int nesting = 0;
+
+        int expecting = NO_TABLE;
+        int listDepth = 0;
+        boolean afterParen = false;
+        boolean afterInsert = false;
+        boolean afterGroupOrOrder = false;
+
+        int type;
+        while ((type = scanner.next()) != END) {
+            // Values only matter to the fingerprint, except in place of a table. They are all
+            // handled alike, as the fingerprint does not tell them apart.
+            if (type == LITERAL || type == WORD && scanner.isNumber()) {
+                if (expecting == TABLE || expecting == TABLE_LIST) {
+                    // A table that is not named in the SQL; the word after it is its alias
+                    expecting = expecting == TABLE_LIST ? AFTER_LIST_TABLE : NO_TABLE;
+                    afterParen = afterInsert = afterGroupOrOrder = false;
+                }
+                continue;
+            }
+            boolean keyword = type == WORD && !scanner.dotted;
+
+            // Table names and the aliases following them in a FROM list
+            if (expecting == TABLE || expecting == TABLE_LIST) {
+                boolean name = type == NAME || type == WORD && (scanner.dotted || !scanner.isAny(CLAUSE_KEYWORDS));
+                if (name) {
+                    tables.add(scanner.text());
+                    expecting = expecting == TABLE_LIST ? AFTER_LIST_TABLE : NO_TABLE;
+                    afterParen = afterInsert = afterGroupOrOrder = false;
+                    continue;
+                }
+                expecting = NO_TABLE;
+            } else if (expecting == AFTER_LIST_TABLE) {
+                if (type == SYMBOL && scanner.symbol() == ',' && parenDepth == listDepth) {
+                    expecting = TABLE_LIST;
+                    continue;
+                }
+                if (type == NAME || keyword && !scanner.isAny(CLAUSE_KEYWORDS)) {
+                    continue;
+                }
+                expecting = NO_TABLE;
+            }
+
+            if (type == SYMBOL) {
+                char c = scanner.symbol();
+                if (c == '(') {
+                    if (++parenDepth == subqueryParen.length) {
+                        subqueryParen = Arrays.copyOf(subqueryParen, parenDepth * 2);
+                    }
+                    subqueryParen[parenDepth] = false;
+                } else if (c == ')' && parenDepth > 0) {
+                    if (subqueryParen[parenDepth]) nesting--;
+                    parenDepth--;
+                }
+            } else if (keyword) {
+                if (scanner.is("SELECT")) {
+                    select = true;
+                    if (afterParen) {
+                        subqueryParen[parenDepth] = true;
+                        nesting++;
+                        subqueries++;
+                        subqueryDepth = Math.max(subqueryDepth, nesting);
+                    }
+                } else if (scanner.is("FROM")) {
+                    // Not inside function calls such as EXTRACT(YEAR FROM d)
+                    if (parenDepth == 0 || subqueryParen[parenDepth]) {
+                        expecting = TABLE_LIST;
+                        listDepth = parenDepth;
+                    }
+                } else if (scanner.is("JOIN")) {
+                    joins++;
+                    expecting = TABLE;
+                } else if (scanner.is("UPDATE")) {
+                    update = true;
+                    expecting = TABLE;
+                } else if (scanner.is("INSERT")) {
+                    insert = true;
+                } else if (scanner.is("INTO")) {
+                    if (afterInsert) expecting = TABLE;
+                } else if (scanner.is("DELETE")) {
+                    delete = true;
+                } else if (scanner.is("WHERE") || scanner.is("HAVING") || scanner.is("AND") || scanner.is("OR")) {
+                    predicates++;
+                } else if (scanner.is("BY")) {
+                    if (afterGroupOrOrder) groupings++;
+                }
+            }
+
+            afterParen = type == SYMBOL && scanner.symbol() == '(';
+            afterInsert = keyword && scanner.is("INSERT");
+            afterGroupOrOrder = keyword && (scanner.is("GROUP") || scanner.is("ORDER"));
+        }
+
+        int statements = (select ? 1 : 0) + (insert ? 1 : 0) + (update ? 1 : 0) + (delete ? 1 : 0);
+        int score = statements + joins + subqueries + predicates + groupings;
+        return new Profile(fingerprint, tables, joins, subqueries, subqueryDepth, predicates, score);
+    }
+
+    /**
+     * Splits SQL into tokens, skipping whitespace, comments and ColdFusion tags.
+     * Expressions and {@code <cfqueryparam>} tags stand for values and are returned as literals.
+     */
+    private static final class Scanner {
+        private final CharSequence sql;
+        private final int length;
+        private int position;
+
+        private int type;
+        private int start;
+        private int end;
+        // Whether a WORD token contains a dot, such as dbo.users
+        private boolean dotted;
+
+        Scanner(CharSequence sql) {
+            this.sql = sql;
+            this.length = sql.length();
+        }
+
+        int next() {
+            dotted = false;
+            while (position < length) {
+                char c = sql.charAt(position);
+                if (Character.isWhitespace(c)) {
+                    position++;
+                } else if (c == '-' && peek(1) == '-') {
+                    position = lineEnd(position);
+                } else if (c == '/' && peek(1) == '*') {
+                    position = skipPast(position + 2, "*/");
+                } else if (c == '<' && startsTag(position)) {
+                    start = position;
+                    position = tagEnd(position);
+                    if (isParamTag(start)) {
+                        return token(LITERAL);
+                    }
+                } else if (c == '#') {
+                    if (peek(1) == '#') {
+                        // An escaped hash
+                        position += 2;
+                    } else {
+                        start = position;
+                        position = skipPast(position + 1, "#");
+                        return token(LITERAL);
+                    }
+                } else {
+                    return readToken(c);
+                }
+            }
+            type = END;
+            return END;
+        }
+
+        private int readToken(char c) {
+            start = position;
+            if (c == '\'') {
+                position = stringEnd(position, '\'');
+                return token(LITERAL);
+            }
+            if (isWordChar(c) || c == '"' || c == '[' || c == '`') {
+                boolean quoted = false;
+                while (true) {
+                    char part = sql.charAt(position);
+                    if (part == '"' || part == '`') {
+                        position = stringEnd(position, part);
+                        quoted = true;
+                    } else if (part == '[') {
+                        position = skipPast(position + 1, "]");
+                        quoted = true;
+                    } else if (isWordChar(part)) {
+                        while (position < length && isWordChar(sql.charAt(position))) position++;
+                    } else {
+                        break;
+                    }
+                    // Continue through qualified names such as dbo.users
+                    if (position + 1 < length && sql.charAt(position) == '.' && startsName(sql.charAt(position + 1))) {
+                        position++;
+                        dotted = true;
+                    } else {
+                        break;
+                    }
+                }
+                return token(quoted ? NAME : WORD);
+            }
+            position++;
+            return token(SYMBOL);
+        }
+
+        private int token(int tokenType) {
+            end = position;
+            type = tokenType;
+            return tokenType;
+        }
+
+        char symbol() {
+            return sql.charAt(start);
+        }
+
+        String text() {
+            return sql.subSequence(start, end).toString();
+        }
+
+        boolean is(String keyword) {
+            int tokenLength = end - start;
+            if (type != WORD || tokenLength != keyword.length()) return false;
+            for (int i = 0; i < tokenLength; i++) {
+                if (Character.toUpperCase(sql.charAt(start + i)) != keyword.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Whether a WORD token is a number such as 42 or 1.5
+         */
+        boolean isNumber() {
+            if (!Character.isDigit(sql.charAt(start))) return false;
+            for (int i = start + 1; i < end; i++) {
+                char c = sql.charAt(i);
+                if (!Character.isDigit(c) && c != '.') return false;
+            }
+            return true;
+        }
+
+        boolean isAny(String[] keywords) {
+            for (String keyword : keywords) {
+                if (is(keyword)) return true;
+            }
+            return false;
+        }
+
+        private char peek(int offset) {
+            int at = position + offset;
+            return at < length ? sql.charAt(at) : '\0';
+        }
+
+        private boolean startsTag(int at) {
+            // <cf..., </cf... and <!--- comments
+            int from = at + 1;
+            if (from < length && sql.charAt(from) == '/') from++;
+            if (from + 1 < length && (sql.charAt(from) == 'c' || sql.charAt(from) == 'C')
+                    && (sql.charAt(from + 1) == 'f' || sql.charAt(from + 1) == 'F')) {
+                return true;
+            }
+            return at + 4 < length && sql.charAt(at + 1) == '!' && sql.charAt(at + 2) == '-'
+                && sql.charAt(at + 3) == '-' && sql.charAt(at + 4) == '-';
+        }
+
+        private boolean isParamTag(int at) {
+            String tag = "<cfqueryparam";
+            if (at + tag.length() >= length) return false;
+            for (int i = 1; i < tag.length(); i++) {
+                if (Character.toLowerCase(sql.charAt(at + i)) != tag.charAt(i)) return false;
+            }
+            char next = sql.charAt(at + tag.length());
+            return Character.isWhitespace(next) || next == '/' || next == '>';
+        }
+
+        private int tagEnd(int at) {
+            if (sql.charAt(at + 1) == '!') {
+                return skipPast(at + 5, "--->");
+            }
+            // Attribute values may contain '>', for example in expressions
+            char quote = 0;
+            for (int i = at + 1; i < length; i++) {
+                char c = sql.charAt(i);
+                if (quote != 0) {
+                    if (c == quote) quote = 0;
+                } else if (c == '"' || c == '\'') {
+                    quote = c;
+                } else if (c == '>') {
+                    return i + 1;
+                }
+            }
+            return length;
+        }
+
+        private int stringEnd(int at, char quote) {
+            int i = at + 1;
+            while (i < length) {
+                if (sql.charAt(i) == quote) {
+                    // A doubled quote is an escaped quote
+                    if (i + 1 < length && sql.charAt(i + 1) == quote) {
+                        i += 2;
+                        continue;
+                    }
+                    return i + 1;
+                }
+                i++;
+            }
+            return length;
+        }
+
+        private int lineEnd(int at) {
+            int i = at;
+            while (i < length && sql.charAt(i) != '\n') i++;
+            return i;
+        }
+
+        private int skipPast(int from, String terminator) {
+            int last = length - terminator.length();
+            for (int i = from; i <= last; i++) {
+                if (sql.charAt(i) == terminator.charAt(0) && matches(i, terminator)) {
+                    return i + terminator.length();
+                }
+            }
+            return length;
+        }
+
+        private boolean matches(int at, String text) {
+            for (int i = 1; i < text.length(); i++) {
+                if (sql.charAt(at + i) != text.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        private static boolean isWordChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '@';
+        }
+
+        private static boolean startsName(char c) {
+            return isWordChar(c) || c == '"' || c == '[' || c == '`';
+        }
+    }
+}
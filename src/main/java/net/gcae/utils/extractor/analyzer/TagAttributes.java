@@ -0,0 +1,147 @@
+package net.gcae.utils.extractor.analyzer;
+
+import java.util.Arrays;
+
+import net.gcae.utils.extractor.model.StringPool;
+
+/**
+ * Reusable view over the attributes of a single CFML tag, parsed in place from a
+ * character range of the source without building a DOM.
+ *
+ * Attribute names are matched case-insensitively and, as in HTML, the first
+ * occurrence of a repeated attribute wins. Values are returned exactly as written
+ * between their quotes. A view is not thread-safe; each scan should use its own.
+ */
+class TagAttributes {
+    private String source;
+    private int count;
+    // Per attribute: name start, name end, value start, value end (value start -1 when absent)
+    private int[] spans = new int[4 * 8];
+
+    /**
+     * Parses the attributes between the end of the tag name and the closing '>'
+     */
+    TagAttributes parse(String source, int from, int to) {
+        this.source = source;
+        this.count = 0;
+
+        int i = from;
+        while (true) {
+            while (i < to && isSeparator(source.charAt(i))) i++;
+            if (i >= to) break;
+
+            int nameStart = i;
+            while (i < to && !isSeparator(source.charAt(i)) && source.charAt(i) != '=') i++;
+            int nameEnd = i;
+
+            int valueStart = -1;
+            int valueEnd = -1;
+            int afterName = i;
+            while (i < to && Character.isWhitespace(source.charAt(i))) i++;
+            if (i < to && source.charAt(i) == '=') {
+                i++;
+                while (i < to && Character.isWhitespace(source.charAt(i))) i++;
+                if (i < to && (source.charAt(i) == '"' || source.charAt(i) == '\'')) {
+                    char quote = source.charAt(i);
+                    valueStart = i + 1;
+                    i = valueStart;
+                    while (i < to && source.charAt(i) != quote) i++;
+                    valueEnd = i;
+                    i++;
+                } else {
+                    valueStart = i;
+                    while (i < to && !Character.isWhitespace(source.charAt(i))) i++;
+                    valueEnd = i;
+                }
+            } else {
+                i = afterName;
+            }
+
+            if (nameEnd > nameStart) {
+                add(nameStart, nameEnd, valueStart, valueEnd);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns the value of the attribute, or an empty string when it is absent
+     */
+    String get(String name) {
+        for (int i = 0; i < count; i++) {
+            if (nameEquals(i, name)) {
+                return value(i);
+            }
+        }
+        return "";
+    }
+
+    private String value(int index) {
+        int start = spans[4 * index + 2];
+        return start < 0 ? "" : source.substring(start, spans[4 * index + 3]);
+    }
+
+    /**
+     * Returns true when the attribute at the index repeats an earlier one and is therefore ignored
+     */
+    private boolean isDuplicate(int index) {
+        int length = spans[4 * index + 1] - spans[4 * index];
+        for (int i = 0; i < index; i++) {
+            if (spans[4 * i + 1] - spans[4 * i] == length
+                    && source.regionMatches(true, spans[4 * i], source, spans[4 * index], length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the names, in lower case, and values of all attributes except the excluded
+     * ones, alternating, as canonical instances from the pool
+     */
+    String[] pairs(StringPool pool, String... excluded) {
+        String[] pairs = new String[2 * count];
+        int length = 0;
+        char[] name = new char[16];
+        for (int i = 0; i < count; i++) {
+            if (isDuplicate(i) || isExcluded(i, excluded)) continue;
+            int start = spans[4 * i];
+            int nameLength = spans[4 * i + 1] - start;
+            if (name.length < nameLength) name = new char[nameLength];
+            for (int c = 0; c < nameLength; c++) {
+                name[c] = Character.toLowerCase(source.charAt(start + c));
+            }
+            pairs[length++] = new String(name, 0, nameLength);
+            pairs[length++] = value(i);
+        }
+        return pool.intern(length == pairs.length ? pairs : Arrays.copyOf(pairs, length));
+    }
+
+    private boolean isExcluded(int index, String[] excluded) {
+        for (String name : excluded) {
+            if (nameEquals(index, name)) return true;
+        }
+        return false;
+    }
+
+    private boolean nameEquals(int index, String name) {
+        int start = spans[4 * index];
+        return spans[4 * index + 1] - start == name.length()
+            && source.regionMatches(true, start, name, 0, name.length());
+    }
+
+    private void add(int nameStart, int nameEnd, int valueStart, int valueEnd) {
+        if (4 * count == spans.length) {
+            spans = Arrays.copyOf(spans, spans.length * 2);
+        }
+        spans[4 * count] = nameStart;
+        spans[4 * count + 1] = nameEnd;
+        spans[4 * count + 2] = valueStart;
+        spans[4 * count + 3] = valueEnd;
+        count++;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '/' || Character.isWhitespace(c);
+    }
+}
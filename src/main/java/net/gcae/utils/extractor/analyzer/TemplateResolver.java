@@ -0,0 +1,135 @@
+package net.gcae.utils.extractor.analyzer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import net.gcae.utils.extractor.model.AnalysisResult;
+import net.gcae.utils.extractor.model.DependencyGraph;
+import net.gcae.utils.extractor.model.FileInfo;
+import net.gcae.utils.extractor.model.IncludeInfo;
+import net.gcae.utils.extractor.model.ModuleInfo;
+
+/**
+ * Resolves the templates of cfinclude and cfmodule tags to analyzed files and links
+ * the files in a {@link DependencyGraph}.
+ *
+ * Relative templates are resolved against the directory of the file using them.
+ * Templates starting with a slash go through the longest matching mapping, or else
+ * are taken from the source root, which stands in for the web root. Templates with
+ * #expressions#, templates leaving the source root and templates naming a file that
+ * was not analyzed stay unresolved. Paths that differ only in case are matched when
+ * there is no exact match, as ColdFusion on Windows would.
+ */
+class TemplateResolver {
+    // Mapped prefixes without a trailing slash, longest first, and their directories
+    private final List<String[]> mappings = new ArrayList<>();
+
+    /**
+     * @param mappings logical path prefixes such as "/shared" and the directories they
+     *        stand for, relative to the source root
+     */
+    TemplateResolver(Map<String, String> mappings) {
+        for (Map.Entry<String, String> mapping : mappings.entrySet()) {
+            String prefix = trimSlashes(mapping.getKey().replace('\\', '/'));
+            String directory = trimSlashes(mapping.getValue().replace('\\', '/'));
+            this.mappings.add(new String[] {"/" + prefix, directory});
+        }
+        this.mappings.sort((a, b) -> b[0].length() - a[0].length());
+    }
+
+    /**
+     * Builds the graph over the files of the result, in file order
+     */
+    DependencyGraph buildGraph(AnalysisResult result) {
+        List<String> paths = new ArrayList<>();
+        for (FileInfo file : result.getFiles()) {
+            paths.add(file.getFilePath());
+        }
+        DependencyGraph.Builder builder = new DependencyGraph.Builder(paths);
+        Map<String, Integer> nodesIgnoringCase = new HashMap<>(paths.size() * 2);
+        for (int i = 0; i < paths.size(); i++) {
+            nodesIgnoringCase.putIfAbsent(paths.get(i).toLowerCase(Locale.ROOT), i);
+        }
+
+        for (IncludeInfo include : result.getIncludes()) {
+            link(builder, nodesIgnoringCase, include.getFilePath(), include.getTemplate());
+        }
+        for (ModuleInfo module : result.getModules()) {
+            link(builder, nodesIgnoringCase, module.getFilePath(), module.getTemplate());
+        }
+        return builder.build();
+    }
+
+    private void link(DependencyGraph.Builder builder, Map<String, Integer> nodesIgnoringCase,
+            String filePath, String template) {
+        int from = builder.indexOf(filePath);
+        if (from < 0 || template == null || template.isBlank()) return;
+
+        String path = resolve(template, filePath);
+        int to = -1;
+        if (path != null) {
+            to = builder.indexOf(path);
+            if (to < 0) {
+                to = nodesIgnoringCase.getOrDefault(path.toLowerCase(Locale.ROOT), -1);
+            }
+        }
+        if (to >= 0) {
+            builder.addEdge(from, to);
+        } else {
+            builder.addUnresolved(from, template);
+        }
+    }
+
+    /**
+     * Returns the path of the template relative to the source root, or null when it
+     * contains an expression or leaves the root
+     */
+    String resolve(String template, String filePath) {
+        if (template.indexOf('#') >= 0) return null;
+        String path = template.trim().replace('\\', '/');
+        if (path.startsWith("/")) {
+            String mapped = null;
+            for (String[] mapping : mappings) {
+                String prefix = mapping[0];
+                if (path.startsWith(prefix) && (path.length() == prefix.length() || path.charAt(prefix.length()) == '/'
+                        || prefix.length() == 1)) {
+                    mapped = mapping[1] + "/" + path.substring(prefix.length());
+                    break;
+                }
+            }
+            path = mapped != null ? mapped : path.substring(1);
+        } else {
+            int slash = filePath.lastIndexOf('/');
+            path = filePath.substring(0, slash + 1) + path;
+        }
+        return normalize(path);
+    }
+
+    /**
+     * Drops empty and "." segments and applies ".." segments; null when ".." leaves the root
+     */
+    private static String normalize(String path) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty() || segment.equals(".")) continue;
+            if (segment.equals("..")) {
+                if (segments.isEmpty()) return null;
+                segments.remove(segments.size() - 1);
+            } else {
+                segments.add(segment);
+            }
+        }
+        return segments.isEmpty() ? null : String.join("/", segments);
+    }
+
+    private static String trimSlashes(String value) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) == '/') start++;
+        while (end > start && value.charAt(end - 1) == '/') end--;
+        return value.substring(start, end);
+    }
+}
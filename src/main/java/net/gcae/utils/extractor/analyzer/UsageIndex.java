@@ -0,0 +1,57 @@
+package net.gcae.utils.extractor.analyzer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.gcae.utils.extractor.model.AnalysisResult;
+import net.gcae.utils.extractor.model.ComponentInfo;
+import net.gcae.utils.extractor.model.FunctionInfo;
+
+/**
+ * Maps declared function and component names to their declaration records so a
+ * usage hit costs one lookup instead of a scan over all declarations.
+ */
+class UsageIndex {
+    private final Map<String, List<FunctionInfo>> functions = new HashMap<>();
+    private final Map<String, List<ComponentInfo>> components = new HashMap<>();
+
+    UsageIndex(AnalysisResult result) {
+        for (FunctionInfo function : result.getFunctions()) {
+            functions.computeIfAbsent(function.getFunctionName(), k -> new ArrayList<>(1)).add(function);
+        }
+        for (ComponentInfo component : result.getComponents()) {
+            components.computeIfAbsent(component.getComponentName(), k -> new ArrayList<>(1)).add(component);
+        }
+    }
+
+    /**
+     * Returns every declared function and component name
+     */
+    Set<String> getNames() {
+        Set<String> names = new HashSet<>(functions.keySet());
+        names.addAll(components.keySet());
+        return names;
+    }
+
+    /**
+     * Records that the file uses the name on every function and component declaring it
+     */
+    void recordUsage(String name, String filePath) {
+        List<FunctionInfo> declaredFunctions = functions.get(name);
+        if (declaredFunctions != null) {
+            for (FunctionInfo function : declaredFunctions) {
+                function.addUsage(filePath);
+            }
+        }
+        List<ComponentInfo> declaredComponents = components.get(name);
+        if (declaredComponents != null) {
+            for (ComponentInfo component : declaredComponents) {
+                component.addUsage(filePath);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package net.gcae.utils.extractor.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import net.gcae.utils.extractor.model.AnalysisResult;
+
+/**
+ * Flight recorder event for the declaration pass over one file, with the number of
+ * records extracted per tag type
+ */
+@Name("net.gcae.extractor.FileAnalysis")
+@Label("File Analysis")
+@Description("Extraction of the records of one source file, including reading it")
+@Category({"ColdFusion Extractor", "Analysis"})
+@StackTrace(false)
+public final class FileAnalysisEvent extends jdk.jfr.Event {
+    @Label("Path")
+    private String path;
+    
+    @Label("Reused")
+    @Description("Records were taken from the incremental cache")
+    private boolean reused;
+    
+    @Label("Queries")
+    private int queries;
+    
+    @Label("Functions")
+    private int functions;
+    
+    @Label("Invokes")
+    private int invokes;
+    
+    @Label("Components")
+    private int components;
+    
+    @Label("Includes")
+    private int includes;
+    
+    @Label("Modules")
+    private int modules;
+    
+    /**
+     * Ends the event and commits it when a recording wants it
+     *
+     * @param result records of the file, or null when it could not be analyzed
+     */
+    public void finish(String path, boolean reused, AnalysisResult result) {
+        end();
+        if (shouldCommit()) {
+            this.path = path;
+            this.reused = reused;
+            if (result != null) {
+                queries = result.getQueries().size();
+                functions = result.getFunctions().size();
+                invokes = result.getInvokes().size();
+                components = result.getComponents().size();
+                includes = result.getIncludes().size();
+                modules = result.getModules().size();
+            }
+            commit();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package net.gcae.utils.extractor.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for reading and decoding one source file
+ */
+@Name("net.gcae.extractor.FileRead")
+@Label("File Read")
+@Description("A source file read from disk and decoded")
+@Category({"ColdFusion Extractor", "Analysis"})
+@StackTrace(false)
+public final class FileReadEvent extends jdk.jfr.Event {
+    @Label("Path")
+    private String path;
+    
+    @Label("Size")
+    @DataAmount
+    private long bytes;
+    
+    @Label("Charset")
+    private String charset;
+    
+    /**
+     * Ends the event and commits it when a recording wants it
+     */
+    public void finish(String path, long bytes, String charset) {
+        end();
+        if (shouldCommit()) {
+            this.path = path;
+            this.bytes = bytes;
+            this.charset = charset;
+            commit();
+        }
+    }
+}
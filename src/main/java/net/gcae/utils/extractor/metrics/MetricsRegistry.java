@@ -0,0 +1,33 @@
+package net.gcae.utils.extractor.metrics;
+
+/**
+ * Receives timings and counts from the analyzer and reporters.
+ *
+ * Implementations must be thread-safe, since files are analyzed on several threads.
+ * {@link #NONE} discards everything and is used when no registry is configured.
+ */
+public interface MetricsRegistry {
+    
+    MetricsRegistry NONE = new MetricsRegistry() {
+        @Override
+        public void recordTime(String phase, long nanos) { }
+        
+        @Override
+        public void increment(String counter, long amount) { }
+        
+        @Override
+        public void recordFile(String path, long nanos) { }
+    };
+    
+    /**
+     * Adds time spent in a phase; a phase may be recorded many times, also concurrently
+     */
+    void recordTime(String phase, long nanos);
+    
+    void increment(String counter, long amount);
+    
+    /**
+     * Records how long analyzing one file took
+     */
+    void recordFile(String path, long nanos);
+}
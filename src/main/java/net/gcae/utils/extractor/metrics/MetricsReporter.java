@@ -0,0 +1,144 @@
+package net.gcae.utils.extractor.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.gcae.utils.extractor.reporter.JsonStrings;
+
+/**
+ * Writes run metrics as a JSON document and logs them as a table.
+ *
+ * Throughput is measured over the analysis phase: files and bytes analyzed per second
+ * of wall time between the start of the walk and the end of the usage pass. Phases
+ * recorded per file, such as reading, are summed over all worker threads and can
+ * add up to more than the wall time of the pass they belong to.
+ */
+public class MetricsReporter {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsReporter.class);
+    
+    private static final double[] PERCENTILES = {50, 90, 99};
+    
+    public void writeJson(RunMetrics metrics, File outputFile) throws IOException {
+        Path target = outputFile.toPath();
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (Writer out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                writeJson(metrics, out);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        logger.info("Run metrics written to {}", target);
+    }
+    
+    void writeJson(RunMetrics metrics, Writer out) throws IOException {
+        out.write("{\n");
+        out.write(String.format(Locale.ROOT, "  \"analysisMillis\": %.3f,%n", millis(metrics.getPhaseNanos("analysis"))));
+        out.write(String.format(Locale.ROOT, "  \"files\": %d,%n", metrics.getCounter("files.analyzed")));
+        out.write(String.format(Locale.ROOT, "  \"bytes\": %d,%n", metrics.getCounter("bytes.analyzed")));
+        out.write(String.format(Locale.ROOT, "  \"filesPerSecond\": %.1f,%n", filesPerSecond(metrics)));
+        out.write(String.format(Locale.ROOT, "  \"megabytesPerSecond\": %.3f,%n", megabytesPerSecond(metrics)));
+        
+        out.write("  \"phases\": {");
+        Iterator<Map.Entry<String, RunMetrics.Phase>> phases = metrics.getPhases().entrySet().iterator();
+        while (phases.hasNext()) {
+            Map.Entry<String, RunMetrics.Phase> phase = phases.next();
+            out.write("\n    ");
+            JsonStrings.write(out, phase.getKey());
+            out.write(String.format(Locale.ROOT, ": {\"millis\": %.3f, \"count\": %d}%s",
+                millis(phase.getValue().getNanos()), phase.getValue().getCount(), phases.hasNext() ? "," : "\n  "));
+        }
+        out.write("},\n");
+        
+        out.write("  \"counters\": {");
+        Iterator<Map.Entry<String, Long>> counters = metrics.getCounters().entrySet().iterator();
+        while (counters.hasNext()) {
+            Map.Entry<String, Long> counter = counters.next();
+            out.write("\n    ");
+            JsonStrings.write(out, counter.getKey());
+            out.write(": " + counter.getValue() + (counters.hasNext() ? "," : "\n  "));
+        }
+        out.write("},\n");
+        
+        out.write("  \"fileLatency\": {\n");
+        out.write(String.format(Locale.ROOT, "    \"count\": %d,%n", metrics.getFileCount()));
+        out.write(String.format(Locale.ROOT, "    \"meanMillis\": %.3f,%n", millis(metrics.getMeanFileNanos())));
+        for (double percentile : PERCENTILES) {
+            out.write(String.format(Locale.ROOT, "    \"p%.0fMillis\": %.3f,%n", percentile,
+                millis(metrics.getFilePercentileNanos(percentile))));
+        }
+        out.write(String.format(Locale.ROOT, "    \"maxMillis\": %.3f,%n", millis(metrics.getMaxFileNanos())));
+        out.write("    \"histogram\": [");
+        long[] histogram = metrics.getFileHistogram();
+        boolean first = true;
+        for (int i = 0; i < histogram.length; i++) {
+            if (histogram[i] == 0) continue;
+            out.write(first ? "\n" : ",\n");
+            out.write(String.format(Locale.ROOT, "      {\"belowMicros\": %d, \"count\": %d}",
+                i < histogram.length - 1 ? 1L << i : Long.MAX_VALUE, histogram[i]));
+            first = false;
+        }
+        out.write(first ? "]\n" : "\n    ]\n");
+        out.write("  },\n");
+        
+        out.write("  \"slowestFiles\": [");
+        Iterator<RunMetrics.FileTime> slowest = metrics.getSlowestFiles().iterator();
+        while (slowest.hasNext()) {
+            RunMetrics.FileTime file = slowest.next();
+            out.write("\n    {\"path\": ");
+            JsonStrings.write(out, file.getPath());
+            out.write(String.format(Locale.ROOT, ", \"millis\": %.3f}%s", millis(file.getNanos()), slowest.hasNext() ? "," : "\n  "));
+        }
+        out.write("]\n");
+        out.write("}\n");
+    }
+    
+    public void logTable(RunMetrics metrics) {
+        logger.info("=== Run Metrics ===");
+        logger.info(String.format(Locale.ROOT, "%-28s %12s %10s", "Phase", "Time (ms)", "Count"));
+        for (Map.Entry<String, RunMetrics.Phase> phase : metrics.getPhases().entrySet()) {
+            logger.info(String.format(Locale.ROOT, "%-28s %12.1f %10d",
+                phase.getKey(), millis(phase.getValue().getNanos()), phase.getValue().getCount()));
+        }
+        logger.info(String.format(Locale.ROOT, "%-28s %12s", "Counter", "Value"));
+        for (Map.Entry<String, Long> counter : metrics.getCounters().entrySet()) {
+            logger.info(String.format(Locale.ROOT, "%-28s %12d", counter.getKey(), counter.getValue()));
+        }
+        logger.info(String.format(Locale.ROOT, "Throughput: %.1f files/s, %.2f MB/s",
+            filesPerSecond(metrics), megabytesPerSecond(metrics)));
+        logger.info(String.format(Locale.ROOT, "File analysis time: mean %.2f ms, p50 <= %.2f ms, p90 <= %.2f ms, p99 <= %.2f ms, max %.2f ms",
+            millis(metrics.getMeanFileNanos()), millis(metrics.getFilePercentileNanos(50)),
+            millis(metrics.getFilePercentileNanos(90)), millis(metrics.getFilePercentileNanos(99)),
+            millis(metrics.getMaxFileNanos())));
+        logger.info("Slowest files:");
+        for (RunMetrics.FileTime file : metrics.getSlowestFiles()) {
+            logger.info(String.format(Locale.ROOT, "%12.2f ms  %s", millis(file.getNanos()), file.getPath()));
+        }
+    }
+    
+    private static double filesPerSecond(RunMetrics metrics) {
+        long nanos = metrics.getPhaseNanos("analysis");
+        return nanos > 0 ? metrics.getCounter("files.analyzed") * 1e9 / nanos : 0;
+    }
+    
+    private static double megabytesPerSecond(RunMetrics metrics) {
+        long nanos = metrics.getPhaseNanos("analysis");
+        return nanos > 0 ? metrics.getCounter("bytes.analyzed") / (1024.0 * 1024.0) * 1e9 / nanos : 0;
+    }
+    
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
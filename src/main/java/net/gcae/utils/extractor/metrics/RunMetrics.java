@@ -0,0 +1,188 @@
+package net.gcae.utils.extractor.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of one run kept in memory: total time and count per phase, counters, a
+ * histogram of per-file analysis times and the slowest files.
+ *
+ * The histogram has one bucket per power of two microseconds, so percentiles are
+ * reported as the upper bound of the bucket they fall in.
+ */
+public class RunMetrics implements MetricsRegistry {
+    public static final int DEFAULT_SLOWEST_FILES = 20;
+    
+    // Bucket i counts files analyzed in less than 2^i microseconds; the last one takes the rest
+    private static final int BUCKETS = 40;
+    
+    /**
+     * Total time and number of recordings of a phase
+     */
+    public static class Phase {
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder count = new LongAdder();
+        
+        public long getNanos() { return nanos.sum(); }
+        public long getCount() { return count.sum(); }
+    }
+    
+    /**
+     * Analysis time of one file
+     */
+    public static class FileTime {
+        private final String path;
+        private final long nanos;
+        
+        FileTime(String path, long nanos) {
+            this.path = path;
+            this.nanos = nanos;
+        }
+        
+        public String getPath() { return path; }
+        public long getNanos() { return nanos; }
+    }
+    
+    private final Map<String, Phase> phases = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder fileNanos = new LongAdder();
+    private final LongAccumulator maxFileNanos = new LongAccumulator(Math::max, 0);
+    
+    private final int slowestCount;
+    private final PriorityQueue<FileTime> slowest = new PriorityQueue<>(Comparator.comparingLong(FileTime::getNanos));
+    // Time a file must exceed to enter a full list of slowest files, read without locking
+    private volatile long slowestThreshold = -1;
+    
+    public RunMetrics() {
+        this(DEFAULT_SLOWEST_FILES);
+    }
+    
+    /**
+     * @param slowestCount number of slowest files to keep
+     */
+    public RunMetrics(int slowestCount) {
+        this.slowestCount = slowestCount;
+    }
+    
+    @Override
+    public void recordTime(String phase, long nanos) {
+        Phase recorded = phases.computeIfAbsent(phase, name -> new Phase());
+        recorded.nanos.add(nanos);
+        recorded.count.increment();
+    }
+    
+    @Override
+    public void increment(String counter, long amount) {
+        counters.computeIfAbsent(counter, name -> new LongAdder()).add(amount);
+    }
+    
+    @Override
+    public void recordFile(String path, long nanos) {
+        long micros = nanos / 1000;
+        int bucket = micros == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(bucket);
+        fileNanos.add(nanos);
+        maxFileNanos.accumulate(nanos);
+        
+        if (nanos <= slowestThreshold) return;
+        synchronized (slowest) {
+            slowest.add(new FileTime(path, nanos));
+            if (slowest.size() > slowestCount) {
+                slowest.poll();
+            }
+            if (slowest.size() == slowestCount) {
+                slowestThreshold = slowest.peek().getNanos();
+            }
+        }
+    }
+    
+    /**
+     * Phases by name, in alphabetical order
+     */
+    public Map<String, Phase> getPhases() { return new TreeMap<>(phases); }
+    
+    public long getPhaseNanos(String phase) {
+        Phase recorded = phases.get(phase);
+        return recorded != null ? recorded.getNanos() : 0;
+    }
+    
+    /**
+     * Counter values by name, in alphabetical order
+     */
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, value) -> values.put(name, value.sum()));
+        return values;
+    }
+    
+    public long getCounter(String counter) {
+        LongAdder value = counters.get(counter);
+        return value != null ? value.sum() : 0;
+    }
+    
+    public long getFileCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+    
+    public long getMeanFileNanos() {
+        long count = getFileCount();
+        return count > 0 ? fileNanos.sum() / count : 0;
+    }
+    
+    public long getMaxFileNanos() { return maxFileNanos.get(); }
+    
+    /**
+     * Upper bound of the per-file analysis time below which the given share of files fall
+     *
+     * @param percentile between 0 and 100
+     */
+    public long getFilePercentileNanos(double percentile) {
+        long count = getFileCount();
+        if (count == 0) return 0;
+        long rank = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min((1L << i) * 1000, getMaxFileNanos());
+            }
+        }
+        return getMaxFileNanos();
+    }
+    
+    /**
+     * Number of files per histogram bucket; bucket i holds files analyzed in less than 2^i microseconds
+     */
+    public long[] getFileHistogram() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return counts;
+    }
+    
+    /**
+     * The slowest files, slowest first
+     */
+    public List<FileTime> getSlowestFiles() {
+        List<FileTime> files;
+        synchronized (slowest) {
+            files = new ArrayList<>(slowest);
+        }
+        files.sort(Comparator.comparingLong(FileTime::getNanos).reversed());
+        return files;
+    }
+}
@@ -0,0 +1,39 @@
+package net.gcae.utils.extractor.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for writing one report table
+ */
+@Name("net.gcae.extractor.SheetWrite")
+@Label("Sheet Write")
+@Description("One table of a report written as a sheet or file")
+@Category({"ColdFusion Extractor", "Report"})
+@StackTrace(false)
+public final class SheetWriteEvent extends jdk.jfr.Event {
+    @Label("Sheet")
+    private String sheet;
+    
+    @Label("Reporter")
+    private String reporter;
+    
+    @Label("Rows")
+    private int rows;
+    
+    /**
+     * Ends the event and commits it when a recording wants it
+     */
+    public void finish(String sheet, String reporter, int rows) {
+        end();
+        if (shouldCommit()) {
+            this.sheet = sheet;
+            this.reporter = reporter;
+            this.rows = rows;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package net.gcae.utils.extractor.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for searching one file for usages of the declared names
+ */
+@Name("net.gcae.extractor.UsageScan")
+@Label("Usage Scan")
+@Description("Search of one source file for usages of declared functions and components")
+@Category({"ColdFusion Extractor", "Analysis"})
+@StackTrace(false)
+public final class UsageScanEvent extends jdk.jfr.Event {
+    @Label("Path")
+    private String path;
+    
+    @Label("Incremental")
+    @Description("Only names declared since the cached usages were found were searched")
+    private boolean incremental;
+    
+    @Label("Usages")
+    private int usages;
+    
+    /**
+     * Ends the event and commits it when a recording wants it
+     */
+    public void finish(String path, boolean incremental, int usages) {
+        end();
+        if (shouldCommit()) {
+            this.path = path;
+            this.incremental = incremental;
+            this.usages = usages;
+            commit();
+        }
+    }
+}
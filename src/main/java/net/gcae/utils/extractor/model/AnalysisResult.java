@@ -1,12 +1,35 @@
 package net.gcae.utils.extractor.model;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Contains the results of ColdFusion code analysis
  */
-public class AnalysisResult {
+public class AnalysisResult implements Closeable {
+    /**
+     * How the records of a result are kept in memory
+     */
+    public enum Storage {
+        /** One object per record */
+        LIST,
+        /**
+         * Files, queries, invokes, includes and modules in {@link ColumnarList}s sharing one
+         * string dictionary. Functions and components stay objects, as the usage pass
+         * records their usages on them.
+         */
+        COLUMNAR,
+        /**
+         * Files, queries, invokes, includes and modules in {@link SpillingList}s that move
+         * records to temporary files beyond a threshold; the result must be closed
+         */
+        SPILL
+    }
+    
+    public static final int DEFAULT_SPILL_THRESHOLD = 100_000;
+    
     private List<FileInfo> files = new ArrayList<>();
     private List<QueryInfo> queries = new ArrayList<>();
     private List<FunctionInfo> functions = new ArrayList<>();
@@ -14,6 +37,43 @@ public class AnalysisResult {
     private List<ComponentInfo> components = new ArrayList<>();
     private List<IncludeInfo> includes = new ArrayList<>();
     private List<ModuleInfo> modules = new ArrayList<>();
+    // Built after the analysis when requested
+    private DependencyGraph dependencies;
+    private CallGraph callGraph;
+    
+    public AnalysisResult() {
+    }
+    
+    /**
+     * Returns an empty result keeping its records as set by the storage
+     */
+    public static AnalysisResult create(Storage storage) {
+        return create(storage, DEFAULT_SPILL_THRESHOLD);
+    }
+    
+    /**
+     * Returns an empty result keeping its records as set by the storage
+     *
+     * @param spillThreshold with {@link Storage#SPILL}, records of each type kept in memory
+     */
+    public static AnalysisResult create(Storage storage, int spillThreshold) {
+        AnalysisResult result = new AnalysisResult();
+        if (storage == Storage.SPILL) {
+            result.files = new SpillingList<>(RecordCodec::writeFile, RecordCodec::readFile, spillThreshold);
+            result.queries = new SpillingList<>(RecordCodec::writeQuery, RecordCodec::readQuery, spillThreshold);
+            result.invokes = new SpillingList<>(RecordCodec::writeInvoke, RecordCodec::readInvoke, spillThreshold);
+            result.includes = new SpillingList<>(RecordCodec::writeInclude, RecordCodec::readInclude, spillThreshold);
+            result.modules = new SpillingList<>(RecordCodec::writeModule, RecordCodec::readModule, spillThreshold);
+        } else if (storage == Storage.COLUMNAR) {
+            StringDictionary dictionary = new StringDictionary();
+            result.files = new ColumnarList<>(ColumnLayouts.FILES, dictionary);
+            result.queries = new ColumnarList<>(ColumnLayouts.QUERIES, dictionary);
+            result.invokes = new ColumnarList<>(ColumnLayouts.INVOKES, dictionary);
+            result.includes = new ColumnarList<>(ColumnLayouts.INCLUDES, dictionary);
+            result.modules = new ColumnarList<>(ColumnLayouts.MODULES, dictionary);
+        }
+        return result;
+    }
     
     // Getters and setters
     public List<FileInfo> getFiles() { return files; }
@@ -36,4 +96,37 @@ public class AnalysisResult {
     
     public List<ModuleInfo> getModules() { return modules; }
     public void setModules(List<ModuleInfo> modules) { this.modules = modules; }
+    
+    /** Include and module graph of the files, or null when it was not built */
+    public DependencyGraph getDependencies() { return dependencies; }
+    public void setDependencies(DependencyGraph dependencies) { this.dependencies = dependencies; }
+    
+    /** Inheritance and invoke cross-reference of the records, or null when it was not built */
+    public CallGraph getCallGraph() { return callGraph; }
+    public void setCallGraph(CallGraph callGraph) { this.callGraph = callGraph; }
+    
+    /**
+     * Deletes the temporary files of spilled records; a result of another storage needs no closing
+     */
+    @Override
+    public void close() throws IOException {
+        for (List<?> records : List.of(files, queries, functions, invokes, components, includes, modules)) {
+            if (records instanceof Closeable) {
+                ((Closeable) records).close();
+            }
+        }
+    }
+    
+    /**
+     * Appends all records of another result, preserving their order
+     */
+    public void addAll(AnalysisResult other) {
+        files.addAll(other.getFiles());
+        queries.addAll(other.getQueries());
+        functions.addAll(other.getFunctions());
+        invokes.addAll(other.getInvokes());
+        components.addAll(other.getComponents());
+        includes.addAll(other.getIncludes());
+        modules.addAll(other.getModules());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,268 @@
+package net.gcae.utils.extractor.model;
+
+import java.util.Arrays;
+
+/**
+ * Cross-reference of components, functions and invokes by their index in the result:
+ * the component each component extends, the functions each cfinvoke calls and the
+ * calls between functions, kept in int arrays.
+ *
+ * The functions an invoke calls are invokeTargets[invokeOffsets[i]] to
+ * invokeTargets[invokeOffsets[i + 1] - 1]; more than one when the component name is
+ * ambiguous. Calls between functions are kept the same way in both directions, sorted
+ * and without duplicates. An invoke outside any function, such as one in a page, adds
+ * to the call sites of its targets but not to their callers. Immutable once built.
+ */
+public final class CallGraph {
+    private final int[] parents;
+    private final int[] depths;
+    private final int[] subcomponents;
+    private final int[] functionComponents;
+    private final int[] invokeCallers;
+    private final int[] invokeOffsets;
+    private final int[] invokeTargets;
+    private final int[] callSites;
+    private final int[] offsets;
+    private final int[] callees;
+    private final int[] reverseOffsets;
+    private final int[] callers;
+    private final int unresolvedInvokes;
+
+    /**
+     * Collects the links found in one pass over the records. Not thread-safe.
+     */
+    public static final class Builder {
+        private final int[] parents;
+        private final int[] functionComponents;
+        private final int[] invokeCallers;
+        private int[] links = new int[64];
+        private int linkCount;
+
+        public Builder(int components, int functions, int invokes) {
+            parents = new int[components];
+            Arrays.fill(parents, -1);
+            functionComponents = new int[functions];
+            Arrays.fill(functionComponents, -1);
+            invokeCallers = new int[invokes];
+            Arrays.fill(invokeCallers, -1);
+        }
+
+        public Builder setParent(int component, int parent) {
+            parents[component] = parent;
+            return this;
+        }
+
+        /**
+         * Returns the component the component extends, or -1
+         */
+        public int getParent(int component) {
+            return parents[component];
+        }
+
+        public Builder setFunctionComponent(int function, int component) {
+            functionComponents[function] = component;
+            return this;
+        }
+
+        /**
+         * @param function the function containing the invoke, or -1
+         */
+        public Builder setInvokeCaller(int invoke, int function) {
+            invokeCallers[invoke] = function;
+            return this;
+        }
+
+        /**
+         * Records a function the invoke calls; the targets of an invoke are added one after another
+         */
+        public Builder addInvokeTarget(int invoke, int function) {
+            if (2 * linkCount + 2 > links.length) {
+                links = Arrays.copyOf(links, links.length * 2);
+            }
+            links[2 * linkCount] = invoke;
+            links[2 * linkCount + 1] = function;
+            linkCount++;
+            return this;
+        }
+
+        public CallGraph build() {
+            return new CallGraph(this);
+        }
+    }
+
+    private CallGraph(Builder builder) {
+        parents = builder.parents;
+        functionComponents = builder.functionComponents;
+        invokeCallers = builder.invokeCallers;
+        int componentCount = parents.length;
+        int functionCount = functionComponents.length;
+        int invokeCount = invokeCallers.length;
+
+        depths = new int[componentCount];
+        breakCycles();
+        subcomponents = new int[componentCount];
+        for (int parent : parents) {
+            if (parent >= 0) subcomponents[parent]++;
+        }
+
+        // Targets of every invoke, in the order they were added
+        invokeOffsets = new int[invokeCount + 1];
+        invokeTargets = new int[builder.linkCount];
+        callSites = new int[functionCount];
+        for (int i = 0; i < builder.linkCount; i++) {
+            invokeOffsets[builder.links[2 * i] + 1]++;
+            callSites[builder.links[2 * i + 1]]++;
+        }
+        int unresolved = 0;
+        for (int i = 0; i < invokeCount; i++) {
+            if (invokeOffsets[i + 1] == 0) unresolved++;
+            invokeOffsets[i + 1] += invokeOffsets[i];
+        }
+        unresolvedInvokes = unresolved;
+        int[] fill = Arrays.copyOf(invokeOffsets, invokeCount);
+        for (int i = 0; i < builder.linkCount; i++) {
+            invokeTargets[fill[builder.links[2 * i]]++] = builder.links[2 * i + 1];
+        }
+
+        // Calls between functions, from the invokes that are inside one
+        int calls = 0;
+        for (int invoke = 0; invoke < invokeCount; invoke++) {
+            if (invokeCallers[invoke] >= 0) calls += invokeOffsets[invoke + 1] - invokeOffsets[invoke];
+        }
+        int[] from = new int[calls];
+        int[] to = new int[calls];
+        calls = 0;
+        for (int invoke = 0; invoke < invokeCount; invoke++) {
+            if (invokeCallers[invoke] < 0) continue;
+            for (int e = invokeOffsets[invoke]; e < invokeOffsets[invoke + 1]; e++) {
+                from[calls] = invokeCallers[invoke];
+                to[calls] = invokeTargets[e];
+                calls++;
+            }
+        }
+        offsets = new int[functionCount + 1];
+        callees = IntRows.toRows(functionCount, from, to, offsets);
+        reverseOffsets = new int[functionCount + 1];
+        callers = IntRows.toRows(functionCount, to, from, reverseOffsets);
+    }
+
+    /**
+     * Returns the component the component extends, or -1 when it extends none that was
+     * found or its chain leads back to itself
+     */
+    public int getParent(int component) {
+        return parents[component];
+    }
+
+    /**
+     * Returns the number of resolved components above the component
+     */
+    public int getDepth(int component) {
+        return depths[component];
+    }
+
+    /**
+     * Returns the number of components extending the component directly
+     */
+    public int getSubcomponentCount(int component) {
+        return subcomponents[component];
+    }
+
+    /**
+     * Returns the component declaring the function, or -1 for a function outside a component
+     */
+    public int getComponent(int function) {
+        return functionComponents[function];
+    }
+
+    /**
+     * Returns the function containing the invoke, or -1 when it is outside a function
+     */
+    public int getCaller(int invoke) {
+        return invokeCallers[invoke];
+    }
+
+    /**
+     * Returns the functions the invoke calls; empty when it could not be resolved
+     */
+    public int[] getTargets(int invoke) {
+        return Arrays.copyOfRange(invokeTargets, invokeOffsets[invoke], invokeOffsets[invoke + 1]);
+    }
+
+    /**
+     * Returns the number of invokes that resolved to no function
+     */
+    public int getUnresolvedInvokeCount() {
+        return unresolvedInvokes;
+    }
+
+    /**
+     * Returns the number of invokes calling the function, wherever they are
+     */
+    public int getCallSiteCount(int function) {
+        return callSites[function];
+    }
+
+    /**
+     * Returns the functions the function calls, in function order
+     */
+    public int[] getCallees(int function) {
+        return Arrays.copyOfRange(callees, offsets[function], offsets[function + 1]);
+    }
+
+    /**
+     * Returns the functions calling the function, in function order
+     */
+    public int[] getCallers(int function) {
+        return Arrays.copyOfRange(callers, reverseOffsets[function], reverseOffsets[function + 1]);
+    }
+
+    /**
+     * Returns the number of distinct functions calling the function
+     */
+    public int getFanIn(int function) {
+        return reverseOffsets[function + 1] - reverseOffsets[function];
+    }
+
+    /**
+     * Returns the number of distinct functions the function calls
+     */
+    public int getFanOut(int function) {
+        return offsets[function + 1] - offsets[function];
+    }
+
+    /**
+     * Returns the number of distinct calls between functions
+     */
+    public int getCallCount() {
+        return callees.length;
+    }
+
+    /**
+     * Fills in the depth of every component, walking each chain once. A chain leading
+     * back into itself is cut at the component that closes it.
+     */
+    private void breakCycles() {
+        // 0 not visited, 1 on the current chain, 2 done
+        byte[] state = new byte[parents.length];
+        int[] chain = new int[parents.length];
+        for (int start = 0; start < parents.length; start++) {
+            int length = 0;
+            int component = start;
+            while (component >= 0 && state[component] == 0) {
+                state[component] = 1;
+                chain[length++] = component;
+                component = parents[component];
+            }
+            if (component >= 0 && state[component] == 1) {
+                parents[chain[length - 1]] = -1;
+                component = -1;
+            }
+            int depth = component >= 0 ? depths[component] + 1 : 0;
+            for (int i = length - 1; i >= 0; i--) {
+                depths[chain[i]] = depth++;
+                state[chain[i]] = 2;
+            }
+        }
+    }
+}
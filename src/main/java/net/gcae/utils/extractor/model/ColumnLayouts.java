@@ -0,0 +1,116 @@
+package net.gcae.utils.extractor.model;
+
+/**
+ * Column layouts of the records that are stored in {@link ColumnarList}s
+ */
+final class ColumnLayouts {
+    private ColumnLayouts() {
+    }
+    
+    static final ColumnarList.Layout<FileInfo> FILES = new ColumnarList.Layout<FileInfo>(5, 1) {
+        @Override
+        void write(FileInfo file, ColumnarList<FileInfo>.Row row) {
+            row.putString(file.getFileName());
+            row.putString(file.getFilePath());
+            row.putString(file.getFileType());
+            row.putLong(file.getFileSize());
+            row.putInt(file.getLineCount());
+            row.putString(file.getEncoding());
+        }
+        
+        @Override
+        FileInfo create() {
+            return new FileInfo(null, null, null, 0, 0, null);
+        }
+        
+        @Override
+        void read(ColumnarList<FileInfo>.Row row, FileInfo file) {
+            file.set(row.getString(), row.getString(), row.getString(), row.getLong(), row.getInt(), row.getString());
+        }
+    };
+    
+    static final ColumnarList.Layout<QueryInfo> QUERIES = new ColumnarList.Layout<QueryInfo>(8, 0) {
+        @Override
+        void write(QueryInfo query, ColumnarList<QueryInfo>.Row row) {
+            row.putString(query.getQueryName());
+            row.putString(query.getDbTable());
+            row.putString(query.getFilePath());
+            row.putInt(query.getLineNumber());
+            row.putString(query.getDataSource());
+            row.putString(query.getSqlQuery());
+            row.putString(query.getComplexity());
+            row.putString(query.getFingerprint());
+        }
+        
+        @Override
+        QueryInfo create() {
+            return new QueryInfo(null, null, null, 0, null, null, null, null);
+        }
+        
+        @Override
+        void read(ColumnarList<QueryInfo>.Row row, QueryInfo query) {
+            query.set(row.getString(), row.getString(), row.getString(), row.getInt(), row.getString(),
+                row.getString(), row.getString(), row.getString());
+        }
+    };
+    
+    static final ColumnarList.Layout<InvokeInfo> INVOKES = new ColumnarList.Layout<InvokeInfo>(6, 0) {
+        @Override
+        void write(InvokeInfo invoke, ColumnarList<InvokeInfo>.Row row) {
+            row.putString(invoke.getComponent());
+            row.putString(invoke.getMethod());
+            row.putString(invoke.getFilePath());
+            row.putInt(invoke.getLineNumber());
+            row.putPairs(invoke.getParameterPairs());
+        }
+        
+        @Override
+        InvokeInfo create() {
+            return new InvokeInfo(null, null, null, 0, null);
+        }
+        
+        @Override
+        void read(ColumnarList<InvokeInfo>.Row row, InvokeInfo invoke) {
+            invoke.set(row.getString(), row.getString(), row.getString(), row.getInt(), row.getPairs());
+        }
+    };
+    
+    static final ColumnarList.Layout<IncludeInfo> INCLUDES = new ColumnarList.Layout<IncludeInfo>(3, 0) {
+        @Override
+        void write(IncludeInfo include, ColumnarList<IncludeInfo>.Row row) {
+            row.putString(include.getTemplate());
+            row.putString(include.getFilePath());
+            row.putInt(include.getLineNumber());
+        }
+        
+        @Override
+        IncludeInfo create() {
+            return new IncludeInfo(null, null, 0);
+        }
+        
+        @Override
+        void read(ColumnarList<IncludeInfo>.Row row, IncludeInfo include) {
+            include.set(row.getString(), row.getString(), row.getInt());
+        }
+    };
+    
+    static final ColumnarList.Layout<ModuleInfo> MODULES = new ColumnarList.Layout<ModuleInfo>(5, 0) {
+        @Override
+        void write(ModuleInfo module, ColumnarList<ModuleInfo>.Row row) {
+            row.putString(module.getTemplate());
+            row.putString(module.getFilePath());
+            row.putInt(module.getLineNumber());
+            row.putPairs(module.getAttributePairs());
+        }
+        
+        @Override
+        ModuleInfo create() {
+            return new ModuleInfo(null, null, 0, null);
+        }
+        
+        @Override
+        void read(ColumnarList<ModuleInfo>.Row row, ModuleInfo module) {
+            module.set(row.getString(), row.getString(), row.getInt(), row.getPairs());
+        }
+    };
+}
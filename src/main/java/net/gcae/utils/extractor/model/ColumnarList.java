@@ -0,0 +1,206 @@
+package net.gcae.utils.extractor.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Append-only list keeping records as columns of primitives instead of objects.
+ *
+ * A {@link Layout} splits each record into int and long values. Strings are stored as
+ * their id in a dictionary shared between the lists of a result, and name/value pairs
+ * as a range of ids in one extra column. A million records cost a few arrays instead of
+ * a million objects with their fields, headers and pointers.
+ *
+ * {@link #get} rebuilds the record on every access. A {@link Cursor} refills a single
+ * record in place instead, so reading all records through it allocates nothing per
+ * record. Appending is not thread-safe; reading is safe once appending has finished.
+ */
+public final class ColumnarList<T> extends AbstractList<T> implements RandomAccess {
+    private static final int INITIAL_CAPACITY = 64;
+    
+    /**
+     * Splits the records of one type into column values and rebuilds them; values are
+     * read back in the order they were written
+     */
+    abstract static class Layout<T> {
+        private final int intColumns;
+        private final int longColumns;
+        
+        Layout(int intColumns, int longColumns) {
+            this.intColumns = intColumns;
+            this.longColumns = longColumns;
+        }
+        
+        abstract void write(T record, ColumnarList<T>.Row row);
+        
+        /**
+         * Returns a record to be filled by {@link #read}
+         */
+        abstract T create();
+        
+        /**
+         * Replaces all values of the record with those of the row
+         */
+        abstract void read(ColumnarList<T>.Row row, T record);
+    }
+    
+    /**
+     * Values of one record, taken column by column
+     */
+    final class Row {
+        private int index;
+        private int intColumn;
+        private int longColumn;
+        // Pair arrays reused by length, or null when every record gets its own
+        private final String[][] pairBuffers;
+        
+        private Row(boolean reusePairs) {
+            this.pairBuffers = reusePairs ? new String[16][] : null;
+        }
+        
+        private Row at(int index) {
+            this.index = index;
+            intColumn = 0;
+            longColumn = 0;
+            return this;
+        }
+        
+        void putInt(int value) { ints[intColumn++][index] = value; }
+        
+        void putLong(long value) { longs[longColumn++][index] = value; }
+        
+        void putString(String value) { putInt(dictionary.idOf(value)); }
+        
+        /**
+         * Uses two int columns: the start and the length of the ids in the pair column
+         */
+        void putPairs(String[] pairs) {
+            if (pairCount + pairs.length > pairIds.length) {
+                pairIds = Arrays.copyOf(pairIds, Math.max(pairIds.length * 2, pairCount + pairs.length));
+            }
+            putInt(pairCount);
+            putInt(pairs.length);
+            for (String value : pairs) {
+                pairIds[pairCount++] = dictionary.idOf(value);
+            }
+        }
+        
+        int getInt() { return ints[intColumn++][index]; }
+        
+        long getLong() { return longs[longColumn++][index]; }
+        
+        String getString() { return dictionary.get(getInt()); }
+        
+        String[] getPairs() {
+            int start = getInt();
+            String[] pairs = pairArray(getInt());
+            for (int i = 0; i < pairs.length; i++) {
+                pairs[i] = dictionary.get(pairIds[start + i]);
+            }
+            return pairs;
+        }
+        
+        private String[] pairArray(int length) {
+            if (length == 0) return StringPool.NO_PAIRS;
+            if (pairBuffers == null || length >= pairBuffers.length) return new String[length];
+            String[] pairs = pairBuffers[length];
+            return pairs != null ? pairs : (pairBuffers[length] = new String[length]);
+        }
+    }
+    
+    /**
+     * Forward-only view over the records that refills one record in place. The record,
+     * and the pair array it holds, are only valid until the next call to {@link #next}
+     * and must not be kept; the strings read from it may be.
+     */
+    public final class Cursor {
+        private final Row row = new Row(true);
+        private final T record = layout.create();
+        private int index = -1;
+        
+        private Cursor() {
+        }
+        
+        /**
+         * Moves to the next record, returning false after the last one
+         */
+        public boolean next() {
+            if (index + 1 >= size) return false;
+            layout.read(row.at(++index), record);
+            return true;
+        }
+        
+        /**
+         * Returns the record the cursor is on
+         */
+        public T get() {
+            if (index < 0) {
+                throw new IllegalStateException("next() has not been called");
+            }
+            return record;
+        }
+    }
+    
+    private final Layout<T> layout;
+    private final StringDictionary dictionary;
+    private int[][] ints;
+    private long[][] longs;
+    private int[] pairIds = new int[0];
+    private int pairCount;
+    private int size;
+    
+    ColumnarList(Layout<T> layout, StringDictionary dictionary) {
+        this.layout = layout;
+        this.dictionary = dictionary;
+        this.ints = new int[layout.intColumns][INITIAL_CAPACITY];
+        this.longs = new long[layout.longColumns][INITIAL_CAPACITY];
+    }
+    
+    @Override
+    public boolean add(T record) {
+        if (size == capacity()) {
+            grow();
+        }
+        layout.write(record, new Row(false).at(size));
+        size++;
+        modCount++;
+        return true;
+    }
+    
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        T record = layout.create();
+        layout.read(new Row(false).at(index), record);
+        return record;
+    }
+    
+    /**
+     * Returns a cursor positioned before the first record
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    private int capacity() {
+        return ints.length > 0 ? ints[0].length : longs[0].length;
+    }
+    
+    private void grow() {
+        int capacity = capacity() + (capacity() >> 1);
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = Arrays.copyOf(ints[i], capacity);
+        }
+        for (int i = 0; i < longs.length; i++) {
+            longs[i] = Arrays.copyOf(longs[i], capacity);
+        }
+    }
+}
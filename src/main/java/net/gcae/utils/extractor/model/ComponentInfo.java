@@ -1,27 +1,48 @@
 package net.gcae.utils.extractor.model;
 
+import java.util.Set;
+
 /**
  * Information about a component
  */
 public class ComponentInfo {
     private String componentName;
     private String extends_;
-    private String fileLocation;
-    private String usedIn;
+    private String filePath;
+    private int lineNumber;
+    private final UsageList usedIn = new UsageList();
     
-    public ComponentInfo(String componentName, String extends_, String fileLocation, String usedIn) {
+    public ComponentInfo(String componentName, String extends_, String filePath, int lineNumber, String usedIn) {
         this.componentName = componentName;
         this.extends_ = extends_;
-        this.fileLocation = fileLocation;
-        this.usedIn = usedIn;
+        this.filePath = filePath;
+        this.lineNumber = lineNumber;
+        if (usedIn != null && !usedIn.isBlank()) {
+            addUsage(usedIn);
+        }
     }
     
     // Getters
     public String getComponentName() { return componentName; }
     public String getExtends() { return extends_; }
-    public String getFileLocation() { return fileLocation; }
-    public String getUsedIn() { return usedIn; }
+    public String getFilePath() { return filePath; }
+    public int getLineNumber() { return lineNumber; }
+    /** "path:line", formatted on each call */
+    public String getFileLocation() { return filePath + ":" + lineNumber; }
+    public String getUsedIn() { return usedIn.join(); }
+    /** Copy of the files using this component */
+    public Set<String> getUsages() { return usedIn.toSet(); }
+    
+    /**
+     * Records a file that uses this component; the report lists files in the order they were added.
+     * A file recorded again right after itself is ignored.
+     */
+    public void addUsage(String filePath) {
+        usedIn.add(filePath);
+    }
     
-    // Setter for usedIn to support usage tracking
-    public void setUsedIn(String usedIn) { this.usedIn = usedIn; }
+    /**
+     * Forgets all recorded usages, before they are found again
+     */
+    public void clearUsages() { usedIn.clear(); }
 }
@@ -0,0 +1,442 @@
+package net.gcae.utils.extractor.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Files linked by the templates they pull in with cfinclude and cfmodule, kept as
+ * int-indexed adjacency arrays.
+ *
+ * Node i is the file at {@link #getPath}(i). The targets of node i are
+ * targets[offsets[i]] to targets[offsets[i + 1] - 1], sorted and without duplicates;
+ * the sources pulling it in are kept the same way. Templates that do not resolve to an
+ * analyzed file are kept with the node that references them.
+ *
+ * Strongly connected components and the number of files every node reaches in both
+ * directions are computed when the graph is built: the components are condensed into
+ * a DAG, which is then walked once per block of target columns with a bitset per
+ * component, so memory stays bounded for any number of nodes. Immutable once built.
+ */
+public final class DependencyGraph {
+    // Longs of reach bitsets kept per block, 32 MB
+    private static final int BLOCK_LONGS = 1 << 22;
+
+    private final String[] paths;
+    private final Map<String, Integer> nodes;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] reverseOffsets;
+    private final int[] sources;
+    private final int[] unresolvedOffsets;
+    private final String[] unresolved;
+    // Component of each node, numbered so that edges between components go to lower numbers
+    private final int[] components;
+    private final int[] componentSizes;
+    private final boolean[] cyclic;
+    private final int[] transitiveIncludes;
+    private final int[] affectedFiles;
+
+    /**
+     * Collects the edges and unresolved templates of a graph over a fixed set of files.
+     * Not thread-safe.
+     */
+    public static final class Builder {
+        private final String[] paths;
+        private final Map<String, Integer> nodes;
+        private int[] edges = new int[64];
+        private int edgeCount;
+        private int[] unresolvedNodes = new int[16];
+        private String[] unresolvedTemplates = new String[16];
+        private int unresolvedCount;
+
+        /**
+         * @param paths path of every node, in node order
+         */
+        public Builder(List<String> paths) {
+            this.paths = paths.toArray(new String[0]);
+            this.nodes = new HashMap<>(this.paths.length * 2);
+            for (int i = 0; i < this.paths.length; i++) {
+                nodes.putIfAbsent(this.paths[i], i);
+            }
+        }
+
+        /**
+         * Returns the node of the path, or -1 when it is not in the graph
+         */
+        public int indexOf(String path) {
+            Integer node = nodes.get(path);
+            return node != null ? node : -1;
+        }
+
+        public Builder addEdge(int from, int to) {
+            if (2 * edgeCount + 2 > edges.length) {
+                edges = Arrays.copyOf(edges, edges.length * 2);
+            }
+            edges[2 * edgeCount] = from;
+            edges[2 * edgeCount + 1] = to;
+            edgeCount++;
+            return this;
+        }
+
+        public Builder addUnresolved(int from, String template) {
+            if (unresolvedCount == unresolvedNodes.length) {
+                unresolvedNodes = Arrays.copyOf(unresolvedNodes, unresolvedCount * 2);
+                unresolvedTemplates = Arrays.copyOf(unresolvedTemplates, unresolvedCount * 2);
+            }
+            unresolvedNodes[unresolvedCount] = from;
+            unresolvedTemplates[unresolvedCount] = template;
+            unresolvedCount++;
+            return this;
+        }
+
+        public DependencyGraph build() {
+            return new DependencyGraph(this);
+        }
+    }
+
+    private DependencyGraph(Builder builder) {
+        paths = builder.paths;
+        nodes = builder.nodes;
+        int n = paths.length;
+
+        int[] from = new int[builder.edgeCount];
+        int[] to = new int[builder.edgeCount];
+        for (int i = 0; i < builder.edgeCount; i++) {
+            from[i] = builder.edges[2 * i];
+            to[i] = builder.edges[2 * i + 1];
+        }
+        offsets = new int[n + 1];
+        targets = IntRows.toRows(n, from, to, offsets);
+        reverseOffsets = new int[n + 1];
+        sources = IntRows.toRows(n, to, from, reverseOffsets);
+
+        unresolvedOffsets = new int[n + 1];
+        unresolved = new String[builder.unresolvedCount];
+        for (int i = 0; i < builder.unresolvedCount; i++) {
+            unresolvedOffsets[builder.unresolvedNodes[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            unresolvedOffsets[i + 1] += unresolvedOffsets[i];
+        }
+        int[] fill = Arrays.copyOf(unresolvedOffsets, n);
+        for (int i = 0; i < builder.unresolvedCount; i++) {
+            unresolved[fill[builder.unresolvedNodes[i]]++] = builder.unresolvedTemplates[i];
+        }
+
+        components = new int[n];
+        int componentCount = findComponents();
+        componentSizes = new int[componentCount];
+        cyclic = new boolean[componentCount];
+        for (int node = 0; node < n; node++) {
+            componentSizes[components[node]]++;
+        }
+
+        // Condensed edges, forward and reverse
+        int[] componentFrom = new int[targets.length];
+        int[] componentTo = new int[targets.length];
+        int condensed = 0;
+        for (int node = 0; node < n; node++) {
+            for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                int source = components[node];
+                int target = components[targets[e]];
+                if (source == target) {
+                    cyclic[source] = true;
+                } else {
+                    componentFrom[condensed] = source;
+                    componentTo[condensed] = target;
+                    condensed++;
+                }
+            }
+        }
+        componentFrom = Arrays.copyOf(componentFrom, condensed);
+        componentTo = Arrays.copyOf(componentTo, condensed);
+        int[] componentOffsets = new int[componentCount + 1];
+        int[] componentTargets = IntRows.toRows(componentCount, componentFrom, componentTo, componentOffsets);
+        int[] componentReverseOffsets = new int[componentCount + 1];
+        int[] componentSources = IntRows.toRows(componentCount, componentTo, componentFrom, componentReverseOffsets);
+
+        // Targets have lower component numbers than their sources, so ascending order visits them first
+        transitiveIncludes = toNodes(reachCounts(componentOffsets, componentTargets, true));
+        affectedFiles = toNodes(reachCounts(componentReverseOffsets, componentSources, false));
+    }
+
+    /**
+     * Number of nodes
+     */
+    public int size() {
+        return paths.length;
+    }
+
+    public String getPath(int node) {
+        return paths[node];
+    }
+
+    /**
+     * Returns the node of the path, or -1 when it is not in the graph
+     */
+    public int indexOf(String path) {
+        Integer node = nodes.get(path);
+        return node != null ? node : -1;
+    }
+
+    /**
+     * Returns the number of resolved edges
+     */
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Returns the number of templates that did not resolve to a node
+     */
+    public int getUnresolvedCount() {
+        return unresolved.length;
+    }
+
+    /**
+     * Returns the nodes the node pulls in directly, in node order
+     */
+    public int[] getIncludes(int node) {
+        return Arrays.copyOfRange(targets, offsets[node], offsets[node + 1]);
+    }
+
+    /**
+     * Returns the nodes pulling the node in directly, in node order
+     */
+    public int[] getIncludedBy(int node) {
+        return Arrays.copyOfRange(sources, reverseOffsets[node], reverseOffsets[node + 1]);
+    }
+
+    /**
+     * Returns the templates of the node that did not resolve, in the order they were added
+     */
+    public List<String> getUnresolved(int node) {
+        int start = unresolvedOffsets[node];
+        int end = unresolvedOffsets[node + 1];
+        return start == end ? Collections.emptyList()
+            : Collections.unmodifiableList(Arrays.asList(unresolved).subList(start, end));
+    }
+
+    /**
+     * Returns every node the node pulls in, directly or through others; the node itself
+     * only when it is part of a cycle
+     */
+    public BitSet getTransitiveIncludes(int node) {
+        return reach(node, offsets, targets);
+    }
+
+    /**
+     * Returns every node pulling the node in, directly or through others, which is what
+     * has to be checked when the node changes; the node itself only when it is part of a cycle
+     */
+    public BitSet getAffectedFiles(int node) {
+        return reach(node, reverseOffsets, sources);
+    }
+
+    /**
+     * Returns the number of nodes {@link #getTransitiveIncludes} returns, without walking the graph
+     */
+    public int getTransitiveIncludeCount(int node) {
+        return transitiveIncludes[node];
+    }
+
+    /**
+     * Returns the number of nodes {@link #getAffectedFiles} returns, without walking the graph
+     */
+    public int getAffectedFileCount(int node) {
+        return affectedFiles[node];
+    }
+
+    /**
+     * Returns the strongly connected component of the node
+     */
+    public int getComponent(int node) {
+        return components[node];
+    }
+
+    /**
+     * Returns the number of nodes in the cycle the node is part of, or 0 when it is in none.
+     * A node pulling itself in is a cycle of one.
+     */
+    public int getCycleSize(int node) {
+        int component = components[node];
+        return cyclic[component] ? componentSizes[component] : 0;
+    }
+
+    /**
+     * Returns the nodes that have an edge or an unresolved template
+     */
+    public int[] getLinkedNodes() {
+        int[] linked = new int[paths.length];
+        int count = 0;
+        for (int node = 0; node < paths.length; node++) {
+            if (offsets[node] != offsets[node + 1] || reverseOffsets[node] != reverseOffsets[node + 1]
+                    || unresolvedOffsets[node] != unresolvedOffsets[node + 1]) {
+                linked[count++] = node;
+            }
+        }
+        return Arrays.copyOf(linked, count);
+    }
+
+    private static BitSet reach(int node, int[] rowOffsets, int[] rowTargets) {
+        BitSet reached = new BitSet(rowOffsets.length - 1);
+        // The node itself comes back once more when it is part of a cycle
+        int[] queue = new int[rowOffsets.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = node;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int e = rowOffsets[current]; e < rowOffsets[current + 1]; e++) {
+                int target = rowTargets[e];
+                if (!reached.get(target)) {
+                    reached.set(target);
+                    queue[tail++] = target;
+                }
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Numbers the strongly connected components with an iterative Tarjan's algorithm,
+     * so deep include chains cannot overflow the stack. Components are completed
+     * targets first, so every edge between components goes to a lower number.
+     *
+     * @return the number of components
+     */
+    private int findComponents() {
+        int n = paths.length;
+        int[] index = new int[n];
+        Arrays.fill(index, -1);
+        int[] low = new int[n];
+        int[] stack = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] path = new int[n];
+        int[] cursor = new int[n];
+        int stackSize = 0;
+        int nextIndex = 0;
+        int count = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) continue;
+            int depth = 0;
+            path[depth++] = root;
+            index[root] = low[root] = nextIndex++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            cursor[root] = offsets[root];
+
+            while (depth > 0) {
+                int node = path[depth - 1];
+                if (cursor[node] < offsets[node + 1]) {
+                    int target = targets[cursor[node]++];
+                    if (index[target] < 0) {
+                        index[target] = low[target] = nextIndex++;
+                        stack[stackSize++] = target;
+                        onStack[target] = true;
+                        cursor[target] = offsets[target];
+                        path[depth++] = target;
+                    } else if (onStack[target]) {
+                        low[node] = Math.min(low[node], index[target]);
+                    }
+                    continue;
+                }
+
+                depth--;
+                if (low[node] == index[node]) {
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        onStack[member] = false;
+                        components[member] = count;
+                    } while (member != node);
+                    count++;
+                }
+                if (depth > 0) {
+                    int parent = path[depth - 1];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts the nodes in the components every component reaches through the condensed edges.
+     *
+     * Only components that are the target of an edge can be reached, so those are the
+     * bitset columns. Each block of columns is one pass over the components in
+     * topological order, where a component's bits are the union of its targets' bits
+     * and the targets themselves.
+     *
+     * @param ascending whether the targets of an edge have lower numbers than its source
+     */
+    private int[] reachCounts(int[] rowOffsets, int[] rowTargets, boolean ascending) {
+        int count = componentSizes.length;
+        int[] column = new int[count];
+        Arrays.fill(column, -1);
+        int[] columnSizes = new int[count];
+        int columns = 0;
+        for (int target : rowTargets) {
+            if (column[target] < 0) {
+                columnSizes[columns] = componentSizes[target];
+                column[target] = columns++;
+            }
+        }
+
+        int[] counts = new int[count];
+        if (columns == 0) return counts;
+        int words = Math.max(1, Math.min((columns + 63) >>> 6, BLOCK_LONGS / Math.max(1, count)));
+        long[] reach = new long[count * words];
+        long[] cycles = new long[words];
+        for (int first = 0; first < columns; first += words << 6) {
+            Arrays.fill(reach, 0L);
+            Arrays.fill(cycles, 0L);
+            for (int bit = 0; bit < words << 6 && first + bit < columns; bit++) {
+                if (columnSizes[first + bit] > 1) cycles[bit >>> 6] |= 1L << bit;
+            }
+            for (int i = 0; i < count; i++) {
+                int component = ascending ? i : count - 1 - i;
+                int base = component * words;
+                for (int e = rowOffsets[component]; e < rowOffsets[component + 1]; e++) {
+                    int target = rowTargets[e];
+                    int targetBase = target * words;
+                    for (int w = 0; w < words; w++) {
+                        reach[base + w] |= reach[targetBase + w];
+                    }
+                    int bit = column[target] - first;
+                    if (bit >= 0 && bit < words << 6) {
+                        reach[base + (bit >>> 6)] |= 1L << bit;
+                    }
+                }
+                for (int w = 0; w < words; w++) {
+                    long bits = reach[base + w];
+                    counts[component] += Long.bitCount(bits);
+                    // Cycles count all of their members; they are rare enough to visit bit by bit
+                    for (bits &= cycles[w]; bits != 0; bits &= bits - 1) {
+                        counts[component] += columnSizes[first + (w << 6) + Long.numberOfTrailingZeros(bits)] - 1;
+                    }
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Turns per-component counts of reached nodes into per-node counts, adding the other
+     * members of a cycle and the node itself when it is part of one
+     */
+    private int[] toNodes(int[] componentCounts) {
+        int[] counts = new int[paths.length];
+        for (int node = 0; node < paths.length; node++) {
+            int component = components[node];
+            counts[node] = componentCounts[component] + (cyclic[component] ? componentSizes[component] : 0);
+        }
+        return counts;
+    }
+}
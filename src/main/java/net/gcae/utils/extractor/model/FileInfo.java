@@ -9,13 +9,22 @@ public class FileInfo {
     private String fileType;
     private long fileSize;
     private int lineCount;
+    private String encoding;
     
-    public FileInfo(String fileName, String filePath, String fileType, long fileSize, int lineCount) {
+    public FileInfo(String fileName, String filePath, String fileType, long fileSize, int lineCount, String encoding) {
+        set(fileName, filePath, fileType, fileSize, lineCount, encoding);
+    }
+    
+    /**
+     * Replaces all values, for a record reused by a {@link ColumnarList.Cursor}
+     */
+    void set(String fileName, String filePath, String fileType, long fileSize, int lineCount, String encoding) {
         this.fileName = fileName;
         this.filePath = filePath;
         this.fileType = fileType;
         this.fileSize = fileSize;
         this.lineCount = lineCount;
+        this.encoding = encoding;
     }
     
     // Getters
@@ -24,4 +33,5 @@ public class FileInfo {
     public String getFileType() { return fileType; }
     public long getFileSize() { return fileSize; }
     public int getLineCount() { return lineCount; }
+    public String getEncoding() { return encoding; }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package net.gcae.utils.extractor.model;
 
+import java.util.Set;
+
 /**
  * Information about a function
  */
@@ -7,27 +9,66 @@ public class FunctionInfo {
     private String functionName;
     private String returnType;
     private String access;
-    private String fileLocation;
-    private String parameters;
-    private String usedIn;
+    private String filePath;
+    private int lineNumber;
+    private int endLineNumber;
+    // Argument names and types, alternating
+    private String[] parameters;
+    private final UsageList usedIn = new UsageList();
+    
+    /**
+     * @param parameters argument names and types, alternating; kept as is, so it may be a shared pooled array
+     */
+    public FunctionInfo(String functionName, String returnType, String access, String filePath, int lineNumber,
+            String[] parameters, String usedIn) {
+        this(functionName, returnType, access, filePath, lineNumber, lineNumber, parameters, usedIn);
+    }
     
-    public FunctionInfo(String functionName, String returnType, String access, String fileLocation, String parameters, String usedIn) {
+    /**
+     * @param endLineNumber line of the closing cffunction tag
+     * @param parameters argument names and types, alternating; kept as is, so it may be a shared pooled array
+     */
+    public FunctionInfo(String functionName, String returnType, String access, String filePath, int lineNumber,
+            int endLineNumber, String[] parameters, String usedIn) {
         this.functionName = functionName;
         this.returnType = returnType;
         this.access = access;
-        this.fileLocation = fileLocation;
-        this.parameters = parameters;
-        this.usedIn = usedIn;
+        this.filePath = filePath;
+        this.lineNumber = lineNumber;
+        this.endLineNumber = endLineNumber;
+        this.parameters = Pairs.orEmpty(parameters);
+        if (usedIn != null && !usedIn.isBlank()) {
+            addUsage(usedIn);
+        }
     }
     
     // Getters
     public String getFunctionName() { return functionName; }
     public String getReturnType() { return returnType; }
     public String getAccess() { return access; }
-    public String getFileLocation() { return fileLocation; }
-    public String getParameters() { return parameters; }
-    public String getUsedIn() { return usedIn; }
+    public String getFilePath() { return filePath; }
+    public int getLineNumber() { return lineNumber; }
+    public int getEndLineNumber() { return endLineNumber; }
+    /** "path:line", formatted on each call */
+    public String getFileLocation() { return filePath + ":" + lineNumber; }
+    /** "name:type" pairs, formatted on each call */
+    public String getParameters() { return Pairs.format(parameters, ':'); }
+    public String getUsedIn() { return usedIn.join(); }
+    /** Copy of the files using this function */
+    public Set<String> getUsages() { return usedIn.toSet(); }
+    
+    String[] getParameterPairs() { return parameters; }
+    
+    /**
+     * Records a file that uses this function; the report lists files in the order they were added.
+     * A file recorded again right after itself is ignored.
+     */
+    public void addUsage(String filePath) {
+        usedIn.add(filePath);
+    }
     
-    // Setter for usedIn to support usage tracking
-    public void setUsedIn(String usedIn) { this.usedIn = usedIn; }
-}
\ No newline at end of file
+    /**
+     * Forgets all recorded usages, before they are found again
+     */
+    public void clearUsages() { usedIn.clear(); }
+}
@@ -5,14 +5,26 @@ package net.gcae.utils.extractor.model;
  */
 public class IncludeInfo {
     private String template;
-    private String fileLocation;
+    private String filePath;
+    private int lineNumber;
     
-    public IncludeInfo(String template, String fileLocation) {
+    public IncludeInfo(String template, String filePath, int lineNumber) {
+        set(template, filePath, lineNumber);
+    }
+    
+    /**
+     * Replaces all values, for a record reused by a {@link ColumnarList.Cursor}
+     */
+    void set(String template, String filePath, int lineNumber) {
         this.template = template;
-        this.fileLocation = fileLocation;
+        this.filePath = filePath;
+        this.lineNumber = lineNumber;
     }
     
     // Getters
     public String getTemplate() { return template; }
-    public String getFileLocation() { return fileLocation; }
-}
\ No newline at end of file
+    public String getFilePath() { return filePath; }
+    public int getLineNumber() { return lineNumber; }
+    /** "path:line", formatted on each call */
+    public String getFileLocation() { return filePath + ":" + lineNumber; }
+}
@@ -0,0 +1,49 @@
+package net.gcae.utils.extractor.model;
+
+import java.util.Arrays;
+
+/**
+ * Compressed rows of int links, as used by the graphs of a result
+ */
+final class IntRows {
+    private IntRows() {
+    }
+
+    /**
+     * Sorts links into rows by source, dropping duplicates
+     *
+     * @param n number of sources
+     * @param rowOffsets n + 1 entries, filled with the start of each row and the end of the last
+     * @return the targets, row by row, each row sorted
+     */
+    static int[] toRows(int n, int[] from, int[] to, int[] rowOffsets) {
+        for (int source : from) {
+            rowOffsets[source + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            rowOffsets[i + 1] += rowOffsets[i];
+        }
+        int[] rows = new int[from.length];
+        int[] fill = Arrays.copyOf(rowOffsets, n);
+        for (int i = 0; i < from.length; i++) {
+            rows[fill[from[i]]++] = to[i];
+        }
+
+        // Sort each row and compact it in place
+        int size = 0;
+        int start = 0;
+        for (int i = 0; i < n; i++) {
+            int end = rowOffsets[i + 1];
+            Arrays.sort(rows, start, end);
+            rowOffsets[i] = size;
+            for (int e = start; e < end; e++) {
+                if (e == start || rows[e] != rows[e - 1]) {
+                    rows[size++] = rows[e];
+                }
+            }
+            start = end;
+        }
+        rowOffsets[n] = size;
+        return size == rows.length ? rows : Arrays.copyOf(rows, size);
+    }
+}
@@ -6,19 +6,38 @@ package net.gcae.utils.extractor.model;
 public class InvokeInfo {
     private String component;
     private String method;
-    private String fileLocation;
-    private String parameters;
+    private String filePath;
+    private int lineNumber;
+    // Attribute names and values, alternating
+    private String[] parameters;
     
-    public InvokeInfo(String component, String method, String fileLocation, String parameters) {
+    /**
+     * @param parameters attribute names and values, alternating; kept as is, so it may be a shared pooled array
+     */
+    public InvokeInfo(String component, String method, String filePath, int lineNumber, String[] parameters) {
+        set(component, method, filePath, lineNumber, parameters);
+    }
+    
+    /**
+     * Replaces all values, for a record reused by a {@link ColumnarList.Cursor}
+     */
+    void set(String component, String method, String filePath, int lineNumber, String[] parameters) {
         this.component = component;
         this.method = method;
-        this.fileLocation = fileLocation;
-        this.parameters = parameters;
+        this.filePath = filePath;
+        this.lineNumber = lineNumber;
+        this.parameters = Pairs.orEmpty(parameters);
     }
     
     // Getters
     public String getComponent() { return component; }
     public String getMethod() { return method; }
-    public String getFileLocation() { return fileLocation; }
-    public String getParameters() { return parameters; }
-}
\ No newline at end of file
+    public String getFilePath() { return filePath; }
+    public int getLineNumber() { return lineNumber; }
+    /** "path:line", formatted on each call */
+    public String getFileLocation() { return filePath + ":" + lineNumber; }
+    /** "name=value" pairs, formatted on each call */
+    public String getParameters() { return Pairs.format(parameters, '='); }
+    
+    String[] getParameterPairs() { return parameters; }
+}
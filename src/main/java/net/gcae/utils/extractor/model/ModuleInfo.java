@@ -5,17 +5,36 @@ package net.gcae.utils.extractor.model;
  */
 public class ModuleInfo {
     private String template;
-    private String fileLocation;
-    private String attributes;
+    private String filePath;
+    private int lineNumber;
+    // Attribute names and values, alternating
+    private String[] attributes;
     
-    public ModuleInfo(String template, String fileLocation, String attributes) {
+    /**
+     * @param attributes attribute names and values, alternating; kept as is, so it may be a shared pooled array
+     */
+    public ModuleInfo(String template, String filePath, int lineNumber, String[] attributes) {
+        set(template, filePath, lineNumber, attributes);
+    }
+    
+    /**
+     * Replaces all values, for a record reused by a {@link ColumnarList.Cursor}
+     */
+    void set(String template, String filePath, int lineNumber, String[] attributes) {
         this.template = template;
-        this.fileLocation = fileLocation;
-        this.attributes = attributes;
+        this.filePath = filePath;
+        this.lineNumber = lineNumber;
+        this.attributes = Pairs.orEmpty(attributes);
     }
     
     // Getters
     public String getTemplate() { return template; }
-    public String getFileLocation() { return fileLocation; }
-    public String getAttributes() { return attributes; }
-}
\ No newline at end of file
+    public String getFilePath() { return filePath; }
+    public int getLineNumber() { return lineNumber; }
+    /** "path:line", formatted on each call */
+    public String getFileLocation() { return filePath + ":" + lineNumber; }
+    /** "name=value" pairs, formatted on each call */
+    public String getAttributes() { return Pairs.format(attributes, '='); }
+    
+    String[] getAttributePairs() { return attributes; }
+}
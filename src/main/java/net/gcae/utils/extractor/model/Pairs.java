@@ -0,0 +1,27 @@
+package net.gcae.utils.extractor.model;
+
+/**
+ * Formatting of name/value pairs stored flat in an array, as records keep their
+ * parameters and attributes
+ */
+final class Pairs {
+    private Pairs() {
+    }
+    
+    /**
+     * Formats the pairs as "name{separator}value" joined by ", "
+     */
+    static String format(String[] pairs, char separator) {
+        if (pairs.length == 0) return "";
+        StringBuilder formatted = new StringBuilder();
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (i > 0) formatted.append(", ");
+            formatted.append(pairs[i]).append(separator).append(pairs[i + 1]);
+        }
+        return formatted.toString();
+    }
+    
+    static String[] orEmpty(String[] pairs) {
+        return pairs != null ? pairs : StringPool.NO_PAIRS;
+    }
+}
@@ -6,25 +6,43 @@ package net.gcae.utils.extractor.model;
 public class QueryInfo {
     private String queryName;
     private String dbTable;
-    private String fileLocation;
+    private String filePath;
+    private int lineNumber;
     private String dataSource;
     private String sqlQuery;
     private String complexity;
+    private String fingerprint;
     
-    public QueryInfo(String queryName, String dbTable, String fileLocation, String dataSource, String sqlQuery, String complexity) {
+    public QueryInfo(String queryName, String dbTable, String filePath, int lineNumber, String dataSource, String sqlQuery,
+            String complexity, String fingerprint) {
+        set(queryName, dbTable, filePath, lineNumber, dataSource, sqlQuery, complexity, fingerprint);
+    }
+    
+    /**
+     * Replaces all values, for a record reused by a {@link ColumnarList.Cursor}
+     */
+    void set(String queryName, String dbTable, String filePath, int lineNumber, String dataSource, String sqlQuery,
+            String complexity, String fingerprint) {
         this.queryName = queryName;
         this.dbTable = dbTable;
-        this.fileLocation = fileLocation;
+        this.filePath = filePath;
+        this.lineNumber = lineNumber;
         this.dataSource = dataSource;
         this.sqlQuery = sqlQuery;
         this.complexity = complexity;
+        this.fingerprint = fingerprint;
     }
     
     // Getters
     public String getQueryName() { return queryName; }
     public String getDbTable() { return dbTable; }
-    public String getFileLocation() { return fileLocation; }
+    public String getFilePath() { return filePath; }
+    public int getLineNumber() { return lineNumber; }
+    /** "path:line", formatted on each call */
+    public String getFileLocation() { return filePath + ":" + lineNumber; }
     public String getDataSource() { return dataSource; }
     public String getSqlQuery() { return sqlQuery; }
     public String getComplexity() { return complexity; }
-}
\ No newline at end of file
+    /** Identifies queries that differ only in whitespace, comments and values */
+    public String getFingerprint() { return fingerprint; }
+}
@@ -0,0 +1,185 @@
+package net.gcae.utils.extractor.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary encoding of the model records for on-disk storage.
+ *
+ * Usage lists of functions and components are not encoded; they are derived by the
+ * usage pass and would be stale when the records are read back.
+ */
+public final class RecordCodec {
+    private RecordCodec() {
+    }
+
+    public static void writeFile(DataOutput out, FileInfo file) throws IOException {
+        writeString(out, file.getFileName());
+        writeString(out, file.getFilePath());
+        writeString(out, file.getFileType());
+        out.writeLong(file.getFileSize());
+        out.writeInt(file.getLineCount());
+        writeString(out, file.getEncoding());
+    }
+
+    public static FileInfo readFile(DataInput in, StringPool pool) throws IOException {
+        return new FileInfo(readString(in), readString(in, pool), readString(in, pool), in.readLong(), in.readInt(),
+            readString(in, pool));
+    }
+
+    public static void writeQuery(DataOutput out, QueryInfo query) throws IOException {
+        writeString(out, query.getQueryName());
+        writeString(out, query.getDbTable());
+        writeString(out, query.getFilePath());
+        out.writeInt(query.getLineNumber());
+        writeString(out, query.getDataSource());
+        writeString(out, query.getSqlQuery());
+        writeString(out, query.getComplexity());
+        writeString(out, query.getFingerprint());
+    }
+
+    public static QueryInfo readQuery(DataInput in, StringPool pool) throws IOException {
+        return new QueryInfo(readString(in, pool), readString(in, pool), readString(in, pool), in.readInt(),
+            readString(in, pool), readString(in), readString(in, pool), readString(in, pool));
+    }
+
+    public static void writeFunction(DataOutput out, FunctionInfo function) throws IOException {
+        writeString(out, function.getFunctionName());
+        writeString(out, function.getReturnType());
+        writeString(out, function.getAccess());
+        writeString(out, function.getFilePath());
+        out.writeInt(function.getLineNumber());
+        out.writeInt(function.getEndLineNumber());
+        writePairs(out, function.getParameterPairs());
+    }
+
+    public static FunctionInfo readFunction(DataInput in, StringPool pool) throws IOException {
+        return new FunctionInfo(readString(in, pool), readString(in, pool), readString(in, pool), readString(in, pool),
+            in.readInt(), in.readInt(), readPairs(in, pool), "");
+    }
+
+    public static void writeInvoke(DataOutput out, InvokeInfo invoke) throws IOException {
+        writeString(out, invoke.getComponent());
+        writeString(out, invoke.getMethod());
+        writeString(out, invoke.getFilePath());
+        out.writeInt(invoke.getLineNumber());
+        writePairs(out, invoke.getParameterPairs());
+    }
+
+    public static InvokeInfo readInvoke(DataInput in, StringPool pool) throws IOException {
+        return new InvokeInfo(readString(in, pool), readString(in, pool), readString(in, pool), in.readInt(),
+            readPairs(in, pool));
+    }
+
+    public static void writeComponent(DataOutput out, ComponentInfo component) throws IOException {
+        writeString(out, component.getComponentName());
+        writeString(out, component.getExtends());
+        writeString(out, component.getFilePath());
+        out.writeInt(component.getLineNumber());
+    }
+
+    public static ComponentInfo readComponent(DataInput in, StringPool pool) throws IOException {
+        return new ComponentInfo(readString(in), readString(in, pool), readString(in, pool), in.readInt(), "");
+    }
+
+    public static void writeInclude(DataOutput out, IncludeInfo include) throws IOException {
+        writeString(out, include.getTemplate());
+        writeString(out, include.getFilePath());
+        out.writeInt(include.getLineNumber());
+    }
+
+    public static IncludeInfo readInclude(DataInput in, StringPool pool) throws IOException {
+        return new IncludeInfo(readString(in, pool), readString(in, pool), in.readInt());
+    }
+
+    public static void writeModule(DataOutput out, ModuleInfo module) throws IOException {
+        writeString(out, module.getTemplate());
+        writeString(out, module.getFilePath());
+        out.writeInt(module.getLineNumber());
+        writePairs(out, module.getAttributePairs());
+    }
+
+    public static ModuleInfo readModule(DataInput in, StringPool pool) throws IOException {
+        return new ModuleInfo(readString(in, pool), readString(in, pool), in.readInt(), readPairs(in, pool));
+    }
+
+    /**
+     * Writes all records of a result, grouped by type
+     */
+    public static void writeResult(DataOutput out, AnalysisResult result) throws IOException {
+        out.writeInt(result.getFiles().size());
+        for (FileInfo file : result.getFiles()) writeFile(out, file);
+        out.writeInt(result.getQueries().size());
+        for (QueryInfo query : result.getQueries()) writeQuery(out, query);
+        out.writeInt(result.getFunctions().size());
+        for (FunctionInfo function : result.getFunctions()) writeFunction(out, function);
+        out.writeInt(result.getInvokes().size());
+        for (InvokeInfo invoke : result.getInvokes()) writeInvoke(out, invoke);
+        out.writeInt(result.getComponents().size());
+        for (ComponentInfo component : result.getComponents()) writeComponent(out, component);
+        out.writeInt(result.getIncludes().size());
+        for (IncludeInfo include : result.getIncludes()) writeInclude(out, include);
+        out.writeInt(result.getModules().size());
+        for (ModuleInfo module : result.getModules()) writeModule(out, module);
+    }
+
+    /**
+     * Reads the records of a result; paths and repeated values are taken from the pool
+     */
+    public static AnalysisResult readResult(DataInput in, StringPool pool) throws IOException {
+        AnalysisResult result = new AnalysisResult();
+        for (int i = in.readInt(); i > 0; i--) result.getFiles().add(readFile(in, pool));
+        for (int i = in.readInt(); i > 0; i--) result.getQueries().add(readQuery(in, pool));
+        for (int i = in.readInt(); i > 0; i--) result.getFunctions().add(readFunction(in, pool));
+        for (int i = in.readInt(); i > 0; i--) result.getInvokes().add(readInvoke(in, pool));
+        for (int i = in.readInt(); i > 0; i--) result.getComponents().add(readComponent(in, pool));
+        for (int i = in.readInt(); i > 0; i--) result.getIncludes().add(readInclude(in, pool));
+        for (int i = in.readInt(); i > 0; i--) result.getModules().add(readModule(in, pool));
+        return result;
+    }
+
+    private static void writePairs(DataOutput out, String[] pairs) throws IOException {
+        out.writeInt(pairs.length);
+        for (String value : pairs) {
+            writeString(out, value);
+        }
+    }
+
+    private static String[] readPairs(DataInput in, StringPool pool) throws IOException {
+        String[] pairs = new String[in.readInt()];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = readString(in);
+        }
+        return pool.intern(pairs);
+    }
+
+    /**
+     * Writes a string as length-prefixed UTF-8; unlike writeUTF this has no 64 KB limit
+     */
+    public static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a string and returns its canonical instance from the pool
+     */
+    public static String readString(DataInput in, StringPool pool) throws IOException {
+        return pool.intern(readString(in));
+    }
+}
@@ -0,0 +1,218 @@
+package net.gcae.utils.extractor.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractSequentialList;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Append-only list keeping at most a threshold of records in memory and moving them
+ * to a temporary file in batches whenever it is reached.
+ *
+ * Spilled records are encoded with {@link RecordCodec} and appended to the file, so
+ * iterating reads the file from the start and then the records still in memory, in the
+ * order they were added. The records can only be read in that order, through an
+ * iterator: {@link #get} is not supported, as every call would read the file up to the
+ * index. Failures to write or read the file are thrown as {@link UncheckedIOException}.
+ * Appending is not thread-safe. {@link #close} deletes the file.
+ */
+public final class SpillingList<T> extends AbstractSequentialList<T> implements Closeable {
+    // Strings read back are only needed while their row is written
+    private static final StringPool NO_POOL = new StringPool(0);
+    
+    interface Writer<T> {
+        void write(DataOutput out, T record) throws IOException;
+    }
+    
+    interface Reader<T> {
+        T read(DataInput in, StringPool pool) throws IOException;
+    }
+    
+    private final Writer<T> writer;
+    private final Reader<T> reader;
+    private final int threshold;
+    private final List<T> buffer = new ArrayList<>();
+    private final List<Closeable> openReaders = new ArrayList<>();
+    private Path file;
+    private DataOutputStream out;
+    private int spilled;
+    
+    /**
+     * @param threshold records kept in memory before they are spilled to a file in java.io.tmpdir
+     */
+    SpillingList(Writer<T> writer, Reader<T> reader, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Spill threshold must be at least 1: " + threshold);
+        }
+        this.writer = writer;
+        this.reader = reader;
+        this.threshold = threshold;
+    }
+    
+    @Override
+    public boolean add(T record) {
+        buffer.add(record);
+        modCount++;
+        if (buffer.size() >= threshold) {
+            spill();
+        }
+        return true;
+    }
+    
+    @Override
+    public int size() {
+        return spilled + buffer.size();
+    }
+    
+    /**
+     * Not supported; read the records in order through {@link #iterator} instead
+     */
+    @Override
+    public T get(int index) {
+        throw new UnsupportedOperationException("Spilled records can only be read in order through an iterator");
+    }
+    
+    /**
+     * Returns the number of records that were moved to the file
+     */
+    public int getSpilled() {
+        return spilled;
+    }
+    
+    @Override
+    public ListIterator<T> listIterator(int index) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size());
+        }
+        RecordIterator iterator = new RecordIterator();
+        for (int i = 0; i < index; i++) {
+            iterator.next();
+        }
+        return iterator;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        for (Closeable openReader : openReaders) {
+            openReader.close();
+        }
+        openReaders.clear();
+        buffer.clear();
+        spilled = 0;
+        modCount++;
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+        if (file != null) {
+            Files.deleteIfExists(file);
+            file = null;
+        }
+    }
+    
+    private void spill() {
+        try {
+            if (out == null) {
+                file = Files.createTempFile("cfextractor-", ".spill");
+                out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 65536));
+            }
+            for (T record : buffer) {
+                writer.write(out, record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot spill records to " + file, e);
+        }
+        spilled += buffer.size();
+        buffer.clear();
+    }
+    
+    /**
+     * Reads the spilled records from the file and then walks the buffer
+     */
+    private class RecordIterator implements ListIterator<T> {
+        private final int expectedModCount = modCount;
+        private DataInputStream in;
+        private int index;
+        
+        RecordIterator() {
+            if (spilled == 0) return;
+            try {
+                out.flush();
+                in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 65536));
+                openReaders.add(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read spilled records from " + file, e);
+            }
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return index < size();
+        }
+        
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (index >= spilled) {
+                return buffer.get(index++ - spilled);
+            }
+            try {
+                T record = reader.read(in, NO_POOL);
+                if (++index == spilled) {
+                    closeReader();
+                }
+                return record;
+            } catch (EOFException e) {
+                throw new UncheckedIOException("Spilled records in " + file + " are truncated", e);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read spilled records from " + file, e);
+            }
+        }
+        
+        private void closeReader() throws IOException {
+            openReaders.remove(in);
+            in.close();
+            in = null;
+        }
+        
+        @Override
+        public int nextIndex() { return index; }
+        
+        @Override
+        public boolean hasPrevious() { return index > 0; }
+        
+        @Override
+        public T previous() { throw new UnsupportedOperationException("Spilled records can only be read forward"); }
+        
+        @Override
+        public int previousIndex() { return index - 1; }
+        
+        @Override
+        public void remove() { throw new UnsupportedOperationException(); }
+        
+        @Override
+        public void set(T record) { throw new UnsupportedOperationException(); }
+        
+        @Override
+        public void add(T record) { throw new UnsupportedOperationException(); }
+    }
+}
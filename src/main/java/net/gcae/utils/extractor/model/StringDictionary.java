@@ -0,0 +1,68 @@
+package net.gcae.utils.extractor.model;
+
+import java.util.Arrays;
+
+/**
+ * Assigns dense int ids to strings, so columns can store a string as an int and equal
+ * strings are kept once.
+ *
+ * Lookup uses open addressing over an int table holding ids, without boxing or entry
+ * objects. Ids are never reused or removed. Not thread-safe.
+ */
+public final class StringDictionary {
+    /** Id of null */
+    public static final int NULL_ID = -1;
+    
+    private String[] values = new String[256];
+    private int size;
+    // Id + 1 of the string hashed to each slot, 0 for an empty slot
+    private int[] slots = new int[512];
+    
+    /**
+     * Returns the id of the value, adding it when it is new
+     */
+    public int idOf(String value) {
+        if (value == null) return NULL_ID;
+        int mask = slots.length - 1;
+        int slot = spread(value.hashCode()) & mask;
+        for (int entry; (entry = slots[slot]) != 0; slot = (slot + 1) & mask) {
+            if (values[entry - 1].equals(value)) return entry - 1;
+        }
+        
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size] = value;
+        slots[slot] = ++size;
+        if (2 * size > slots.length) {
+            rehash();
+        }
+        return size - 1;
+    }
+    
+    /**
+     * Returns the string with the id, or null for {@link #NULL_ID}
+     */
+    public String get(int id) {
+        return id == NULL_ID ? null : values[id];
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    private void rehash() {
+        int[] rehashed = new int[slots.length * 2];
+        int mask = rehashed.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = spread(values[id].hashCode()) & mask;
+            while (rehashed[slot] != 0) slot = (slot + 1) & mask;
+            rehashed[slot] = id + 1;
+        }
+        slots = rehashed;
+    }
+    
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,64 @@
+package net.gcae.utils.extractor.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical instances of values that repeat across records, such as file paths, data
+ * sources, types and attribute lists, so that each distinct value is kept only once.
+ *
+ * The pool is thread-safe. Once it holds its maximum number of entries new values are
+ * returned as they are, so a tree with mostly unique values cannot grow it without bound.
+ */
+public class StringPool {
+    public static final int DEFAULT_MAX_SIZE = 1 << 20;
+    
+    static final String[] NO_PAIRS = new String[0];
+    
+    private final int maxSize;
+    private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+    // Keyed by a list view of the canonical array itself
+    private final ConcurrentHashMap<List<String>, String[]> arrays = new ConcurrentHashMap<>();
+    
+    public StringPool() {
+        this(DEFAULT_MAX_SIZE);
+    }
+    
+    public StringPool(int maxSize) {
+        this.maxSize = maxSize;
+    }
+    
+    /**
+     * Returns the canonical instance equal to the value
+     */
+    public String intern(String value) {
+        if (value == null) return null;
+        String pooled = strings.get(value);
+        if (pooled != null) return pooled;
+        if (strings.size() >= maxSize) return value;
+        pooled = strings.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+    
+    /**
+     * Returns the canonical array with the same elements, interning the elements of a new one.
+     * Arrays returned by the pool are shared and must not be modified.
+     */
+    public String[] intern(String[] values) {
+        if (values.length == 0) return NO_PAIRS;
+        String[] pooled = arrays.get(Arrays.asList(values));
+        if (pooled != null) return pooled;
+        
+        for (int i = 0; i < values.length; i++) {
+            values[i] = intern(values[i]);
+        }
+        if (arrays.size() >= maxSize) return values;
+        pooled = arrays.putIfAbsent(Arrays.asList(values), values);
+        return pooled != null ? pooled : values;
+    }
+    
+    public int size() {
+        return strings.size() + arrays.size();
+    }
+}
@@ -0,0 +1,42 @@
+package net.gcae.utils.extractor.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Files using a declaration, in the order they were added, kept in a growable array
+ * of the shared path instances instead of a hash set.
+ *
+ * A file added again right after itself is ignored. The usage pass adds the usages of
+ * one file at a time and each name once per file, so every file is kept once.
+ */
+final class UsageList {
+    private static final String[] NONE = new String[0];
+    
+    private String[] files = NONE;
+    private int size;
+    
+    void add(String file) {
+        if (size > 0 && files[size - 1].equals(file)) return;
+        if (size == files.length) {
+            files = Arrays.copyOf(files, Math.max(4, size + (size >> 1)));
+        }
+        files[size++] = file;
+    }
+    
+    void clear() {
+        files = NONE;
+        size = 0;
+    }
+    
+    String join() {
+        return size == 0 ? "" : String.join(", ", Arrays.asList(files).subList(0, size));
+    }
+    
+    Set<String> toSet() {
+        return size == 0 ? Collections.emptySet()
+            : Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(files).subList(0, size)));
+    }
+}
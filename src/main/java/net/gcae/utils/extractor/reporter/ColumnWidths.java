@@ -0,0 +1,58 @@
+package net.gcae.utils.extractor.reporter;
+
+import org.apache.poi.ss.usermodel.Sheet;
+
+/**
+ * Estimates column widths from the longest line of text written to each column,
+ * as a cheap replacement for {@link Sheet#autoSizeColumn(int)}, which measures the
+ * rendered font width of every cell.
+ *
+ * In sampled mode every row up to the sample threshold is measured and after that
+ * only one row in {@code sampleEvery}.
+ */
+class ColumnWidths {
+    private static final int SAMPLE_THRESHOLD = 1000;
+    private static final int MAX_WIDTH = 255 * 256;
+    // Room for cell padding and the header's bold font
+    private static final int PADDING_CHARS = 2;
+
+    private final int[] maxChars;
+    private final int sampleEvery;
+    private boolean measuringRow = true;
+
+    ColumnWidths(int columns, int sampleEvery) {
+        this.maxChars = new int[columns];
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+
+    /**
+     * Decides whether the values of the row with the given number are measured
+     */
+    void startRow(int rowNum) {
+        measuringRow = rowNum <= SAMPLE_THRESHOLD || rowNum % sampleEvery == 0;
+    }
+
+    void track(int column, String value) {
+        if (!measuringRow || value == null || column >= maxChars.length) return;
+
+        int longest = 0;
+        int lineStart = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) == '\n') {
+                longest = Math.max(longest, i - lineStart);
+                lineStart = i + 1;
+            }
+        }
+        longest = Math.max(longest, length - lineStart);
+        if (longest > maxChars[column]) {
+            maxChars[column] = longest;
+        }
+    }
+
+    void apply(Sheet sheet) {
+        for (int i = 0; i < maxChars.length; i++) {
+            sheet.setColumnWidth(i, Math.min(MAX_WIDTH, (maxChars[i] + PADDING_CHARS) * 256));
+        }
+    }
+}
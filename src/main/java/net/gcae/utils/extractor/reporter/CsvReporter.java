@@ -0,0 +1,55 @@
+package net.gcae.utils.extractor.reporter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes one RFC 4180 CSV file per table, with a header row
+ */
+public class CsvReporter extends TableFileReporter {
+    
+    public CsvReporter() {
+        super(".csv");
+    }
+    
+    @Override
+    protected void writeHeader(Writer out, String[] headers) throws IOException {
+        writeRow(out, headers);
+    }
+    
+    @Override
+    protected void writeRow(Writer out, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) out.write(',');
+            if (values[i] != null) {
+                writeField(out, values[i].toString());
+            }
+        }
+        out.write("\r\n");
+    }
+    
+    private static void writeField(Writer out, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                // Write up to and including the quote, then double it
+                out.write(value, start, i + 1 - start);
+                out.write('"');
+                start = i + 1;
+            }
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+}
@@ -1,8 +1,12 @@
 package net.gcae.utils.extractor.reporter;
 
-import java.io.FileOutputStream;
+import java.io.File;
 import java.io.IOException;
-import java.util.List;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 
 import org.apache.poi.ss.usermodel.BorderStyle;
 import org.apache.poi.ss.usermodel.Cell;
@@ -14,337 +18,168 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.VerticalAlignment;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import net.gcae.utils.extractor.model.AnalysisResult;
-import net.gcae.utils.extractor.model.ComponentInfo;
-import net.gcae.utils.extractor.model.FileInfo;
-import net.gcae.utils.extractor.model.FunctionInfo;
-import net.gcae.utils.extractor.model.IncludeInfo;
-import net.gcae.utils.extractor.model.InvokeInfo;
-import net.gcae.utils.extractor.model.ModuleInfo;
-import net.gcae.utils.extractor.model.QueryInfo;
-
 /**
- * Generates Excel reports from analysis results
+ * Generates Excel reports from analysis results, one sheet per table
  */
-public class ExcelReporter {
+public class ExcelReporter extends TabularReporter {
     private static final Logger logger = LoggerFactory.getLogger(ExcelReporter.class);
     
+    public static final int DEFAULT_ROW_WINDOW = 100;
+    
+    private boolean streaming;
+    private int rowWindow = DEFAULT_ROW_WINDOW;
+    private int widthSampling = 1;
+    
+    private Path outputPath;
+    private Workbook workbook;
     private CellStyle headerStyle;
     private CellStyle dataStyle;
     
-    public void generateReport(AnalysisResult result, String outputPath) throws IOException {
-        logger.info("Generating Excel report: {}", outputPath);
-        
-        try (Workbook workbook = new XSSFWorkbook()) {
-            createStyles(workbook);
-            
-            // Create sheets only if data exists
-            if (!result.getFiles().isEmpty()) {
-                createFilesSheet(workbook, result.getFiles());
-            } else {
-                logger.info("No files found - skipping cfFilesReport sheet");
-            }
-            
-            if (!result.getQueries().isEmpty()) {
-                createQueriesSheet(workbook, result.getQueries());
-            } else {
-                logger.info("No queries found - skipping cfQueriesReport sheet");
-            }
-            
-            if (!result.getFunctions().isEmpty()) {
-                createFunctionsSheet(workbook, result.getFunctions());
-            } else {
-                logger.info("No functions found - skipping cfFunctionsReport sheet");
-            }
-            
-            if (!result.getInvokes().isEmpty()) {
-                createInvokesSheet(workbook, result.getInvokes());
-            } else {
-                logger.info("No invokes found - skipping cfInvokesReport sheet");
-            }
-            
-            if (!result.getComponents().isEmpty()) {
-                createComponentsSheet(workbook, result.getComponents());
-            } else {
-                logger.info("No components found - skipping cfComponentsReport sheet");
-            }
-            
-            if (!result.getIncludes().isEmpty()) {
-                createIncludesSheet(workbook, result.getIncludes());
-            } else {
-                logger.info("No includes found - skipping cfIncludesReport sheet");
-            }
-            
-            if (!result.getModules().isEmpty()) {
-                createModulesSheet(workbook, result.getModules());
-            } else {
-                logger.info("No modules found - skipping cfModulesReport sheet");
-            }
-            
-            // Save the workbook
-            try (FileOutputStream fileOut = new FileOutputStream(outputPath)) {
-                workbook.write(fileOut);
-            }
-            
-            logger.info("Excel report generated successfully with {} sheets", workbook.getNumberOfSheets());
-        }
+    // State of the sheet being written
+    private Sheet sheet;
+    private ColumnWidths columnWidths;
+    private int sqlColumn;
+    private int rowNum;
+    
+    public boolean isStreaming() { return streaming; }
+    
+    /**
+     * Enables the streaming mode, which keeps only the last rows of each sheet in memory
+     * and flushes older rows to compressed temporary files
+     */
+    public void setStreaming(boolean streaming) { this.streaming = streaming; }
+    
+    public int getRowWindow() { return rowWindow; }
+    
+    /**
+     * Sets how many rows per sheet stay in memory in streaming mode
+     */
+    public void setRowWindow(int rowWindow) {
+        if (rowWindow < 1) {
+            throw new IllegalArgumentException("Row window must be at least 1: " + rowWindow);
+        }
+        this.rowWindow = rowWindow;
     }
     
-    private void createStyles(Workbook workbook) {
-        // Header style
-        headerStyle = workbook.createCellStyle();
-        Font headerFont = workbook.createFont();
-        headerFont.setBold(true);
-        headerFont.setColor(IndexedColors.WHITE.getIndex());
-        headerStyle.setFont(headerFont);
-        headerStyle.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
-        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        headerStyle.setBorderTop(BorderStyle.THIN);
-        headerStyle.setBorderBottom(BorderStyle.THIN);
-        headerStyle.setBorderLeft(BorderStyle.THIN);
-        headerStyle.setBorderRight(BorderStyle.THIN);
-        
-        // Data style
-        dataStyle = workbook.createCellStyle();
-        dataStyle.setBorderTop(BorderStyle.THIN);
-        dataStyle.setBorderBottom(BorderStyle.THIN);
-        dataStyle.setBorderLeft(BorderStyle.THIN);
-        dataStyle.setBorderRight(BorderStyle.THIN);
-        dataStyle.setWrapText(true);
-        dataStyle.setVerticalAlignment(VerticalAlignment.TOP);
+    public int getWidthSampling() { return widthSampling; }
+    
+    /**
+     * Measures column widths on every row when 1, otherwise on the first rows of a sheet
+     * and then on every N-th row only
+     */
+    public void setWidthSampling(int widthSampling) {
+        if (widthSampling < 1) {
+            throw new IllegalArgumentException("Width sampling must be at least 1: " + widthSampling);
+        }
+        this.widthSampling = widthSampling;
     }
     
-    private void createFilesSheet(Workbook workbook, List<FileInfo> files) {
-        Sheet sheet = workbook.createSheet("cfFilesReport");
-        
-        // Create header
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {"File Name", "File Path", "File Type", "File Size (bytes)", "Line Count"};
-        
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
-        }
-        
-        // Create data rows
-        int rowNum = 1;
-        for (FileInfo file : files) {
-            Row row = sheet.createRow(rowNum++);
-            
-            createDataCell(row, 0, file.getFileName());
-            createDataCell(row, 1, file.getFilePath());
-            createDataCell(row, 2, file.getFileType());
-            createDataCell(row, 3, String.valueOf(file.getFileSize()));
-            createDataCell(row, 4, String.valueOf(file.getLineCount()));
-        }
-        
-        // Auto-size columns
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
+    @Override
+    protected void startReport(File outputDirectory, String baseName) {
+        outputPath = new File(outputDirectory, baseName + ".xlsx").toPath();
+        logger.info("Generating Excel report: {}", outputPath);
         
-        logger.info("Created cfFilesReport sheet with {} files", files.size());
+        workbook = createWorkbook();
+        createStyles(workbook);
     }
     
-    private void createQueriesSheet(Workbook workbook, List<QueryInfo> queries) {
-        Sheet sheet = workbook.createSheet("cfQueriesReport");
+    @Override
+    protected void startTable(String name, String[] headers) {
+        sheet = workbook.createSheet(name);
+        columnWidths = new ColumnWidths(headers.length, widthSampling);
+        sqlColumn = Arrays.asList(headers).indexOf("SQL Query");
         
         // Create header
         Row headerRow = sheet.createRow(0);
-        String[] headers = {"Query Name", "DB Table", "File:Line", "Data Source", "SQL Query", "Complexity"};
         
         for (int i = 0; i < headers.length; i++) {
             Cell cell = headerRow.createCell(i);
             cell.setCellValue(headers[i]);
             cell.setCellStyle(headerStyle);
+            columnWidths.track(i, headers[i]);
         }
-        
-        // Create data rows
-        int rowNum = 1;
-        for (QueryInfo query : queries) {
-            Row row = sheet.createRow(rowNum++);
-            
-            createDataCell(row, 0, query.getQueryName());
-            createDataCell(row, 1, query.getDbTable());
-            createDataCell(row, 2, query.getFileLocation());
-            createDataCell(row, 3, query.getDataSource());
-            createDataCell(row, 4, query.getSqlQuery());
-            createDataCell(row, 5, query.getComplexity());
-        }
-        
-        // Auto-size columns
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-            if (i == 4) { // SQL Query column
-                sheet.setColumnWidth(i, 15000); // Set wider width for SQL
-            }
-        }
-        
-        logger.info("Created cfQueriesReport sheet with {} queries", queries.size());
+        rowNum = 1;
     }
     
-    private void createFunctionsSheet(Workbook workbook, List<FunctionInfo> functions) {
-        Sheet sheet = workbook.createSheet("cfFunctionsReport");
-        
-        // Create header
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {"Function Name", "Return Type", "Access", "File:Line", "Parameters", "Used In"};
+    @Override
+    protected void writeRow(Object[] values) {
+        Row row = sheet.createRow(rowNum++);
+        columnWidths.startRow(row.getRowNum());
         
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
-        }
-        
-        // Create data rows
-        int rowNum = 1;
-        for (FunctionInfo function : functions) {
-            Row row = sheet.createRow(rowNum++);
-            
-            createDataCell(row, 0, function.getFunctionName());
-            createDataCell(row, 1, function.getReturnType());
-            createDataCell(row, 2, function.getAccess());
-            createDataCell(row, 3, function.getFileLocation());
-            createDataCell(row, 4, function.getParameters());
-            createDataCell(row, 5, function.getUsedIn());
+        for (int i = 0; i < values.length; i++) {
+            createDataCell(row, i, values[i] != null ? values[i].toString() : null);
         }
-        
-        // Auto-size columns
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
-        
-        logger.info("Created cfFunctionsReport sheet with {} functions", functions.size());
     }
     
-    private void createInvokesSheet(Workbook workbook, List<InvokeInfo> invokes) {
-        Sheet sheet = workbook.createSheet("cfInvokesReport");
-        
-        // Create header
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {"Component", "Method", "File:Line", "Parameters"};
-        
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
-        }
-        
-        // Create data rows
-        int rowNum = 1;
-        for (InvokeInfo invoke : invokes) {
-            Row row = sheet.createRow(rowNum++);
-            
-            createDataCell(row, 0, invoke.getComponent());
-            createDataCell(row, 1, invoke.getMethod());
-            createDataCell(row, 2, invoke.getFileLocation());
-            createDataCell(row, 3, invoke.getParameters());
-        }
-        
-        // Auto-size columns
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
+    @Override
+    protected void endTable() {
+        // Size columns from the tracked text lengths
+        columnWidths.apply(sheet);
+        if (sqlColumn >= 0) {
+            sheet.setColumnWidth(sqlColumn, 15000); // Set wider width for SQL
         }
-        
-        logger.info("Created cfInvokesReport sheet with {} invokes", invokes.size());
     }
     
-    private void createComponentsSheet(Workbook workbook, List<ComponentInfo> components) {
-        Sheet sheet = workbook.createSheet("cfComponentsReport");
-        
-        // Create header
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {"Component Name", "Extends", "File:Line", "Used In"};
-        
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
-        }
-        
-        // Create data rows
-        int rowNum = 1;
-        for (ComponentInfo component : components) {
-            Row row = sheet.createRow(rowNum++);
-            
-            createDataCell(row, 0, component.getComponentName());
-            createDataCell(row, 1, component.getExtends());
-            createDataCell(row, 2, component.getFileLocation());
-            createDataCell(row, 3, component.getUsedIn());
-        }
-        
-        // Auto-size columns
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
+    @Override
+    protected void endReport(boolean completed) throws IOException {
+        Path temporary = outputPath.resolveSibling(outputPath.getFileName() + ".tmp");
+        try {
+            if (completed) {
+                // Save the workbook under a temporary name so readers never see a partial file
+                try (OutputStream fileOut = Files.newOutputStream(temporary)) {
+                    workbook.write(fileOut);
+                }
+                Files.move(temporary, outputPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                
+                logger.info("Excel report generated successfully with {} sheets", workbook.getNumberOfSheets());
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+            if (workbook instanceof SXSSFWorkbook) {
+                // Delete the temporary files holding flushed rows
+                ((SXSSFWorkbook) workbook).dispose();
+            }
+            workbook.close();
+            workbook = null;
+            sheet = null;
         }
-        
-        logger.info("Created cfComponentsReport sheet with {} components", components.size());
     }
     
-    private void createIncludesSheet(Workbook workbook, List<IncludeInfo> includes) {
-        Sheet sheet = workbook.createSheet("cfIncludesReport");
-        
-        // Create header
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {"Template", "File:Line"};
-        
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
-        }
-        
-        // Create data rows
-        int rowNum = 1;
-        for (IncludeInfo include : includes) {
-            Row row = sheet.createRow(rowNum++);
-            
-            createDataCell(row, 0, include.getTemplate());
-            createDataCell(row, 1, include.getFileLocation());
+    private Workbook createWorkbook() {
+        if (streaming) {
+            logger.info("Using streaming workbook with a window of {} rows", rowWindow);
+            return new SXSSFWorkbook(null, rowWindow, true);
         }
-        
-        // Auto-size columns
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
-        
-        logger.info("Created cfIncludesReport sheet with {} includes", includes.size());
+        return new XSSFWorkbook();
     }
     
-    private void createModulesSheet(Workbook workbook, List<ModuleInfo> modules) {
-        Sheet sheet = workbook.createSheet("cfModulesReport");
-        
-        // Create header
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {"Template", "File:Line", "Attributes"};
-        
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
-        }
-        
-        // Create data rows
-        int rowNum = 1;
-        for (ModuleInfo module : modules) {
-            Row row = sheet.createRow(rowNum++);
-            
-            createDataCell(row, 0, module.getTemplate());
-            createDataCell(row, 1, module.getFileLocation());
-            createDataCell(row, 2, module.getAttributes());
-        }
-        
-        // Auto-size columns
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
+    private void createStyles(Workbook workbook) {
+        // Header style
+        headerStyle = workbook.createCellStyle();
+        Font headerFont = workbook.createFont();
+        headerFont.setBold(true);
+        headerFont.setColor(IndexedColors.WHITE.getIndex());
+        headerStyle.setFont(headerFont);
+        headerStyle.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
+        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        headerStyle.setBorderTop(BorderStyle.THIN);
+        headerStyle.setBorderBottom(BorderStyle.THIN);
+        headerStyle.setBorderLeft(BorderStyle.THIN);
+        headerStyle.setBorderRight(BorderStyle.THIN);
         
-        logger.info("Created cfModulesReport sheet with {} modules", modules.size());
+        // Data style
+        dataStyle = workbook.createCellStyle();
+        dataStyle.setBorderTop(BorderStyle.THIN);
+        dataStyle.setBorderBottom(BorderStyle.THIN);
+        dataStyle.setBorderLeft(BorderStyle.THIN);
+        dataStyle.setBorderRight(BorderStyle.THIN);
+        dataStyle.setWrapText(true);
+        dataStyle.setVerticalAlignment(VerticalAlignment.TOP);
     }
     
     private void createDataCell(Row row, int column, String value) {
@@ -358,5 +193,6 @@ public class ExcelReporter {
         
         cell.setCellValue(cellValue);
         cell.setCellStyle(dataStyle);
+        columnWidths.track(column, cellValue);
     }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package net.gcae.utils.extractor.reporter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes one JSON Lines file per table: one JSON object per row, keyed by the column
+ * headers in camel case, for example {@code "DB Table"} becomes {@code "dbTable"}
+ */
+public class JsonLinesReporter extends TableFileReporter {
+    private String[] keys;
+    
+    public JsonLinesReporter() {
+        super(".jsonl");
+    }
+    
+    @Override
+    protected void writeHeader(Writer out, String[] headers) {
+        keys = new String[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            keys[i] = toKey(headers[i]);
+        }
+    }
+    
+    @Override
+    protected void writeRow(Writer out, Object[] values) throws IOException {
+        out.write('{');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) out.write(',');
+            JsonStrings.write(out, keys[i]);
+            out.write(':');
+            Object value = values[i];
+            if (value == null) {
+                out.write("null");
+            } else if (value instanceof Number) {
+                out.write(value.toString());
+            } else {
+                JsonStrings.write(out, value.toString());
+            }
+        }
+        out.write("}\n");
+    }
+    
+    /**
+     * Turns a column header into a camel case key: the first word lower case, the others
+     * capitalized, everything but letters and digits dropped
+     */
+    static String toKey(String header) {
+        StringBuilder key = new StringBuilder(header.length());
+        boolean wordStart = true;
+        for (int i = 0; i < header.length(); i++) {
+            char c = header.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                wordStart = true;
+                continue;
+            }
+            key.append(wordStart && key.length() > 0 ? Character.toUpperCase(c) : Character.toLowerCase(c));
+            wordStart = false;
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,39 @@
+package net.gcae.utils.extractor.reporter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Escaping of JSON string values, shared by the JSON Lines report and the metrics document
+ */
+public final class JsonStrings {
+    private JsonStrings() {
+    }
+
+    /**
+     * Writes the value as a quoted JSON string, copying runs of characters that need no escape at once
+     */
+    public static void write(Writer out, String value) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') continue;
+            
+            out.write(value, start, i - start);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    out.write(String.format("\\u%04x", (int) c));
+                    break;
+            }
+            start = i + 1;
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+}
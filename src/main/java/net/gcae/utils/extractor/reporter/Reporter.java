@@ -0,0 +1,16 @@
+package net.gcae.utils.extractor.reporter;
+
+import java.io.File;
+import java.io.IOException;
+
+import net.gcae.utils.extractor.model.AnalysisResult;
+
+/**
+ * Writes analysis results in one output format
+ */
+public interface Reporter {
+    /**
+     * Writes the report into the output directory, naming its file or files after the base name
+     */
+    void generateReport(AnalysisResult result, File outputDirectory, String baseName) throws IOException;
+}
@@ -0,0 +1,88 @@
+package net.gcae.utils.extractor.reporter;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes each table to its own UTF-8 text file named {@code <baseName>_<table><extension>}.
+ *
+ * Rows go straight to a buffered writer, so memory use does not depend on the number
+ * of rows. Each file is written under a temporary name and moved into place once the
+ * table is complete. The file of a table without rows is deleted, so a report written
+ * again under the same name, as in watch mode, keeps no stale tables.
+ */
+abstract class TableFileReporter extends TabularReporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private final String extension;
+    private File outputDirectory;
+    private String baseName;
+    
+    private Path target;
+    private Path temporary;
+    private Writer writer;
+    
+    TableFileReporter(String extension) {
+        this.extension = extension;
+    }
+    
+    @Override
+    protected void startReport(File outputDirectory, String baseName) {
+        this.outputDirectory = outputDirectory;
+        this.baseName = baseName;
+    }
+    
+    @Override
+    protected void startTable(String name, String[] headers) throws IOException {
+        target = tablePath(name);
+        temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(temporary), StandardCharsets.UTF_8), BUFFER_SIZE);
+        writeHeader(writer, headers);
+    }
+    
+    @Override
+    protected void skipTable(String name) throws IOException {
+        Files.deleteIfExists(tablePath(name));
+    }
+    
+    @Override
+    protected void writeRow(Object[] values) throws IOException {
+        writeRow(writer, values);
+    }
+    
+    @Override
+    protected void endTable() throws IOException {
+        writer.close();
+        writer = null;
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        temporary = null;
+    }
+    
+    @Override
+    protected void endReport(boolean completed) throws IOException {
+        // Only left over when a table failed half way
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+        if (temporary != null) {
+            Files.deleteIfExists(temporary);
+            temporary = null;
+        }
+    }
+    
+    private Path tablePath(String name) {
+        return new File(outputDirectory, baseName + "_" + name + extension).toPath();
+    }
+    
+    protected abstract void writeHeader(Writer out, String[] headers) throws IOException;
+    
+    protected abstract void writeRow(Writer out, Object[] values) throws IOException;
+}
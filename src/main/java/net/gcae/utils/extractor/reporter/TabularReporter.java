@@ -0,0 +1,279 @@
+package net.gcae.utils.extractor.reporter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.gcae.utils.extractor.metrics.SheetWriteEvent;
+import net.gcae.utils.extractor.model.AnalysisResult;
+import net.gcae.utils.extractor.model.CallGraph;
+import net.gcae.utils.extractor.model.ColumnarList;
+import net.gcae.utils.extractor.model.ComponentInfo;
+import net.gcae.utils.extractor.model.DependencyGraph;
+import net.gcae.utils.extractor.model.FileInfo;
+import net.gcae.utils.extractor.model.FunctionInfo;
+import net.gcae.utils.extractor.model.IncludeInfo;
+import net.gcae.utils.extractor.model.InvokeInfo;
+import net.gcae.utils.extractor.model.ModuleInfo;
+import net.gcae.utils.extractor.model.QueryInfo;
+
+/**
+ * Lays out the analysis results as one table per element type and hands the tables
+ * to the output format row by row, so each format decides only how a table is written.
+ *
+ * Tables without rows are skipped. Row values are strings, except numbers which are
+ * passed as {@link Number} so formats that have a number type can keep it.
+ */
+public abstract class TabularReporter implements Reporter {
+    private static final Logger logger = LoggerFactory.getLogger(TabularReporter.class);
+    
+    private boolean groupQueries = false;
+    
+    /**
+     * Queries sharing a fingerprint, in order of first occurrence
+     */
+    private static class QueryGroup {
+        private final QueryInfo first;
+        private final List<String> locations = new ArrayList<>();
+        
+        QueryGroup(QueryInfo first) {
+            this.first = first;
+        }
+    }
+    
+    public boolean isGroupQueries() { return groupQueries; }
+    
+    /**
+     * Adds a table with one row per distinct query fingerprint and its occurrences
+     */
+    public void setGroupQueries(boolean groupQueries) { this.groupQueries = groupQueries; }
+    
+    @Override
+    public void generateReport(AnalysisResult result, File outputDirectory, String baseName) throws IOException {
+        startReport(outputDirectory, baseName);
+        boolean completed = false;
+        try {
+            writeTables(result);
+            completed = true;
+        } finally {
+            endReport(completed);
+        }
+    }
+    
+    protected void writeTables(AnalysisResult result) throws IOException {
+        writeTable("cfFilesReport", "files", result.getFiles(),
+            new String[] {"File Name", "File Path", "File Type", "File Size (bytes)", "Line Count", "Encoding"},
+            (FileInfo file) -> new Object[] {
+                file.getFileName(), file.getFilePath(), file.getFileType(),
+                file.getFileSize(), file.getLineCount(), file.getEncoding()});
+        
+        writeTable("cfQueriesReport", "queries", result.getQueries(),
+            new String[] {"Query Name", "DB Table", "File:Line", "Data Source", "SQL Query", "Complexity", "Fingerprint"},
+            (QueryInfo query) -> new Object[] {
+                query.getQueryName(), query.getDbTable(), query.getFileLocation(),
+                query.getDataSource(), query.getSqlQuery(), query.getComplexity(), query.getFingerprint()});
+        
+        if (groupQueries) {
+            writeTable("cfQueryGroupsReport", "distinct queries", groupQueries(result.getQueries()),
+                new String[] {"Fingerprint", "Occurrences", "DB Table", "Complexity", "SQL Query", "Locations"},
+                (QueryGroup group) -> new Object[] {
+                    group.first.getFingerprint(), group.locations.size(), group.first.getDbTable(),
+                    group.first.getComplexity(), group.first.getSqlQuery(), String.join(", ", group.locations)});
+        }
+        
+        writeTable("cfFunctionsReport", "functions", result.getFunctions(),
+            new String[] {"Function Name", "Return Type", "Access", "File:Line", "Parameters", "Used In"},
+            (FunctionInfo function) -> new Object[] {
+                function.getFunctionName(), function.getReturnType(), function.getAccess(),
+                function.getFileLocation(), function.getParameters(), function.getUsedIn()});
+        
+        writeTable("cfInvokesReport", "invokes", result.getInvokes(),
+            new String[] {"Component", "Method", "File:Line", "Parameters"},
+            (InvokeInfo invoke) -> new Object[] {
+                invoke.getComponent(), invoke.getMethod(), invoke.getFileLocation(), invoke.getParameters()});
+        
+        writeTable("cfComponentsReport", "components", result.getComponents(),
+            new String[] {"Component Name", "Extends", "File:Line", "Used In"},
+            (ComponentInfo component) -> new Object[] {
+                component.getComponentName(), component.getExtends(), component.getFileLocation(), component.getUsedIn()});
+        
+        writeTable("cfIncludesReport", "includes", result.getIncludes(),
+            new String[] {"Template", "File:Line"},
+            (IncludeInfo include) -> new Object[] {include.getTemplate(), include.getFileLocation()});
+        
+        writeTable("cfModulesReport", "modules", result.getModules(),
+            new String[] {"Template", "File:Line", "Attributes"},
+            (ModuleInfo module) -> new Object[] {module.getTemplate(), module.getFileLocation(), module.getAttributes()});
+        
+        DependencyGraph graph = result.getDependencies();
+        if (graph != null) {
+            int[] linked = graph.getLinkedNodes();
+            writeTable("cfDependenciesReport", "files with dependencies", linked.length,
+                new String[] {"File Path", "Includes", "Transitive Includes", "Included By", "Affected Files",
+                    "Cycle Size", "Unresolved Templates"},
+                index -> {
+                    int node = linked[index];
+                    return new Object[] {
+                        graph.getPath(node), formatPaths(graph, graph.getIncludes(node)),
+                        graph.getTransitiveIncludeCount(node), graph.getIncludedBy(node).length,
+                        graph.getAffectedFileCount(node), graph.getCycleSize(node),
+                        String.join(", ", graph.getUnresolved(node))};
+                });
+        }
+        
+        CallGraph calls = result.getCallGraph();
+        if (calls != null) {
+            List<ComponentInfo> components = result.getComponents();
+            List<FunctionInfo> functions = result.getFunctions();
+            writeTable("cfInheritanceReport", "components", components.size(),
+                new String[] {"Component Name", "File:Line", "Extends", "Extends Chain", "Depth", "Subcomponents"},
+                component -> new Object[] {
+                    components.get(component).getComponentName(), components.get(component).getFileLocation(),
+                    components.get(component).getExtends(), formatChain(calls, components, component),
+                    calls.getDepth(component), calls.getSubcomponentCount(component)});
+            
+            writeTable("cfCallGraphReport", "functions", functions.size(),
+                new String[] {"Function Name", "Component", "File:Line", "Call Sites", "Fan-In", "Fan-Out", "Calls"},
+                function -> {
+                    int component = calls.getComponent(function);
+                    return new Object[] {
+                        functions.get(function).getFunctionName(),
+                        component >= 0 ? components.get(component).getComponentName() : null,
+                        functions.get(function).getFileLocation(), calls.getCallSiteCount(function),
+                        calls.getFanIn(function), calls.getFanOut(function),
+                        formatCallees(calls, components, functions, function)};
+                });
+        }
+    }
+    
+    /**
+     * Files of the components above the component, nearest first
+     */
+    private static String formatChain(CallGraph graph, List<ComponentInfo> components, int component) {
+        StringBuilder chain = new StringBuilder();
+        for (int parent = graph.getParent(component); parent >= 0; parent = graph.getParent(parent)) {
+            if (chain.length() > 0) chain.append(" > ");
+            chain.append(components.get(parent).getFilePath());
+        }
+        return chain.toString();
+    }
+    
+    /**
+     * "Component.function" of every function the function calls
+     */
+    private static String formatCallees(CallGraph graph, List<ComponentInfo> components,
+            List<FunctionInfo> functions, int function) {
+        StringBuilder callees = new StringBuilder();
+        for (int callee : graph.getCallees(function)) {
+            if (callees.length() > 0) callees.append(", ");
+            int component = graph.getComponent(callee);
+            if (component >= 0) callees.append(components.get(component).getComponentName()).append('.');
+            callees.append(functions.get(callee).getFunctionName());
+        }
+        return callees.toString();
+    }
+    
+    private static String formatPaths(DependencyGraph graph, int[] nodes) {
+        StringBuilder paths = new StringBuilder();
+        for (int node : nodes) {
+            if (paths.length() > 0) paths.append(", ");
+            paths.append(graph.getPath(node));
+        }
+        return paths.toString();
+    }
+    
+    /**
+     * Writes one table, or nothing when there are no records
+     *
+     * @param description plural name of the records, for logging
+     */
+    protected <T> void writeTable(String name, String description, List<T> records, String[] headers,
+            Function<T, Object[]> values) throws IOException {
+        // Rows are written in index order, so the records are read once from the start
+        if (records instanceof ColumnarList) {
+            // Through one record refilled for every row; the values are taken before the next
+            ColumnarList<T>.Cursor cursor = ((ColumnarList<T>) records).cursor();
+            writeTable(name, description, records.size(), headers, index -> {
+                cursor.next();
+                return values.apply(cursor.get());
+            });
+            return;
+        }
+        Iterator<T> iterator = records.iterator();
+        writeTable(name, description, records.size(), headers, index -> values.apply(iterator.next()));
+    }
+    
+    /**
+     * Writes one table with a row for every index from 0 to count - 1, in order, or
+     * nothing when the count is 0
+     *
+     * @param description plural name of the records, for logging
+     */
+    protected void writeTable(String name, String description, int count, String[] headers,
+            IntFunction<Object[]> values) throws IOException {
+        if (count == 0) {
+            logger.info("No {} found - skipping {}", description, name);
+            skipTable(name);
+            return;
+        }
+        
+        SheetWriteEvent event = new SheetWriteEvent();
+        event.begin();
+        startTable(name, headers);
+        for (int index = 0; index < count; index++) {
+            writeRow(values.apply(index));
+        }
+        endTable();
+        event.finish(name, getClass().getSimpleName(), count);
+        
+        logger.info("Created {} with {} {}", name, count, description);
+    }
+    
+    /**
+     * Groups queries by fingerprint, the most repeated first
+     */
+    private static List<QueryGroup> groupQueries(List<QueryInfo> queries) {
+        Map<String, QueryGroup> groups = new LinkedHashMap<>();
+        for (QueryInfo query : queries) {
+            groups.computeIfAbsent(query.getFingerprint(), fingerprint -> new QueryGroup(query))
+                .locations.add(query.getFileLocation());
+        }
+        List<QueryGroup> sorted = new ArrayList<>(groups.values());
+        // The sort is stable, so groups with the same count stay in order of first occurrence
+        sorted.sort(Comparator.comparingInt((QueryGroup group) -> group.locations.size()).reversed());
+        return sorted;
+    }
+    
+    protected abstract void startReport(File outputDirectory, String baseName) throws IOException;
+    
+    protected abstract void startTable(String name, String[] headers) throws IOException;
+    
+    /**
+     * Called instead of {@link #startTable} for a table without rows, so a format that
+     * writes tables to separate files can remove one left by an earlier report
+     */
+    protected void skipTable(String name) throws IOException {
+    }
+    
+    /**
+     * @param values one value per header; null for a missing value
+     */
+    protected abstract void writeRow(Object[] values) throws IOException;
+    
+    protected abstract void endTable() throws IOException;
+    
+    /**
+     * @param completed false when writing failed and partial output should be discarded
+     */
+    protected abstract void endReport(boolean completed) throws IOException;
+}
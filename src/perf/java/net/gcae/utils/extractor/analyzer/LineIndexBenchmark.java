@@ -0,0 +1,66 @@
+package net.gcae.utils.extractor.analyzer;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building the newline index of a file and resolving tag positions to line numbers
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LineIndexBenchmark {
+    private static final int LOOKUPS = 1000;
+
+    @Param({"100", "10000"})
+    public int lines;
+
+    private String content;
+    private LineIndex index;
+    private int[] positions;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            builder.append("  <cfset value").append(i).append(" = compute(").append(i).append(")>\n");
+        }
+        content = builder.toString();
+        index = new LineIndex(content);
+
+        Random random = new Random(42);
+        positions = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            positions[i] = random.nextInt(content.length());
+        }
+    }
+
+    @Benchmark
+    public LineIndex build() {
+        return new LineIndex(content);
+    }
+
+    @Benchmark
+    public int lookup() {
+        int sum = 0;
+        for (int position : positions) {
+            sum += index.lineOf(position);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,62 @@
+package net.gcae.utils.extractor.analyzer;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading and decoding a source file. Latin-1 content with accents is not valid UTF-8,
+ * so it takes the fallback path; the larger size is memory-mapped.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SourceReaderBenchmark {
+    @Param({"UTF-8", "ISO-8859-1"})
+    public String encoding;
+
+    @Param({"16384", "4194304"})
+    public int size;
+
+    private final SourceReader reader = new SourceReader();
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        String line = "<cfset message = \"Déjà vu, café crème, naïve façade\">\n";
+        StringBuilder builder = new StringBuilder(size + line.length());
+        while (builder.length() < size) {
+            builder.append(line);
+        }
+        file = Files.createTempFile("source-reader", ".cfm");
+        Files.write(file, builder.toString().getBytes(Charset.forName(encoding)));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public SourceReader.Source read() throws IOException {
+        return reader.read(file);
+    }
+}
@@ -0,0 +1,68 @@
+package net.gcae.utils.extractor.analyzer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Table extraction and complexity scoring of query bodies, for a statement seen for
+ * the first time and for one whose profile is memoized
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SqlAnalyzerBenchmark {
+    @Param({"simple", "joins", "nested"})
+    public String query;
+
+    private final SqlAnalyzer memoized = new SqlAnalyzer();
+    private String sql;
+
+    @Setup
+    public void setUp() {
+        switch (query) {
+            case "simple":
+                sql = "SELECT id, name FROM users WHERE id = <cfqueryparam value=\"#arguments.id#\" cfsqltype=\"cf_sql_integer\">";
+                break;
+            case "joins":
+                sql = "SELECT o.id, c.name, p.title\n  FROM orders o\n  INNER JOIN customers c ON c.id = o.customer_id\n"
+                    + "  LEFT JOIN products p ON p.id = o.product_id\n  WHERE o.status = 'open' AND c.active = 1\n"
+                    + "  <cfif len(arguments.region)>AND c.region = <cfqueryparam value=\"#arguments.region#\"></cfif>\n"
+                    + "  ORDER BY o.created DESC";
+                break;
+            default:
+                sql = "SELECT a.id FROM accounts a\n  WHERE a.id IN (SELECT b.account_id FROM balances b\n"
+                    + "    WHERE b.total > (SELECT AVG(total) FROM balances WHERE year = #year#))\n"
+                    + "  OR EXISTS (SELECT 1 FROM flags f WHERE f.account_id = a.id)\n  GROUP BY a.id HAVING COUNT(*) > 1";
+        }
+        memoized.analyze(sql);
+    }
+
+    @Benchmark
+    public SqlAnalyzer.Profile analyzeFirst() {
+        return new SqlAnalyzer().analyze(sql);
+    }
+
+    @Benchmark
+    public SqlAnalyzer.Profile analyzeMemoized() {
+        return memoized.analyze(sql);
+    }
+
+    @Benchmark
+    public long fingerprint() {
+        return SqlAnalyzer.fingerprint(sql);
+    }
+}
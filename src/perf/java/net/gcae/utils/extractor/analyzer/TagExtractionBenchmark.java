@@ -0,0 +1,75 @@
+package net.gcae.utils.extractor.analyzer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.gcae.utils.extractor.model.AnalysisResult;
+
+/**
+ * Extraction of one file's records, per tag type, from content holding 200 tags of
+ * that type between plain markup
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TagExtractionBenchmark {
+    private static final int TAGS = 200;
+
+    @Param({"cfquery", "cffunction", "cfinvoke", "cfcomponent", "cfinclude", "cfmodule"})
+    public String tag;
+
+    private final FileAnalyzer analyzer = new FileAnalyzer();
+    private String content;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < TAGS; i++) {
+            builder.append("<div class=\"row\">\n  <p>Some markup around the tags, line ").append(i).append("</p>\n</div>\n");
+            builder.append(tag(i)).append('\n');
+        }
+        content = builder.toString();
+    }
+
+    private String tag(int i) {
+        switch (tag) {
+            case "cfquery":
+                return "<cfquery name=\"q" + i + "\" datasource=\"main\">\n  SELECT o.id, c.name FROM orders o\n"
+                    + "  INNER JOIN customers c ON c.id = o.customer_id\n"
+                    + "  WHERE o.id = <cfqueryparam value=\"#arguments.id#\" cfsqltype=\"cf_sql_integer\">\n</cfquery>";
+            case "cffunction":
+                return "<cffunction name=\"get" + i + "\" returntype=\"query\" access=\"public\">\n"
+                    + "  <cfargument name=\"id\" type=\"numeric\">\n  <cfargument name=\"name\" type=\"string\">\n"
+                    + "  <cfreturn id>\n</cffunction>";
+            case "cfinvoke":
+                return "<cfinvoke component=\"com.app.Service" + i + "\" method=\"run\" returnvariable=\"r\" id=\"#id#\">";
+            case "cfcomponent":
+                return "<cfcomponent extends=\"com.app.Base\" output=\"false\"></cfcomponent>";
+            case "cfinclude":
+                return "<cfinclude template=\"includes/part" + i + ".cfm\">";
+            default:
+                return "<cfmodule template=\"modules/widget" + i + ".cfm\" title=\"Widget\" size=\"" + i + "\">";
+        }
+    }
+
+    @Benchmark
+    public AnalysisResult extract() {
+        AnalysisResult result = new AnalysisResult();
+        analyzer.extractTags(content, new LineIndex(content), "pages/bench.cfm", result);
+        return result;
+    }
+}
@@ -0,0 +1,69 @@
+package net.gcae.utils.extractor.analyzer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The usage pass for one 64 KB file: building the matcher for the declared function
+ * and component names, and scanning the file with it
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UsageScanBenchmark {
+    private static final int CONTENT_CHARS = 64 * 1024;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int declarations;
+
+    private List<String> names;
+    private NameMatcher matcher;
+    private final NameMatcher.Scratch scratch = new NameMatcher.Scratch();
+    private String content;
+
+    @Setup
+    public void setUp() {
+        names = new ArrayList<>(declarations);
+        for (int i = 0; i < declarations; i++) {
+            names.add((i % 2 == 0 ? "getCustomer" : "OrderService") + i);
+        }
+        matcher = new NameMatcher(names);
+
+        // Mostly other identifiers, with one declared name in about every tenth statement
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(CONTENT_CHARS + 100);
+        int statement = 0;
+        while (builder.length() < CONTENT_CHARS) {
+            String callee = statement++ % 10 == 0 ? names.get(random.nextInt(declarations)) : "localHelper" + random.nextInt(1000);
+            builder.append("<cfset result = ").append(callee).append("(arguments.id, \"text\")>\n");
+        }
+        content = builder.toString();
+    }
+
+    @Benchmark
+    public NameMatcher buildMatcher() {
+        return new NameMatcher(names);
+    }
+
+    @Benchmark
+    public List<String> scan() {
+        return matcher.findAll(content, scratch);
+    }
+}
@@ -0,0 +1,89 @@
+package net.gcae.utils.extractor.reporter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.gcae.utils.extractor.model.AnalysisResult;
+import net.gcae.utils.extractor.model.FileInfo;
+import net.gcae.utils.extractor.model.FunctionInfo;
+import net.gcae.utils.extractor.model.QueryInfo;
+
+/**
+ * Writing a complete report with the given number of rows in each of the files,
+ * queries and functions tables
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    @Param({"xlsx", "xlsx-streaming", "csv", "jsonl"})
+    public String format;
+
+    private AnalysisResult result;
+    private Reporter reporter;
+    private Path directory;
+
+    @Setup
+    public void setUp() throws IOException {
+        result = new AnalysisResult();
+        for (int i = 0; i < rows; i++) {
+            String path = "app/module" + (i % 50) + "/page" + i + ".cfm";
+            result.getFiles().add(new FileInfo("page" + i + ".cfm", path, "ColdFusion Template", 1024 + i, 40 + i % 400, "UTF-8"));
+            result.getQueries().add(new QueryInfo("q" + i, "orders, customers", path, 12, "main",
+                "SELECT o.id, c.name FROM orders o\n  INNER JOIN customers c ON c.id = o.customer_id\n  WHERE o.id = " + i,
+                "Low", String.format("%016x", i % 500)));
+            result.getFunctions().add(new FunctionInfo("getOrder" + i, "query", "public", path, 30,
+                new String[] {"id", "numeric", "name", "string"}, "app/index.cfm, app/module" + (i % 50) + "/list.cfm"));
+        }
+
+        switch (format) {
+            case "csv":
+                reporter = new CsvReporter();
+                break;
+            case "jsonl":
+                reporter = new JsonLinesReporter();
+                break;
+            default:
+                ExcelReporter excelReporter = new ExcelReporter();
+                excelReporter.setStreaming(format.equals("xlsx-streaming"));
+                reporter = excelReporter;
+        }
+        directory = Files.createTempDirectory("report-benchmark");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public void generateReport() throws IOException {
+        reporter.generateReport(result, directory.toFile(), "benchmark");
+    }
+}
@@ -0,0 +1,216 @@
+package net.gcae.utils.extractor.scale;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Generates a synthetic ColdFusion application of a given size.
+ *
+ * Components declare functions with arguments and queries and may extend earlier
+ * components; templates include other templates, run queries, invoke component methods,
+ * call functions directly and use modules. Queries are drawn from a small set of
+ * statements over a shared set of tables, so duplicates and near-duplicates occur as they
+ * do in real applications. File sizes follow a log-normal distribution around the
+ * average, padded with markup, and a share of the files is written in Windows-1252.
+ * The output only depends on the settings and the seed.
+ */
+public class CorpusGenerator {
+    private static final int FILES_PER_DIRECTORY = 100;
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+    private static final String[] TABLES = {
+        "customers", "orders", "order_items", "products", "categories", "invoices", "payments",
+        "users", "roles", "audit_log", "addresses", "shipments", "suppliers", "inventory"
+    };
+
+    private static final String[] STATEMENTS = {
+        "SELECT id, name, created FROM %1$s WHERE id = <cfqueryparam value=\"#arguments.id#\" cfsqltype=\"cf_sql_integer\">",
+        "SELECT a.id, b.name\n      FROM %1$s a\n      INNER JOIN %2$s b ON b.id = a.%2$s_id\n      WHERE a.status = '%3$s'\n      ORDER BY a.id",
+        "SELECT COUNT(*) AS total FROM %1$s WHERE created > #createODBCDate(now() - %4$d)#",
+        "INSERT INTO %1$s (name, status) VALUES (<cfqueryparam value=\"#form.name#\">, '%3$s')",
+        "UPDATE %1$s SET status = '%3$s' WHERE id IN (SELECT %1$s_id FROM %2$s WHERE amount > %4$d)",
+        "DELETE FROM %1$s WHERE id = #url.id#",
+        "SELECT a.id, SUM(c.amount) AS amount\n      FROM %1$s a\n      LEFT JOIN %2$s c ON c.%1$s_id = a.id\n"
+            + "      WHERE a.region = '%3$s' AND c.amount > %4$d OR a.priority = 1\n      GROUP BY a.id\n      HAVING SUM(c.amount) > 100",
+        "SELECT * FROM %1$s\n      <cfif len(url.q)>WHERE name LIKE <cfqueryparam value=\"%%#url.q#%%\"></cfif>\n      ORDER BY name"
+    };
+
+    private static final String[] STATUSES = {"open", "closed", "pending", "archived"};
+
+    private static final String[] PADDING = {
+        "<div class=\"panel\">\n  <h2>Account overview</h2>\n  <p>Numbers are refreshed every night.</p>\n</div>\n",
+        "<table class=\"grid\">\n  <tr><th>Name</th><th>Status</th></tr>\n  <cfoutput query=\"data\"><tr><td>#name#</td><td>#status#</td></tr></cfoutput>\n</table>\n",
+        "<!--- Legacy layout, kept for the café and crème brûlée menus --->\n<p class=\"note\">Déjà vu: résumé façade</p>\n",
+        "<cfset total = total + 1>\n<cfif total GT 10>\n  <cfset overflow = true>\n</cfif>\n",
+        "<script>\n  document.querySelectorAll('.row').forEach(function (row) { row.classList.add('ready'); });\n</script>\n"
+    };
+
+    /**
+     * Size of a generated tree
+     */
+    public static class Corpus {
+        private final int files;
+        private final long bytes;
+
+        Corpus(int files, long bytes) {
+            this.files = files;
+            this.bytes = bytes;
+        }
+
+        public int getFiles() { return files; }
+        public long getBytes() { return bytes; }
+    }
+
+    private int files = 1000;
+    private int componentsPercent = 20;
+    private int functionsPerComponent = 8;
+    private int queriesPerTemplate = 2;
+    private int invokesPerTemplate = 2;
+    private int includesPerTemplate = 3;
+    private int averageFileBytes = 4096;
+    private int latin1Percent = 10;
+    private long seed = 42;
+
+    public int getFiles() { return files; }
+    public void setFiles(int files) { this.files = files; }
+
+    public int getComponentsPercent() { return componentsPercent; }
+    /** Share of the files that are components, the rest are templates */
+    public void setComponentsPercent(int componentsPercent) { this.componentsPercent = componentsPercent; }
+
+    public int getFunctionsPerComponent() { return functionsPerComponent; }
+    public void setFunctionsPerComponent(int functionsPerComponent) { this.functionsPerComponent = functionsPerComponent; }
+
+    public int getQueriesPerTemplate() { return queriesPerTemplate; }
+    public void setQueriesPerTemplate(int queriesPerTemplate) { this.queriesPerTemplate = queriesPerTemplate; }
+
+    public int getInvokesPerTemplate() { return invokesPerTemplate; }
+    /** Number of cfinvoke tags and of direct function calls per template */
+    public void setInvokesPerTemplate(int invokesPerTemplate) { this.invokesPerTemplate = invokesPerTemplate; }
+
+    public int getIncludesPerTemplate() { return includesPerTemplate; }
+    /** Include fan-out: the number of other templates each template includes */
+    public void setIncludesPerTemplate(int includesPerTemplate) { this.includesPerTemplate = includesPerTemplate; }
+
+    public int getAverageFileBytes() { return averageFileBytes; }
+    public void setAverageFileBytes(int averageFileBytes) { this.averageFileBytes = averageFileBytes; }
+
+    public int getLatin1Percent() { return latin1Percent; }
+    /** Share of the files written in Windows-1252 instead of UTF-8 */
+    public void setLatin1Percent(int latin1Percent) { this.latin1Percent = latin1Percent; }
+
+    public long getSeed() { return seed; }
+    public void setSeed(long seed) { this.seed = seed; }
+
+    /**
+     * Writes the tree below the given directory, which should be empty
+     */
+    public Corpus generate(Path root) throws IOException {
+        Random random = new Random(seed);
+        int components = Math.max(1, (int) ((long) files * componentsPercent / 100));
+        int templates = Math.max(0, files - components);
+        long bytes = 0;
+
+        for (int i = 0; i < files; i++) {
+            boolean component = i < components;
+            int index = component ? i : i - components;
+            Path directory = root.resolve(component ? "components" : "app").resolve("dir" + index / FILES_PER_DIRECTORY);
+            if (index % FILES_PER_DIRECTORY == 0) {
+                Files.createDirectories(directory);
+            }
+
+            StringBuilder content = new StringBuilder(averageFileBytes * 2);
+            if (component) {
+                writeComponent(content, index, random);
+            } else {
+                writeTemplate(content, index, templates, components, random);
+            }
+            pad(content, targetSize(random), random);
+
+            Charset charset = random.nextInt(100) < latin1Percent ? WINDOWS_1252 : StandardCharsets.UTF_8;
+            byte[] encoded = content.toString().getBytes(charset);
+            Files.write(directory.resolve(component ? "Service" + index + ".cfc" : "page" + index + ".cfm"), encoded);
+            bytes += encoded.length;
+        }
+        return new Corpus(files, bytes);
+    }
+
+    private void writeComponent(StringBuilder content, int index, Random random) {
+        content.append("<cfcomponent");
+        if (index > 0 && random.nextInt(3) == 0) {
+            content.append(" extends=\"").append(componentPath(random.nextInt(index))).append('"');
+        }
+        content.append(" output=\"false\">\n");
+
+        for (int j = 0; j < functionsPerComponent; j++) {
+            content.append("  <cffunction name=\"").append(functionName(index, j))
+                .append("\" returntype=\"query\" access=\"").append(j % 4 == 3 ? "private" : "public").append("\">\n")
+                .append("    <cfargument name=\"id\" type=\"numeric\" required=\"true\">\n")
+                .append("    <cfargument name=\"status\" type=\"string\" default=\"open\">\n");
+            writeQuery(content, "q" + j, "    ", random);
+            content.append("    <cfreturn q").append(j).append(">\n  </cffunction>\n\n");
+        }
+        content.append("</cfcomponent>\n");
+    }
+
+    private void writeTemplate(StringBuilder content, int index, int templates, int components, Random random) {
+        for (int k = 0; k < includesPerTemplate && templates > 1; k++) {
+            int included = random.nextInt(templates);
+            if (included == index) continue;
+            content.append("<cfinclude template=\"/app/dir").append(included / FILES_PER_DIRECTORY)
+                .append("/page").append(included).append(".cfm\">\n");
+        }
+        for (int k = 0; k < queriesPerTemplate; k++) {
+            writeQuery(content, "q" + k, "", random);
+        }
+        for (int k = 0; k < invokesPerTemplate; k++) {
+            int component = random.nextInt(components);
+            int function = random.nextInt(Math.max(1, functionsPerComponent));
+            content.append("<cfinvoke component=\"").append(componentPath(component))
+                .append("\" method=\"").append(functionName(component, function))
+                .append("\" returnvariable=\"result").append(k).append("\" id=\"#url.id#\">\n");
+
+            component = random.nextInt(components);
+            function = random.nextInt(Math.max(1, functionsPerComponent));
+            content.append("<cfset data").append(k).append(" = service.").append(functionName(component, function))
+                .append("(url.id)>\n");
+        }
+        if (random.nextInt(4) == 0) {
+            content.append("<cfmodule template=\"/modules/widget").append(random.nextInt(20))
+                .append(".cfm\" title=\"Summary\" rows=\"").append(10 + random.nextInt(40)).append("\">\n");
+        }
+    }
+
+    private void writeQuery(StringBuilder content, String name, String indent, Random random) {
+        String sql = String.format(STATEMENTS[random.nextInt(STATEMENTS.length)],
+            TABLES[random.nextInt(TABLES.length)], TABLES[random.nextInt(TABLES.length)],
+            STATUSES[random.nextInt(STATUSES.length)], random.nextInt(5) * 30);
+        content.append(indent).append("<cfquery name=\"").append(name).append("\" datasource=\"main\">\n")
+            .append(indent).append("  ").append(sql).append('\n')
+            .append(indent).append("</cfquery>\n");
+    }
+
+    private int targetSize(Random random) {
+        // Log-normal with the configured mean and a long tail of large files
+        double size = averageFileBytes * Math.exp(random.nextGaussian() * 0.8 - 0.32);
+        return (int) Math.min(size, averageFileBytes * 64.0);
+    }
+
+    private static void pad(StringBuilder content, int size, Random random) {
+        while (content.length() < size) {
+            content.append(PADDING[random.nextInt(PADDING.length)]);
+        }
+    }
+
+    private static String componentPath(int index) {
+        return "components.dir" + index / FILES_PER_DIRECTORY + ".Service" + index;
+    }
+
+    private static String functionName(int component, int function) {
+        return "service" + component + "Method" + function;
+    }
+}
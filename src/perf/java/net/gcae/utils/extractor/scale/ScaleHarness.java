@@ -0,0 +1,217 @@
+package net.gcae.utils.extractor.scale;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.gcae.utils.extractor.ColdFusionExtractor;
+
+/**
+ * Runs the extractor on generated trees of increasing size and records, per size tier,
+ * wall time, throughput, peak heap and time spent in garbage collection.
+ *
+ * Trees are generated once below the work directory and reused by later runs with the
+ * same size. All tiers run in one JVM; run a single tier per invocation when the tiers
+ * must not share a warmed-up JVM. Results are printed and written to
+ * {@code scale-results.json} in the work directory.
+ */
+public class ScaleHarness {
+    private static final Logger logger = LoggerFactory.getLogger(ScaleHarness.class);
+
+    /**
+     * Measurements of one tier
+     */
+    static class TierResult {
+        final int files;
+        final long bytes;
+        final long wallMillis;
+        final long peakHeapBytes;
+        final long gcMillis;
+        final long gcCount;
+
+        TierResult(int files, long bytes, long wallMillis, long peakHeapBytes, long gcMillis, long gcCount) {
+            this.files = files;
+            this.bytes = bytes;
+            this.wallMillis = wallMillis;
+            this.peakHeapBytes = peakHeapBytes;
+            this.gcMillis = gcMillis;
+            this.gcCount = gcCount;
+        }
+
+        double filesPerSecond() { return files * 1000.0 / Math.max(1, wallMillis); }
+        double megabytesPerSecond() { return bytes / (1024.0 * 1024.0) * 1000.0 / Math.max(1, wallMillis); }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (arg.startsWith("--") && separator > 0) {
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            } else if (arg.startsWith("--")) {
+                options.put(arg.substring(2), "true");
+            }
+        }
+
+        Path work = Paths.get(options.getOrDefault("work", "target/scale")).toAbsolutePath();
+        List<Integer> tiers = new ArrayList<>();
+        for (String tier : options.getOrDefault("tiers", "1000,10000,100000").split(",")) {
+            tiers.add(Integer.parseInt(tier.trim()));
+        }
+
+        CorpusGenerator generator = new CorpusGenerator();
+        generator.setComponentsPercent(intOption(options, "components-percent", generator.getComponentsPercent()));
+        generator.setFunctionsPerComponent(intOption(options, "functions", generator.getFunctionsPerComponent()));
+        generator.setQueriesPerTemplate(intOption(options, "queries", generator.getQueriesPerTemplate()));
+        generator.setInvokesPerTemplate(intOption(options, "invokes", generator.getInvokesPerTemplate()));
+        generator.setIncludesPerTemplate(intOption(options, "includes", generator.getIncludesPerTemplate()));
+        generator.setAverageFileBytes(intOption(options, "file-bytes", generator.getAverageFileBytes()));
+        generator.setLatin1Percent(intOption(options, "latin1-percent", generator.getLatin1Percent()));
+        generator.setSeed(Long.parseLong(options.getOrDefault("seed", String.valueOf(generator.getSeed()))));
+
+        ColdFusionExtractor extractor = new ColdFusionExtractor();
+        extractor.setThreads(intOption(options, "threads", Runtime.getRuntime().availableProcessors()));
+        extractor.setStreamingReport(true);
+        extractor.setFormats(new LinkedHashSet<>(List.of(options.getOrDefault("format", "xlsx").toLowerCase(Locale.ROOT).split(","))));
+
+        List<TierResult> results = new ArrayList<>();
+        for (int files : tiers) {
+            generator.setFiles(files);
+            Path corpus = work.resolve("corpus-" + files);
+            CorpusGenerator.Corpus generated = generate(generator, corpus);
+
+            Path reports = work.resolve("reports-" + files);
+            Files.createDirectories(reports);
+            results.add(measure(extractor, generated, corpus, reports));
+        }
+
+        print(results);
+        Path output = work.resolve("scale-results.json");
+        writeJson(results, output);
+        logger.info("Scale results written to {}", output);
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+    }
+
+    /**
+     * Generates the tree unless an earlier run left a complete one behind
+     */
+    private static CorpusGenerator.Corpus generate(CorpusGenerator generator, Path corpus) throws IOException {
+        Path marker = corpus.resolve("corpus.properties");
+        String settings = String.format(Locale.ROOT,
+            "files=%d%ncomponentsPercent=%d%nfunctions=%d%nqueries=%d%ninvokes=%d%nincludes=%d%nfileBytes=%d%nlatin1Percent=%d%nseed=%d%n",
+            generator.getFiles(), generator.getComponentsPercent(), generator.getFunctionsPerComponent(),
+            generator.getQueriesPerTemplate(), generator.getInvokesPerTemplate(), generator.getIncludesPerTemplate(),
+            generator.getAverageFileBytes(), generator.getLatin1Percent(), generator.getSeed());
+
+        if (Files.exists(marker)) {
+            List<String> lines = Files.readAllLines(marker, StandardCharsets.UTF_8);
+            String stored = String.join(System.lineSeparator(), lines.subList(0, lines.size() - 1)) + System.lineSeparator();
+            if (stored.equals(settings)) {
+                long bytes = Long.parseLong(lines.get(lines.size() - 1).substring("bytes=".length()));
+                logger.info("Reusing generated tree {}", corpus);
+                return new CorpusGenerator.Corpus(generator.getFiles(), bytes);
+            }
+            throw new IOException("Tree " + corpus + " was generated with other settings; remove it first");
+        }
+
+        long start = System.currentTimeMillis();
+        Files.createDirectories(corpus);
+        CorpusGenerator.Corpus generated = generator.generate(corpus);
+        Files.writeString(marker, settings + "bytes=" + generated.getBytes() + System.lineSeparator());
+        logger.info("Generated {} files ({} MB) in {} ms", generated.getFiles(), generated.getBytes() / (1024 * 1024),
+            System.currentTimeMillis() - start);
+        return generated;
+    }
+
+    private static TierResult measure(ColdFusionExtractor extractor, CorpusGenerator.Corpus corpus, Path source, Path reports)
+            throws Exception {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+        long gcMillis = gcMillis();
+        long gcCount = gcCount();
+
+        long start = System.nanoTime();
+        extractor.extractAndAnalyze(source.toString(), reports.toString());
+        long wallMillis = (System.nanoTime() - start) / 1_000_000;
+
+        return new TierResult(corpus.getFiles(), corpus.getBytes(), wallMillis, peakHeapBytes(),
+            gcMillis() - gcMillis, gcCount() - gcCount);
+    }
+
+    /**
+     * Sum of the peaks of the heap pools; the pools peak at different times, so this
+     * is an upper bound of the actual peak
+     */
+    private static long peakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, collector.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static void print(List<TierResult> results) {
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%10s %10s %10s %10s %8s %12s %10s %8s%n",
+            "Files", "MB", "Wall ms", "Files/s", "MB/s", "Peak heap MB", "GC ms", "GCs");
+        for (TierResult result : results) {
+            System.out.printf(Locale.ROOT, "%10d %10.1f %10d %10.0f %8.2f %12.1f %10d %8d%n",
+                result.files, result.bytes / (1024.0 * 1024.0), result.wallMillis, result.filesPerSecond(),
+                result.megabytesPerSecond(), result.peakHeapBytes / (1024.0 * 1024.0), result.gcMillis, result.gcCount);
+        }
+    }
+
+    private static void writeJson(List<TierResult> results, Path output) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            writer.write("[\n");
+            for (int i = 0; i < results.size(); i++) {
+                TierResult result = results.get(i);
+                writer.write(String.format(Locale.ROOT,
+                    "  {\"files\": %d, \"bytes\": %d, \"wallMillis\": %d, \"filesPerSecond\": %.1f, \"megabytesPerSecond\": %.3f, "
+                        + "\"peakHeapBytes\": %d, \"gcMillis\": %d, \"gcCount\": %d}%s\n",
+                    result.files, result.bytes, result.wallMillis, result.filesPerSecond(), result.megabytesPerSecond(),
+                    result.peakHeapBytes, result.gcMillis, result.gcCount, i < results.size() - 1 ? "," : ""));
+            }
+            writer.write("]\n");
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package net.gcae.utils.extractor.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.gcae.utils.extractor.model.AnalysisResult;
+import net.gcae.utils.extractor.model.IncludeInfo;
+import net.gcae.utils.extractor.model.StringPool;
+
+class AnalysisCacheTest {
+    private static final long HOUR = 3600 * 1000;
+
+    @TempDir
+    Path directory;
+
+    private static AnalysisResult records(String template) {
+        AnalysisResult records = new AnalysisResult();
+        records.getIncludes().add(new IncludeInfo(template, "index.cfm", 3));
+        return records;
+    }
+
+    @Test
+    void savesAndLoadsEntriesAndDeclaredNames() throws IOException {
+        Path file = directory.resolve("cache/analysis.bin");
+        AnalysisCache cache = new AnalysisCache(new HashSet<>(Set.of("getUser", "save")));
+        long modified = System.currentTimeMillis() - HOUR;
+        cache.put("index.cfm", new AnalysisCache.Entry(42, modified, new byte[] {1, 2, 3},
+            records("header.cfm"), List.of("getUser")));
+        cache.save(file);
+
+        AnalysisCache loaded = AnalysisCache.load(file, new StringPool());
+        assertEquals(Set.of("getUser", "save"), loaded.getDeclaredNames());
+        assertEquals(1, loaded.size());
+        AnalysisCache.Entry entry = loaded.get("index.cfm");
+        assertEquals(42, entry.getSize());
+        assertEquals(modified, entry.getModified());
+        assertArrayEquals(new byte[] {1, 2, 3}, entry.getDigest());
+        assertEquals("header.cfm", entry.getRecords().getIncludes().get(0).getTemplate());
+        assertEquals(List.of("getUser"), entry.getUsages());
+    }
+
+    @Test
+    void doesNotTrustModificationTimesCloseToTheSave() throws IOException {
+        Path file = directory.resolve("analysis.bin");
+        AnalysisCache cache = new AnalysisCache(new HashSet<>());
+        cache.put("racy.cfm", new AnalysisCache.Entry(1, System.currentTimeMillis(), new byte[0],
+            new AnalysisResult(), List.of()));
+        cache.save(file);
+        assertEquals(-1, AnalysisCache.load(file, new StringPool()).get("racy.cfm").getModified());
+    }
+
+    @Test
+    void startsEmptyFromAMissingOutdatedOrBrokenFile() throws IOException {
+        assertEquals(0, AnalysisCache.load(directory.resolve("missing.bin"), new StringPool()).size());
+
+        Path outdated = directory.resolve("outdated.bin");
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(outdated)))) {
+            out.writeInt(0x43464143);
+            out.writeInt(Integer.MAX_VALUE);
+        }
+        assertEquals(0, AnalysisCache.load(outdated, new StringPool()).size());
+
+        Path broken = directory.resolve("broken.bin");
+        Files.write(broken, "not a cache".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(0, AnalysisCache.load(broken, new StringPool()).size());
+        assertEquals(Set.of(), AnalysisCache.load(broken, new StringPool()).getDeclaredNames());
+    }
+
+    @Test
+    void reusesUnchangedAndTouchedFilesButNotChangedOnes() throws Exception {
+        Path root = Files.createDirectories(directory.resolve("src"));
+        Path index = write(root, "index.cfm", "<cfinclude template=\"a.cfm\">", -HOUR);
+        Path cacheFile = directory.resolve("analysis.bin");
+
+        // Stored records that differ from the file show whether it was parsed again
+        AnalysisCache cache = new AnalysisCache(new HashSet<>());
+        cache.put("index.cfm", new AnalysisCache.Entry(Files.size(index), Files.getLastModifiedTime(index).toMillis(),
+            sha256(Files.readAllBytes(index)), records("cached.cfm"), List.of()));
+        cache.save(cacheFile);
+        assertEquals("cached.cfm", analyze(root, cacheFile).getIncludes().get(0).getTemplate());
+
+        // A new modification time with the same content is recognised by its hash
+        Files.setLastModifiedTime(index, FileTime.fromMillis(System.currentTimeMillis() - HOUR / 2));
+        assertEquals("cached.cfm", analyze(root, cacheFile).getIncludes().get(0).getTemplate());
+
+        write(root, "index.cfm", "<cfinclude template=\"b.cfm\">", -HOUR / 4);
+        assertEquals("b.cfm", analyze(root, cacheFile).getIncludes().get(0).getTemplate());
+    }
+
+    @Test
+    void seesAChangeThatKeepsTheSizeAndARacyModificationTime() throws IOException {
+        Path root = Files.createDirectories(directory.resolve("src"));
+        Path index = write(root, "index.cfm", "<cfinclude template=\"a.cfm\">", 0);
+        FileTime modified = Files.getLastModifiedTime(index);
+        Path cacheFile = directory.resolve("analysis.bin");
+        analyze(root, cacheFile);
+
+        // Rewritten within the timestamp resolution: same size, same modification time
+        write(root, "index.cfm", "<cfinclude template=\"b.cfm\">", 0);
+        Files.setLastModifiedTime(index, modified);
+        assertEquals("b.cfm", analyze(root, cacheFile).getIncludes().get(0).getTemplate());
+    }
+
+    private static Path write(Path root, String name, String content, long age) throws IOException {
+        Path file = Files.write(root.resolve(name), content.getBytes(StandardCharsets.US_ASCII));
+        if (age != 0) {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + age));
+        }
+        return file;
+    }
+
+    private static byte[] sha256(byte[] content) throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256").digest(content);
+    }
+
+    private static AnalysisResult analyze(Path root, Path cacheFile) throws IOException {
+        FileAnalyzer analyzer = new FileAnalyzer(1);
+        analyzer.setCacheFile(cacheFile.toFile());
+        return analyzer.analyzeDirectory(root.toFile());
+    }
+}
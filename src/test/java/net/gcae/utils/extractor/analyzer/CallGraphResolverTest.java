@@ -0,0 +1,129 @@
+package net.gcae.utils.extractor.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import net.gcae.utils.extractor.model.AnalysisResult;
+import net.gcae.utils.extractor.model.CallGraph;
+import net.gcae.utils.extractor.model.ComponentInfo;
+import net.gcae.utils.extractor.model.FunctionInfo;
+import net.gcae.utils.extractor.model.InvokeInfo;
+
+class CallGraphResolverTest {
+    private final AnalysisResult result = new AnalysisResult();
+
+    private int component(String filePath, String extendsName) {
+        String name = filePath.substring(filePath.lastIndexOf('/') + 1, filePath.lastIndexOf('.'));
+        result.getComponents().add(new ComponentInfo(name, extendsName, filePath, 1, null));
+        return result.getComponents().size() - 1;
+    }
+
+    private int function(String filePath, String name, int line, int endLine) {
+        result.getFunctions().add(new FunctionInfo(name, "any", "public", filePath, line, endLine, null, null));
+        return result.getFunctions().size() - 1;
+    }
+
+    private int invoke(String filePath, String component, String method, int line) {
+        result.getInvokes().add(new InvokeInfo(component, method, filePath, line, null));
+        return result.getInvokes().size() - 1;
+    }
+
+    private CallGraph build() {
+        return new CallGraphResolver().buildGraph(result);
+    }
+
+    @Test
+    void cutsAnExtendsCycleAndStillResolvesMethods() {
+        int a = component("app/A.cfc", "B");
+        int b = component("app/B.cfc", "C");
+        int c = component("app/C.cfc", "A");
+        int run = function("app/C.cfc", "run", 2, 4);
+        int call = invoke("app/Page.cfm", "app.A", "missing", 1);
+        int found = invoke("app/Page.cfm", "app.A", "run", 2);
+
+        CallGraph graph = build();
+        // Exactly one link of the cycle is cut, and the depths follow the chain that is left
+        int cut = (graph.getParent(a) < 0 ? 1 : 0) + (graph.getParent(b) < 0 ? 1 : 0) + (graph.getParent(c) < 0 ? 1 : 0);
+        assertEquals(1, cut);
+        assertEquals(3, graph.getDepth(a) + graph.getDepth(b) + graph.getDepth(c));
+        assertArrayEquals(new int[0], graph.getTargets(call));
+        assertArrayEquals(new int[] {run}, graph.getTargets(found));
+    }
+
+    @Test
+    void findsInheritedMethodsOnTheNearestComponent() {
+        component("app/Base.cfc", null);
+        component("app/Middle.cfc", "Base");
+        int child = component("app/Child.cfc", "app.Middle");
+        int baseSave = function("app/Base.cfc", "save", 2, 5);
+        int baseLoad = function("app/Base.cfc", "load", 6, 9);
+        int middleLoad = function("app/Middle.cfc", "LOAD", 2, 5);
+        int save = invoke("app/Page.cfm", "Child", "Save", 1);
+        int load = invoke("app/Page.cfm", "Child", "load", 2);
+
+        CallGraph graph = build();
+        assertEquals(2, graph.getDepth(child));
+        assertArrayEquals(new int[] {baseSave}, graph.getTargets(save));
+        assertArrayEquals(new int[] {middleLoad}, graph.getTargets(load));
+        assertEquals(0, graph.getCallSiteCount(baseLoad));
+    }
+
+    @Test
+    void callsEveryComponentOfAnAmbiguousNameButExtendsNone() {
+        component("a/Util.cfc", null);
+        component("b/Util.cfc", null);
+        int child = component("c/Child.cfc", "Util");
+        int first = function("a/Util.cfc", "format", 2, 3);
+        int second = function("b/Util.cfc", "format", 2, 3);
+        int call = invoke("c/Page.cfm", "Util", "format", 1);
+
+        CallGraph graph = build();
+        assertArrayEquals(new int[] {first, second}, graph.getTargets(call));
+        assertEquals(-1, graph.getParent(child));
+        assertEquals(0, graph.getUnresolvedInvokeCount());
+    }
+
+    @Test
+    void looksForAPlainNameInTheDirectoryOfTheFileFirst() {
+        component("Util.cfc", null);
+        int local = component("app/Util.cfc", null);
+        int child = component("app/Child.cfc", "Util");
+        int rootFormat = function("Util.cfc", "format", 2, 3);
+        int localFormat = function("app/Util.cfc", "format", 2, 3);
+        int fromApp = invoke("app/Page.cfm", "Util", "format", 1);
+        int fromRoot = invoke("Page.cfm", "Util", "format", 1);
+        int qualified = invoke("app/Page.cfm", "app.Util", "format", 2);
+
+        CallGraph graph = build();
+        assertEquals(local, graph.getParent(child));
+        assertArrayEquals(new int[] {localFormat}, graph.getTargets(fromApp));
+        assertArrayEquals(new int[] {rootFormat}, graph.getTargets(fromRoot));
+        assertArrayEquals(new int[] {localFormat}, graph.getTargets(qualified));
+    }
+
+    @Test
+    void findsTheCallerOnlyWithinTheLinesOfAFunction() {
+        int service = component("app/Service.cfc", null);
+        int first = function("app/Service.cfc", "first", 3, 6);
+        int second = function("app/Service.cfc", "second", 10, 12);
+        int helper = function("app/Service.cfc", "helper", 14, 16);
+        int before = invoke("app/Service.cfc", "", "helper", 1);
+        int start = invoke("app/Service.cfc", "this", "helper", 3);
+        int end = invoke("app/Service.cfc", null, "helper", 6);
+        int between = invoke("app/Service.cfc", null, "helper", 8);
+        int inside = invoke("app/Service.cfc", null, "helper", 11);
+
+        CallGraph graph = build();
+        assertEquals(service, graph.getComponent(helper));
+        assertEquals(-1, graph.getCaller(before));
+        assertEquals(first, graph.getCaller(start));
+        assertEquals(first, graph.getCaller(end));
+        assertEquals(-1, graph.getCaller(between));
+        assertEquals(second, graph.getCaller(inside));
+        assertEquals(5, graph.getCallSiteCount(helper));
+        assertArrayEquals(new int[] {first, second}, graph.getCallers(helper));
+        assertEquals(2, graph.getCallCount());
+    }
+}
@@ -0,0 +1,84 @@
+package net.gcae.utils.extractor.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CfmlLexerTest {
+    private final CfmlLexer lexer = new CfmlLexer(new String[] {"cfquery", "cfqueryparam", "cfinclude"}, "cfquery");
+
+    /**
+     * Events as "open name text", "close name" and "body name text"
+     */
+    private List<String> scan(String content) {
+        List<String> events = new ArrayList<>();
+        lexer.scan(content, new CfmlLexer.Listener() {
+            @Override
+            public void tagOpen(String name, int start, int nameEnd, int end) {
+                events.add("open " + name + " " + content.substring(start, end));
+            }
+
+            @Override
+            public void tagClose(String name, int start, int end) {
+                events.add("close " + name);
+            }
+
+            @Override
+            public void body(String name, int openStart, int bodyStart, int bodyEnd, int end) {
+                events.add("body " + name + " " + content.substring(bodyStart, bodyEnd));
+            }
+        });
+        return events;
+    }
+
+    @Test
+    void pairsABlockTagWithItsClosingTag() {
+        assertEquals(List.of(
+                "open cfquery <cfquery name=\"q\">",
+                "open cfqueryparam <cfqueryparam value=\"#id#\">",
+                "close cfquery",
+                "body cfquery SELECT * FROM t WHERE id = <cfqueryparam value=\"#id#\">"),
+            scan("<cfquery name=\"q\">SELECT * FROM t WHERE id = <cfqueryparam value=\"#id#\"></cfquery>"));
+    }
+
+    @Test
+    void keepsAnOpeningInsideAnUnclosedBlockInThatBlock() {
+        assertEquals(List.of(
+                "open cfquery <cfquery name=\"a\">",
+                "open cfquery <CFQUERY name=\"b\">",
+                "close cfquery",
+                "body cfquery A <CFQUERY name=\"b\"> B",
+                "close cfquery"),
+            scan("<cfquery name=\"a\">A <CFQUERY name=\"b\"> B</cfquery></CFQuery>"));
+    }
+
+    @Test
+    void matchesWholeTagNamesIgnoringCase() {
+        assertEquals(List.of("open cfinclude <CFInclude template=\"a.cfm\"/>"),
+            scan("<cfincluder x><CFInclude template=\"a.cfm\"/><cfset x = 1>"));
+    }
+
+    @Test
+    void skipsGreaterThanInsideQuotedValues() {
+        assertEquals(List.of("open cfinclude <cfinclude template=\"#x > 1 ? 'a' : 'b'#.cfm\">"),
+            scan("<cfinclude template=\"#x > 1 ? 'a' : 'b'#.cfm\">rest"));
+        assertEquals(List.of("open cfinclude <cfinclude template='it\"s>.cfm'>"),
+            scan("<cfinclude template='it\"s>.cfm'>"));
+    }
+
+    @Test
+    void fallsBackToTheFirstGreaterThanForAnUnbalancedQuote() {
+        // The quote runs into the next cf tag, so the tag ends at its first '>'
+        assertEquals(List.of("open cfinclude <cfinclude template=\"a.cfm>", "open cfinclude <cfinclude template=\"b.cfm\">"),
+            scan("<cfinclude template=\"a.cfm><cfinclude template=\"b.cfm\">"));
+    }
+
+    @Test
+    void stopsAtATagThatIsNotTerminated() {
+        assertEquals(List.of("open cfinclude <cfinclude template=\"a.cfm\">"),
+            scan("<cfinclude template=\"a.cfm\"><cfinclude template=\"b.cfm\""));
+    }
+}
@@ -0,0 +1,110 @@
+package net.gcae.utils.extractor.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.gcae.utils.extractor.model.AnalysisResult;
+import net.gcae.utils.extractor.model.FunctionInfo;
+
+class ContentCacheTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void admitsContentsUpToTheBudget() {
+        // Two bytes per char, so the budget holds 10 chars
+        ContentCache cache = new ContentCache(20);
+        cache.put("a.cfm", "aaaaaa");
+        cache.put("b.cfm", "bbbb");
+        cache.put("c.cfm", "c");
+
+        assertEquals("aaaaaa", cache.take("a.cfm"));
+        assertEquals("bbbb", cache.take("b.cfm"));
+        assertNull(cache.take("c.cfm"));
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void takingAContentFreesItsRoom() {
+        ContentCache cache = new ContentCache(20);
+        cache.put("a.cfm", "aaaaaaaaaa");
+        cache.put("b.cfm", "b");
+        assertEquals("aaaaaaaaaa", cache.take("a.cfm"));
+        assertNull(cache.take("a.cfm"));
+
+        cache.put("b.cfm", "bbbbbbbbbb");
+        assertEquals("bbbbbbbbbb", cache.take("b.cfm"));
+    }
+
+    @Test
+    void replacingAContentReleasesTheOldOne() {
+        ContentCache cache = new ContentCache(20);
+        cache.put("a.cfm", "aaaaaaaaaa");
+        cache.put("a.cfm", "AAAAAAAAAA");
+        assertEquals("AAAAAAAAAA", cache.take("a.cfm"));
+
+        cache.put("a.cfm", "aaaaaaaaaa");
+        cache.put("a.cfm", "too long for the budget");
+        assertNull(cache.take("a.cfm"));
+    }
+
+    @Test
+    void retainingCacheKeepsTakenContentsUntilRemoved() {
+        ContentCache cache = new ContentCache(20, true);
+        cache.put("a.cfm", "aaaaaaaaaa");
+        assertEquals("aaaaaaaaaa", cache.take("a.cfm"));
+        assertEquals("aaaaaaaaaa", cache.take("a.cfm"));
+
+        // Still holding the whole budget
+        cache.put("b.cfm", "b");
+        assertNull(cache.take("b.cfm"));
+
+        assertEquals("aaaaaaaaaa", cache.remove("a.cfm"));
+        cache.put("b.cfm", "b");
+        assertEquals("b", cache.take("b.cfm"));
+    }
+
+    @Test
+    void usagePassReadsFilesAgainWhenTheyWereNotCached() throws IOException {
+        write("lib.cfc", "<cfcomponent>\n<cffunction name=\"helper\">\n</cffunction>\n</cfcomponent>\n");
+        for (int i = 0; i < 20; i++) {
+            write("page" + i + ".cfm", "<cfset x = helper()>\n<cfoutput>" + "padding ".repeat(i * 10) + "</cfoutput>\n");
+        }
+
+        List<String> expected = helperUsages(Long.MAX_VALUE);
+        // Every page and the declaring component
+        assertEquals(21, expected.size());
+        // Room for a few pages only, then none at all
+        assertEquals(expected, helperUsages(400));
+        assertEquals(expected, helperUsages(0));
+    }
+
+    private List<String> helperUsages(long contentCacheBytes) throws IOException {
+        FileAnalyzer analyzer = new FileAnalyzer(2);
+        analyzer.setContentCacheBytes(contentCacheBytes);
+        AnalysisResult result = analyzer.analyzeDirectory(root.toFile());
+        List<String> usages = new ArrayList<>();
+        for (FunctionInfo function : result.getFunctions()) {
+            if (function.getFunctionName().equals("helper")) {
+                usages.addAll(List.of(function.getUsedIn().split(", ")));
+            }
+        }
+        return usages;
+    }
+
+    private void write(String path, String content) throws IOException {
+        Files.write(root.resolve(path), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,139 @@
+package net.gcae.utils.extractor.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.gcae.utils.extractor.metrics.MetricsRegistry;
+import net.gcae.utils.extractor.model.AnalysisResult;
+import net.gcae.utils.extractor.model.ComponentInfo;
+import net.gcae.utils.extractor.model.FileInfo;
+import net.gcae.utils.extractor.model.FunctionInfo;
+import net.gcae.utils.extractor.model.IncludeInfo;
+import net.gcae.utils.extractor.model.InvokeInfo;
+import net.gcae.utils.extractor.model.QueryInfo;
+
+class FileAnalyzerParallelTest {
+    private static final int PAGES = 300;
+    private static final int COMPONENTS = 10;
+
+    @TempDir
+    Path root;
+
+    /**
+     * Thrown by a worker thread, past the per-file error handling
+     */
+    private static class WorkerDeath extends Error {
+        private static final long serialVersionUID = 1L;
+    }
+
+    @BeforeEach
+    void writeTree() throws IOException {
+        for (int i = 0; i < COMPONENTS; i++) {
+            write("components/C" + i + ".cfc", "<cfcomponent" + (i > 0 ? " extends=\"C" + (i - 1) + "\"" : "") + ">\n"
+                + "<cffunction name=\"m" + i + "\" returntype=\"string\" access=\"public\">\n"
+                + "<cfargument name=\"x\" type=\"string\">\n"
+                + "</cffunction>\n</cfcomponent>\n");
+        }
+        for (int i = 0; i < PAGES; i++) {
+            write("d" + i % 7 + "/f" + i + ".cfm", "<cfquery name=\"q" + i + "\" datasource=\"main\">\n"
+                + "SELECT * FROM t" + i % 5 + " WHERE id = " + i + "\n</cfquery>\n"
+                + "<cfinclude template=\"../d" + (i + 1) % 7 + "/f" + (i + 1) % PAGES + ".cfm\">\n"
+                + "<cfinvoke component=\"C" + i % COMPONENTS + "\" method=\"m" + i % COMPONENTS + "\">\n"
+                + "<cfset y = m" + i * 3 % COMPONENTS + "(x)>\n");
+        }
+    }
+
+    @Test
+    void findsTheSameRecordsInTheSameOrderWithAnyNumberOfThreads() throws IOException {
+        List<String> sequential = describe(analyze(1));
+        // Every function is used by many pages, so the usage pass is part of the comparison
+        assertEquals(COMPONENTS, sequential.stream().filter(line -> line.startsWith("function ") && line.contains("/f")).count());
+        for (int threads : new int[] {2, 8}) {
+            assertEquals(sequential, describe(analyze(threads)), threads + " threads");
+        }
+    }
+
+    @Test
+    void failsInsteadOfHangingWhenAWorkerDies() {
+        for (int threads : new int[] {1, 4}) {
+            FileAnalyzer analyzer = new FileAnalyzer(threads);
+            analyzer.setMetrics(new FailingMetrics("d3/f3.cfm"));
+            // One worker leaves the queue with hundreds of files still to be taken
+            assertTimeoutPreemptively(Duration.ofSeconds(30),
+                () -> assertThrows(WorkerDeath.class, () -> analyzer.analyzeDirectory(root.toFile())),
+                threads + " threads");
+        }
+    }
+
+    private AnalysisResult analyze(int threads) throws IOException {
+        return new FileAnalyzer(threads).analyzeDirectory(root.toFile());
+    }
+
+    /**
+     * Every record of the result as a line, in result order
+     */
+    private static List<String> describe(AnalysisResult result) {
+        List<String> lines = new ArrayList<>();
+        for (FileInfo file : result.getFiles()) {
+            lines.add("file " + file.getFilePath() + " " + file.getFileSize() + " " + file.getLineCount());
+        }
+        for (QueryInfo query : result.getQueries()) {
+            lines.add("query " + query.getQueryName() + " " + query.getFileLocation() + " " + query.getDbTable());
+        }
+        for (FunctionInfo function : result.getFunctions()) {
+            lines.add("function " + function.getFunctionName() + " " + function.getFileLocation() + " "
+                + function.getUsedIn());
+        }
+        for (ComponentInfo component : result.getComponents()) {
+            lines.add("component " + component.getComponentName() + " " + component.getExtends() + " "
+                + component.getUsedIn());
+        }
+        for (InvokeInfo invoke : result.getInvokes()) {
+            lines.add("invoke " + invoke.getComponent() + "." + invoke.getMethod() + " " + invoke.getFileLocation());
+        }
+        for (IncludeInfo include : result.getIncludes()) {
+            lines.add("include " + include.getTemplate() + " " + include.getFileLocation());
+        }
+        return lines;
+    }
+
+    private void write(String path, String content) throws IOException {
+        Path file = root.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class FailingMetrics implements MetricsRegistry {
+        private final String failingPath;
+
+        FailingMetrics(String failingPath) {
+            this.failingPath = failingPath;
+        }
+
+        @Override
+        public void recordTime(String phase, long nanos) { }
+
+        @Override
+        public void increment(String counter, long amount) { }
+
+        @Override
+        public void recordFile(String path, long nanos) {
+            if (path.equals(failingPath)) {
+                throw new WorkerDeath();
+            }
+        }
+    }
+}
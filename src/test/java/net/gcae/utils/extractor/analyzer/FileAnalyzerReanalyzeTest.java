@@ -0,0 +1,112 @@
+package net.gcae.utils.extractor.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.gcae.utils.extractor.metrics.RunMetrics;
+import net.gcae.utils.extractor.model.AnalysisResult;
+import net.gcae.utils.extractor.model.FileInfo;
+
+class FileAnalyzerReanalyzeTest {
+    @TempDir
+    Path root;
+
+    private final FileAnalyzer analyzer = new FileAnalyzer(2);
+
+    @BeforeEach
+    void analyzeTree() throws IOException {
+        write("app/page.cfm", "<cfoutput>#formatDate(now())#</cfoutput>");
+        write("app/admin/users.cfm", "<cfinclude template=\"../page.cfm\">");
+        write("app/admin/roles.cfm", "<cfinclude template=\"../page.cfm\">");
+        write("app-old/legacy.cfm", "<cfset x = 1>");
+        write("lib/Util.cfc", "<cfcomponent></cfcomponent>");
+        analyzer.setKeepFileResults(true);
+        analyzer.analyzeDirectory(root.toFile()).close();
+    }
+
+    @Test
+    void searchesUnchangedFilesForNewNamesInTheKeptContents() throws IOException {
+        write("lib/Util.cfc", "<cfcomponent><cffunction name=\"formatDate\"></cffunction></cfcomponent>");
+        RunMetrics metrics = new RunMetrics();
+        analyzer.setMetrics(metrics);
+
+        try (AnalysisResult result = analyzer.reanalyze(List.of(root.resolve("lib/Util.cfc")));
+                AnalysisResult fresh = new FileAnalyzer(1).analyzeDirectory(root.toFile())) {
+            Set<String> usages = result.getFunctions().get(0).getUsages();
+            assertTrue(usages.contains("app/page.cfm"));
+            assertEquals(fresh.getFunctions().get(0).getUsages(), usages);
+        }
+        assertEquals(0, metrics.getCounter("content.cache.misses"));
+        assertEquals(1, metrics.getCounter("files.analyzed"));
+        assertEquals(1, metrics.getCounter("records.functions"));
+    }
+
+    @Test
+    void dropsOnlyTheFilesUnderADeletedDirectory() throws IOException {
+        Files.delete(root.resolve("app/admin/users.cfm"));
+        Files.delete(root.resolve("app/admin/roles.cfm"));
+        Files.delete(root.resolve("app/admin"));
+
+        try (AnalysisResult result = analyzer.reanalyze(List.of(root.resolve("app/admin"), root.resolve("app")))) {
+            assertEquals(List.of("app-old/legacy.cfm", "app/page.cfm", "lib/Util.cfc"), paths(result));
+        }
+    }
+
+    @Test
+    void picksUpFilesOfANewDirectoryAndLaterChangesToThem() throws IOException {
+        write("app/reports/daily.cfm", "<cfinclude template=\"../page.cfm\">");
+        try (AnalysisResult result = analyzer.reanalyze(List.of(root.resolve("app/reports")))) {
+            assertEquals(6, result.getFiles().size());
+            assertEquals(3, result.getIncludes().size());
+        }
+
+        write("app/reports/daily.cfm", "<cfset y = 2>");
+        try (AnalysisResult result = analyzer.reanalyze(List.of(root.resolve("app/reports/daily.cfm")))) {
+            assertEquals(2, result.getIncludes().size());
+        }
+    }
+
+    @Test
+    void dropsTheLastFunctionAndComponentWhenTheirFileIsDeleted() throws IOException {
+        write("lib/Util.cfc", "<cfcomponent><cffunction name=\"formatDate\"></cffunction></cfcomponent>");
+        try (AnalysisResult result = analyzer.reanalyze(List.of(root.resolve("lib/Util.cfc")))) {
+            assertEquals(1, result.getFunctions().size());
+            assertEquals(1, result.getComponents().size());
+        }
+
+        Files.delete(root.resolve("lib/Util.cfc"));
+        try (AnalysisResult result = analyzer.reanalyze(List.of(root.resolve("lib/Util.cfc")))) {
+            assertEquals(0, result.getFunctions().size());
+            assertEquals(0, result.getComponents().size());
+            assertEquals(List.of("app-old/legacy.cfm", "app/admin/roles.cfm", "app/admin/users.cfm", "app/page.cfm"),
+                paths(result));
+        }
+    }
+
+    private void write(String path, String content) throws IOException {
+        Path file = root.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> paths(AnalysisResult result) {
+        List<String> paths = new ArrayList<>();
+        for (FileInfo file : result.getFiles()) {
+            paths.add(file.getFilePath());
+        }
+        paths.sort(null);
+        return paths;
+    }
+}
@@ -0,0 +1,49 @@
+package net.gcae.utils.extractor.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class LineIndexTest {
+
+    @Test
+    void resolvesPositionsToLines() {
+        LineIndex lines = new LineIndex("ab\ncd\n\nef");
+        assertEquals(1, lines.lineOf(0));
+        assertEquals(1, lines.lineOf(1));
+        // A newline belongs to the line it ends
+        assertEquals(1, lines.lineOf(2));
+        assertEquals(2, lines.lineOf(3));
+        assertEquals(3, lines.lineOf(6));
+        assertEquals(4, lines.lineOf(7));
+        assertEquals(4, lines.lineOf(8));
+    }
+
+    @Test
+    void resolvesPositionsInTheManyLinesOfALargeFile() {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            content.append("line ").append(i).append('\n');
+        }
+        LineIndex lines = new LineIndex(content);
+        assertEquals(1000, lines.getLineCount());
+        assertEquals(501, lines.lineOf(content.indexOf("line 500\n")));
+        assertEquals(1000, lines.lineOf(content.length() - 1));
+    }
+
+    @Test
+    void countsLinesWithoutStartingOneAfterTheLastNewline() {
+        assertEquals(0, new LineIndex("").getLineCount());
+        assertEquals(1, new LineIndex("a").getLineCount());
+        assertEquals(1, new LineIndex("a\n").getLineCount());
+        assertEquals(2, new LineIndex("a\nb").getLineCount());
+        assertEquals(1, new LineIndex("\n").getLineCount());
+        assertEquals(2, new LineIndex("a\r\nb\r\n").getLineCount());
+    }
+
+    @Test
+    void countsTrailingEmptyLines() {
+        assertEquals(3, new LineIndex("a\n\n\n").getLineCount());
+        assertEquals(3, new LineIndex("\n\n\n").getLineCount());
+    }
+}
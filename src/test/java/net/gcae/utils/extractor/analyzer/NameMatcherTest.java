@@ -0,0 +1,59 @@
+package net.gcae.utils.extractor.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class NameMatcherTest {
+
+    @Test
+    void findsNamesOnlyAsWholeIdentifiers() {
+        NameMatcher matcher = new NameMatcher(List.of("getUser", "user", "id"));
+        assertEquals(List.of("getUser"), matcher.findAll("x = getUser(1); y = getUserById(2); z = my_user;"));
+        assertEquals(List.of("user", "id"), matcher.findAll("user.id"));
+        assertEquals(List.of(), matcher.findAll("users ids user2 _id"));
+    }
+
+    @Test
+    void findsNamesInsideOtherNamesThroughTheFailureLinks() {
+        // "she" ends inside "ushers", and "he" and "hers" overlap it
+        NameMatcher matcher = new NameMatcher(List.of("he", "she", "his", "hers"));
+        assertEquals(List.of("hers"), matcher.findAll("ushers hers"));
+        assertEquals(List.of("she", "he", "his"), matcher.findAll("she-he+his"));
+    }
+
+    @Test
+    void reportsEachNameOnceInOrderOfFirstOccurrence() {
+        NameMatcher matcher = new NameMatcher(Arrays.asList("b", "a", "a", "", null));
+        assertEquals(2, matcher.size());
+        assertEquals(List.of("a", "b"), matcher.findAll("a b a b"));
+    }
+
+    @Test
+    void startsEveryTextWithNothingFound() {
+        NameMatcher matcher = new NameMatcher(List.of("save", "load"));
+        assertEquals(List.of("save", "load"), matcher.findAll("save(); load();"));
+        assertEquals(List.of("load"), matcher.findAll("load();"));
+        assertEquals(List.of(), matcher.findAll("saved"));
+        assertEquals(List.of("save"), matcher.findAll("save"));
+    }
+
+    @Test
+    void sharesOneScratchBetweenTextsAndMatchers() {
+        NameMatcher small = new NameMatcher(List.of("save"));
+        NameMatcher large = new NameMatcher(List.of("save", "load", "find"));
+        NameMatcher.Scratch scratch = new NameMatcher.Scratch();
+        assertEquals(List.of("save"), small.findAll("save(); save();", scratch));
+        assertEquals(List.of("find", "save", "load"), large.findAll("find(); save(); load();", scratch));
+        assertEquals(List.of("save"), small.findAll("load(); save();", scratch));
+        assertEquals(List.of("load"), large.findAll("load();", scratch));
+    }
+
+    @Test
+    void findsNothingWithoutNames() {
+        assertEquals(List.of(), new NameMatcher(List.of()).findAll("anything"));
+    }
+}
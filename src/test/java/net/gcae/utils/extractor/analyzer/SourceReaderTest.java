@@ -0,0 +1,104 @@
+package net.gcae.utils.extractor.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SourceReaderTest {
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+    @TempDir
+    Path directory;
+
+    private final SourceReader reader = new SourceReader();
+
+    private SourceReader.Source read(int... bytes) throws IOException {
+        byte[] content = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            content[i] = (byte) bytes[i];
+        }
+        return read(content);
+    }
+
+    private SourceReader.Source read(byte[] content) throws IOException {
+        Path file = Files.write(directory.resolve("source.cfm"), content);
+        return reader.read(file);
+    }
+
+    @Test
+    void stripsAByteOrderMarkAndDecodesWithItsCharset() throws IOException {
+        SourceReader.Source utf8 = read(0xEF, 0xBB, 0xBF, 'a', 0xC3, 0xA9);
+        assertEquals("aé", utf8.getContent());
+        assertEquals(StandardCharsets.UTF_8, utf8.getCharset());
+
+        SourceReader.Source utf16le = read(0xFF, 0xFE, 'a', 0, 0xE9, 0);
+        assertEquals("aé", utf16le.getContent());
+        assertEquals(StandardCharsets.UTF_16LE, utf16le.getCharset());
+
+        SourceReader.Source utf16be = read(0xFE, 0xFF, 0, 'a', 0, 0xE9);
+        assertEquals("aé", utf16be.getContent());
+        assertEquals(StandardCharsets.UTF_16BE, utf16be.getCharset());
+    }
+
+    @Test
+    void reportsPureAsciiAsAscii() throws IOException {
+        SourceReader.Source source = read("<cfset x = 1>\n".getBytes(StandardCharsets.US_ASCII));
+        assertEquals("<cfset x = 1>\n", source.getContent());
+        assertEquals(StandardCharsets.US_ASCII, source.getCharset());
+        assertEquals(14, source.getSize());
+        assertEquals("", read(new byte[0]).getContent());
+    }
+
+    @Test
+    void decodesValidUtf8AsUtf8() throws IOException {
+        String text = "café – 日本 😀";
+        SourceReader.Source source = read(text.getBytes(StandardCharsets.UTF_8));
+        assertEquals(text, source.getContent());
+        assertEquals(StandardCharsets.UTF_8, source.getCharset());
+    }
+
+    @Test
+    void fallsBackToWindows1252ForInvalidUtf8() throws IOException {
+        SourceReader.Source source = read("café €".getBytes(WINDOWS_1252));
+        assertEquals("café €", source.getContent());
+        assertEquals(WINDOWS_1252, source.getCharset());
+
+        // Overlong form, surrogate, above U+10FFFF and a sequence cut off at the end
+        assertEquals(WINDOWS_1252, read('a', 0xC0, 0xAF).getCharset());
+        assertEquals(WINDOWS_1252, read('a', 0xED, 0xA0, 0x80).getCharset());
+        assertEquals(WINDOWS_1252, read('a', 0xF4, 0x90, 0x80, 0x80).getCharset());
+        assertEquals(WINDOWS_1252, read('a', 0xE2, 0x82).getCharset());
+    }
+
+    @Test
+    void readsLargeFilesThroughAMapping() throws IOException {
+        byte[] content = new byte[3 * 1024 * 1024];
+        Arrays.fill(content, (byte) 'x');
+        byte[] euro = "€".getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(euro, 0, content, content.length - euro.length, euro.length);
+
+        SourceReader.Source source = read(content);
+        assertEquals(StandardCharsets.UTF_8, source.getCharset());
+        assertEquals(content.length - euro.length + 1, source.getContent().length());
+        assertEquals('€', source.getContent().charAt(source.getContent().length() - 1));
+    }
+
+    @Test
+    void hashesTheRawBytesOnlyWhenAsked() throws Exception {
+        byte[] content = "<cfoutput>é</cfoutput>".getBytes(WINDOWS_1252);
+        Path file = Files.write(directory.resolve("hashed.cfm"), content);
+        assertNull(reader.read(file).getDigest());
+        assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(content), reader.read(file, true).getDigest());
+    }
+}
@@ -0,0 +1,108 @@
+package net.gcae.utils.extractor.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SourceWalkerTest {
+    private static final Set<String> EXTENSIONS = Set.of(".cfm", ".cfc");
+
+    @TempDir
+    Path root;
+
+    private List<String> walk(Set<String> excludedDirectories) throws IOException, InterruptedException {
+        List<String> files = new ArrayList<>();
+        new SourceWalker(root, EXTENSIONS, excludedDirectories)
+            .walk((file, attrs) -> files.add(root.relativize(file).toString().replace('\\', '/')));
+        Collections.sort(files);
+        return files;
+    }
+
+    private void touch(String path) throws IOException {
+        Path file = root.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[0]);
+    }
+
+    @Test
+    void streamsFilesWithMatchingExtensionsInAnyCase() throws Exception {
+        touch("index.cfm");
+        touch("lib/User.CFC");
+        touch("lib/readme.txt");
+        touch("lib/cfm");
+        assertEquals(List.of("index.cfm", "lib/User.CFC"), walk(Set.of()));
+    }
+
+    @Test
+    void skipsExcludedDirectoriesAtAnyDepthButNotTheRoot() throws Exception {
+        touch("index.cfm");
+        touch(".git/hooks/hook.cfm");
+        touch("app/.svn/old.cfm");
+        touch("app/svn/kept.cfm");
+        touch("app/page.cfm");
+        assertEquals(List.of("app/page.cfm", "app/svn/kept.cfm", "index.cfm"), walk(Set.of(".git", ".svn")));
+
+        // The root is walked even when its own name is excluded
+        Path excludedRoot = root.resolve("app");
+        List<String> files = new ArrayList<>();
+        new SourceWalker(excludedRoot, EXTENSIONS, Set.of("app", ".svn")).walk((file, attrs) -> files.add(file.toString()));
+        assertEquals(2, files.size());
+    }
+
+    @Test
+    void doesNotFollowSymbolicLinksIntoLoops() throws Exception {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        touch("a/page.cfm");
+        Files.createSymbolicLink(root.resolve("a/loop"), root);
+        Files.createSymbolicLink(root.resolve("link.cfm"), root.resolve("a/page.cfm"));
+
+        List<String> files = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> walk(Set.of()));
+        assertEquals(List.of("a/page.cfm"), files);
+    }
+
+    @Test
+    void continuesPastUnreadableDirectories() throws Exception {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        touch("a/page.cfm");
+        touch("locked/hidden.cfm");
+        touch("z/page.cfm");
+        Path locked = root.resolve("locked");
+        Files.setPosixFilePermissions(locked, PosixFilePermissions.fromString("---------"));
+        try {
+            // Permissions do not apply to root
+            assumeFalse(Files.isReadable(locked));
+            assertEquals(List.of("a/page.cfm", "z/page.cfm"), walk(Set.of()));
+        } finally {
+            Files.setPosixFilePermissions(locked, PosixFilePermissions.fromString("rwx------"));
+        }
+    }
+
+    @Test
+    void stopsWhenTheSinkIsInterrupted() throws Exception {
+        touch("a.cfm");
+        touch("b.cfm");
+        List<Path> files = new ArrayList<>();
+        SourceWalker walker = new SourceWalker(root, EXTENSIONS, Set.of());
+        assertThrows(InterruptedException.class, () -> walker.walk((file, attrs) -> {
+            files.add(file);
+            throw new InterruptedException();
+        }));
+        assertEquals(1, files.size());
+    }
+}
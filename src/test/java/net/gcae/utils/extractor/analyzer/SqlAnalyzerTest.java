@@ -0,0 +1,83 @@
+package net.gcae.utils.extractor.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SqlAnalyzerTest {
+    private final SqlAnalyzer analyzer = new SqlAnalyzer();
+
+    private List<String> tables(String sql) {
+        return List.copyOf(analyzer.analyze(sql).getTables());
+    }
+
+    @Test
+    void findsTablesAfterFromJoinUpdateAndInsert() {
+        assertEquals(List.of("users", "orders"), tables("SELECT * FROM users u JOIN orders o ON o.user_id = u.id"));
+        assertEquals(List.of("users"), tables("UPDATE users SET name = 'x'"));
+        assertEquals(List.of("log"), tables("INSERT INTO log (a) VALUES (1)"));
+        assertEquals(List.of("users", "roles"), tables("SELECT * FROM users u, roles r WHERE u.role = r.id"));
+    }
+
+    @Test
+    void ignoresFromInsideFunctionCalls() {
+        assertEquals(List.of("orders"), tables("SELECT EXTRACT(YEAR FROM created) FROM orders"));
+    }
+
+    @Test
+    void countsKeywordsOnlyAsWholeWords() {
+        SqlAnalyzer.Profile profile = analyzer.analyze("SELECT brand_id FROM t ORDER BY brand_id");
+        assertEquals(0, profile.getPredicates());
+    }
+
+    @Test
+    void doesNotTakeTheAliasOfAnExpressionTableForATable() {
+        assertEquals(List.of(), tables("SELECT * FROM #tbl# t WHERE x=1"));
+        assertEquals(List.of("users"), tables("SELECT * FROM users u, #t2# v"));
+        assertEquals(List.of("users"), tables("SELECT * FROM users u JOIN #other# o ON o.id = u.id"));
+        assertEquals(List.of("users"),
+            tables("SELECT * FROM <cfqueryparam value=\"#t#\"> p, users u WHERE u.id = p.id"));
+    }
+
+    @Test
+    void memoizedProfilesEqualFreshOnesForEveryKindOfPlaceholder() {
+        String[] copies = {
+            "SELECT * FROM 'x' t WHERE a = 1",
+            "SELECT * FROM #tbl# t WHERE a = 'b'",
+            "SELECT * FROM 42 t WHERE a = #b#",
+            "SELECT * FROM <cfqueryparam value=\"#tbl#\"> t WHERE a = <cfqueryparam value=\"1\">"
+        };
+        SqlAnalyzer shared = new SqlAnalyzer();
+        for (String first : copies) {
+            shared.analyze(first);
+            for (String sql : copies) {
+                assertEquals(SqlAnalyzer.fingerprint(first), SqlAnalyzer.fingerprint(sql));
+                SqlAnalyzer.Profile memoized = shared.analyze(sql);
+                SqlAnalyzer.Profile fresh = new SqlAnalyzer().analyze(sql);
+                assertEquals(List.copyOf(fresh.getTables()), List.copyOf(memoized.getTables()), sql);
+                assertEquals(fresh.getScore(), memoized.getScore(), sql);
+                assertEquals(fresh.getPredicates(), memoized.getPredicates(), sql);
+            }
+        }
+        assertEquals(List.of(), tables("SELECT * FROM 'x' t"));
+    }
+
+    @Test
+    void countsSubqueriesAndTheirDepth() {
+        SqlAnalyzer.Profile profile = analyzer.analyze(
+            "SELECT a FROM x WHERE a IN (SELECT b FROM y WHERE b > (SELECT AVG(c) FROM z))");
+        assertEquals(2, profile.getSubqueries());
+        assertEquals(2, profile.getSubqueryDepth());
+        assertEquals(List.of("x", "y", "z"), List.copyOf(profile.getTables()));
+    }
+
+    @Test
+    void fingerprintIgnoresLayoutCommentsAndValues() {
+        assertEquals(SqlAnalyzer.fingerprint("SELECT * FROM t WHERE id = 1"),
+            SqlAnalyzer.fingerprint("SELECT *\n  FROM t -- all\n WHERE id = <cfqueryparam value=\"#id#\">"));
+        assertEquals(SqlAnalyzer.fingerprint("SELECT * FROM t WHERE n = 'a'"),
+            SqlAnalyzer.fingerprint("SELECT * FROM t WHERE n = #name#"));
+    }
+}
@@ -0,0 +1,71 @@
+package net.gcae.utils.extractor.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import net.gcae.utils.extractor.model.StringPool;
+
+class TagAttributesTest {
+    private final TagAttributes attributes = new TagAttributes();
+
+    private TagAttributes parse(String tag) {
+        return attributes.parse(tag, 0, tag.length());
+    }
+
+    @Test
+    void readsQuotedValuesAsWrittenIgnoringTheCaseOfNames() {
+        parse(" NAME=\"getUser\" returnType='query' hint=\"say 'hi' > bye\"");
+        assertEquals("getUser", attributes.get("name"));
+        assertEquals("query", attributes.get("returntype"));
+        assertEquals("say 'hi' > bye", attributes.get("HINT"));
+        assertEquals("", attributes.get("access"));
+    }
+
+    @Test
+    void readsUnquotedValuesUpToWhitespace() {
+        parse(" template=/shared/header.cfm  access = public output=#x#\n");
+        assertEquals("/shared/header.cfm", attributes.get("template"));
+        assertEquals("public", attributes.get("access"));
+        assertEquals("#x#", attributes.get("output"));
+    }
+
+    @Test
+    void keepsTheFirstOfRepeatedAttributes() {
+        parse(" name=\"first\" Name=\"second\" output=\"false\" NAME=third");
+        assertEquals("first", attributes.get("name"));
+        assertArrayEquals(new String[] {"name", "first", "output", "false"}, attributes.pairs(new StringPool()));
+    }
+
+    @Test
+    void readsAttributesWithoutValuesAndSkipsSlashes() {
+        parse(" required name=\"id\" / ");
+        assertEquals("", attributes.get("required"));
+        assertEquals("id", attributes.get("name"));
+        assertArrayEquals(new String[] {"required", "", "name", "id"}, attributes.pairs(new StringPool()));
+    }
+
+    @Test
+    void readsAnUnterminatedValueToTheEndOfTheRange() {
+        parse(" name=\"open");
+        assertEquals("open", attributes.get("name"));
+    }
+
+    @Test
+    void leavesOutExcludedAttributesAndPoolsThePairs() {
+        StringPool pool = new StringPool();
+        String[] first = parse(" template=\"a.cfm\" x=\"1\" Y='2'").pairs(pool, "template");
+        String[] second = parse(" x=\"1\" template=\"b.cfm\" y=\"2\"").pairs(pool, "TEMPLATE");
+        assertArrayEquals(new String[] {"x", "1", "y", "2"}, first);
+        assertSame(first, second);
+    }
+
+    @Test
+    void parsesOnlyTheGivenRange() {
+        String source = "<cfinclude template=\"a.cfm\"><cfinclude template=\"b.cfm\">";
+        attributes.parse(source, "<cfinclude".length(), source.indexOf('>'));
+        assertEquals("a.cfm", attributes.get("template"));
+    }
+}
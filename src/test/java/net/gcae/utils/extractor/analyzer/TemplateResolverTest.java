@@ -0,0 +1,84 @@
+package net.gcae.utils.extractor.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import net.gcae.utils.extractor.model.AnalysisResult;
+import net.gcae.utils.extractor.model.DependencyGraph;
+import net.gcae.utils.extractor.model.FileInfo;
+import net.gcae.utils.extractor.model.IncludeInfo;
+import net.gcae.utils.extractor.model.ModuleInfo;
+
+class TemplateResolverTest {
+
+    private static TemplateResolver resolver(String... mappings) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < mappings.length; i += 2) {
+            map.put(mappings[i], mappings[i + 1]);
+        }
+        return new TemplateResolver(map);
+    }
+
+    @Test
+    void resolvesRelativeTemplatesAgainstTheDirectoryOfTheFile() {
+        TemplateResolver resolver = resolver();
+        assertEquals("app/views/header.cfm", resolver.resolve("header.cfm", "app/views/index.cfm"));
+        assertEquals("app/inc/header.cfm", resolver.resolve("../inc/./header.cfm", "app/views/index.cfm"));
+        assertEquals("app/inc/header.cfm", resolver.resolve(" ..\\inc\\header.cfm ", "app/views/index.cfm"));
+        assertEquals("header.cfm", resolver.resolve("header.cfm", "index.cfm"));
+    }
+
+    @Test
+    void leavesTemplatesOutsideTheRootOrWithExpressionsUnresolved() {
+        TemplateResolver resolver = resolver();
+        assertNull(resolver.resolve("../../header.cfm", "app/index.cfm"));
+        assertNull(resolver.resolve("../header.cfm", "index.cfm"));
+        assertNull(resolver.resolve("#request.view#.cfm", "app/index.cfm"));
+        assertNull(resolver.resolve("/..", "app/index.cfm"));
+    }
+
+    @Test
+    void resolvesSlashTemplatesThroughTheLongestMappingOrTheRoot() {
+        TemplateResolver resolver = resolver("/shared", "lib", "/shared/ui/", "components/ui");
+        assertEquals("components/ui/button.cfm", resolver.resolve("/shared/ui/button.cfm", "app/index.cfm"));
+        assertEquals("lib/util.cfm", resolver.resolve("/shared/util.cfm", "app/index.cfm"));
+        // Only whole segments match a mapping
+        assertEquals("sharedstuff/util.cfm", resolver.resolve("/sharedstuff/util.cfm", "app/index.cfm"));
+        assertEquals("app/util.cfm", resolver.resolve("/app/util.cfm", "app/index.cfm"));
+    }
+
+    @Test
+    void appliesARootMappingToEverySlashTemplate() {
+        TemplateResolver resolver = resolver("/", "www", "/shared", "lib");
+        assertEquals("www/app/util.cfm", resolver.resolve("/app/util.cfm", "index.cfm"));
+        assertEquals("lib/util.cfm", resolver.resolve("/shared/util.cfm", "index.cfm"));
+    }
+
+    @Test
+    void linksFilesIgnoringCaseOnlyWithoutAnExactMatch() {
+        AnalysisResult result = new AnalysisResult();
+        result.getFiles().add(file("app/index.cfm"));
+        result.getFiles().add(file("app/Header.cfm"));
+        result.getFiles().add(file("app/header.cfm"));
+        result.getFiles().add(file("app/Footer.cfm"));
+        result.getIncludes().add(new IncludeInfo("header.cfm", "app/index.cfm", 1));
+        result.getIncludes().add(new IncludeInfo("FOOTER.CFM", "app/index.cfm", 2));
+        result.getIncludes().add(new IncludeInfo("#page#", "app/index.cfm", 3));
+        result.getModules().add(new ModuleInfo("missing.cfm", "app/index.cfm", 4, null));
+
+        DependencyGraph graph = resolver().buildGraph(result);
+        assertArrayEquals(new int[] {2, 3}, graph.getIncludes(0));
+        assertEquals(List.of("#page#", "missing.cfm"), graph.getUnresolved(0));
+    }
+
+    private static FileInfo file(String path) {
+        return new FileInfo(path.substring(path.lastIndexOf('/') + 1), path, "cfm", 0, 0, "UTF-8");
+    }
+}
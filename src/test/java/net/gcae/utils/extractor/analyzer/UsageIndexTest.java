@@ -0,0 +1,93 @@
+package net.gcae.utils.extractor.analyzer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.gcae.utils.extractor.model.AnalysisResult;
+import net.gcae.utils.extractor.model.ComponentInfo;
+import net.gcae.utils.extractor.model.FunctionInfo;
+import net.gcae.utils.extractor.reporter.CsvReporter;
+
+class UsageIndexTest {
+    @TempDir
+    Path directory;
+
+    private final AnalysisResult result = new AnalysisResult();
+    private final FunctionInfo userSave = function("save", "User.cfc");
+    private final FunctionInfo orderSave = function("save", "Order.cfc");
+    private final FunctionInfo load = function("load", "User.cfc");
+    private final ComponentInfo user = new ComponentInfo("User", null, "User.cfc", 1, null);
+    private final ComponentInfo save = new ComponentInfo("save", null, "save.cfc", 1, null);
+
+    private FunctionInfo function(String name, String filePath) {
+        FunctionInfo function = new FunctionInfo(name, "void", "public", filePath, 2, null, null);
+        result.getFunctions().add(function);
+        return function;
+    }
+
+    private UsageIndex index() {
+        result.getComponents().add(user);
+        result.getComponents().add(save);
+        return new UsageIndex(result);
+    }
+
+    @Test
+    void namesCoverFunctionsAndComponents() {
+        assertEquals(Set.of("save", "load", "User"), index().getNames());
+    }
+
+    @Test
+    void recordsAUsageOnEveryDeclarationOfTheName() {
+        UsageIndex index = index();
+        index.recordUsage("save", "index.cfm");
+        index.recordUsage("unknown", "index.cfm");
+
+        assertEquals("index.cfm", userSave.getUsedIn());
+        assertEquals("index.cfm", orderSave.getUsedIn());
+        assertEquals("index.cfm", save.getUsedIn());
+        assertEquals("", load.getUsedIn());
+        assertEquals("", user.getUsedIn());
+    }
+
+    @Test
+    void keepsFilesInRecordingOrderAndEachFileOnce() {
+        UsageIndex index = index();
+        for (String file : new String[] {"z.cfm", "a.cfm", "a.cfm", "m/b.cfm"}) {
+            index.recordUsage("User", file);
+            index.recordUsage("load", file);
+        }
+        assertEquals("z.cfm, a.cfm, m/b.cfm", user.getUsedIn());
+        assertEquals("z.cfm, a.cfm, m/b.cfm", load.getUsedIn());
+    }
+
+    @Test
+    void reportsJoinedUsagesInTheUsedInColumn() throws IOException {
+        UsageIndex index = index();
+        index.recordUsage("User", "a.cfm");
+        index.recordUsage("User", "b.cfm");
+        index.recordUsage("load", "a.cfm");
+        new CsvReporter().generateReport(result, directory.toFile(), "report");
+
+        assertEquals("Component Name,Extends,File:Line,Used In\r\n"
+            + "User,,User.cfc:1,\"a.cfm, b.cfm\"\r\n"
+            + "save,,save.cfc:1,\r\n",
+            read("report_cfComponentsReport.csv"));
+        assertEquals("Function Name,Return Type,Access,File:Line,Parameters,Used In\r\n"
+            + "save,void,public,User.cfc:2,,\r\n"
+            + "save,void,public,Order.cfc:2,,\r\n"
+            + "load,void,public,User.cfc:2,,a.cfm\r\n",
+            read("report_cfFunctionsReport.csv"));
+    }
+
+    private String read(String name) throws IOException {
+        return new String(Files.readAllBytes(directory.resolve(name)), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,289 @@
+package net.gcae.utils.extractor.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.gcae.utils.extractor.analyzer.FileAnalyzer;
+
+class MetricsReporterTest {
+    @TempDir
+    Path directory;
+
+    private Map<String, Object> writeAndParse(RunMetrics metrics) throws IOException {
+        File file = directory.resolve("report_metrics.json").toFile();
+        new MetricsReporter().writeJson(metrics, file);
+        return object(Json.parse(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> object(Object value) {
+        return (Map<String, Object>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> array(Object value) {
+        return (List<Object>) value;
+    }
+
+    private static double number(Object value) {
+        return ((Number) value).doubleValue();
+    }
+
+    @Test
+    void writesCountersTimingsAndThroughput() throws IOException {
+        RunMetrics metrics = new RunMetrics(2);
+        metrics.recordTime("analysis", 2_000_000_000L);
+        metrics.recordTime("analysis.read", 1_500_000L);
+        metrics.recordTime("analysis.read", 500_000L);
+        metrics.recordTime("report.\"quoted\"", 1_000L);
+        metrics.increment("files.analyzed", 10);
+        metrics.increment("bytes.analyzed", 2L * 1024 * 1024);
+        metrics.recordFile("a.cfm", 3_000L);
+        metrics.recordFile("dir\\b.cfm", 5_000_000L);
+        metrics.recordFile("c.cfm", 1_000_000L);
+
+        Map<String, Object> json = writeAndParse(metrics);
+        assertEquals(2000.0, number(json.get("analysisMillis")));
+        assertEquals(10.0, number(json.get("files")));
+        assertEquals(2097152.0, number(json.get("bytes")));
+        assertEquals(5.0, number(json.get("filesPerSecond")));
+        assertEquals(1.0, number(json.get("megabytesPerSecond")));
+
+        Map<String, Object> phases = object(json.get("phases"));
+        assertEquals(List.of("analysis", "analysis.read", "report.\"quoted\""), new ArrayList<>(phases.keySet()));
+        assertEquals(2.0, number(object(phases.get("analysis.read")).get("millis")));
+        assertEquals(2.0, number(object(phases.get("analysis.read")).get("count")));
+        assertEquals(0.001, number(object(phases.get("report.\"quoted\"")).get("millis")));
+
+        Map<String, Object> counters = object(json.get("counters"));
+        assertEquals(List.of("bytes.analyzed", "files.analyzed"), new ArrayList<>(counters.keySet()));
+        assertEquals(10.0, number(counters.get("files.analyzed")));
+
+        Map<String, Object> latency = object(json.get("fileLatency"));
+        assertEquals(3.0, number(latency.get("count")));
+        assertEquals(5.0, number(latency.get("maxMillis")));
+        double histogramCount = 0;
+        for (Object bucket : array(latency.get("histogram"))) {
+            histogramCount += number(object(bucket).get("count"));
+        }
+        assertEquals(3.0, histogramCount);
+
+        List<Object> slowest = array(json.get("slowestFiles"));
+        assertEquals(2, slowest.size());
+        assertEquals("dir\\b.cfm", object(slowest.get(0)).get("path"));
+        assertEquals(5.0, number(object(slowest.get(0)).get("millis")));
+        assertEquals("c.cfm", object(slowest.get(1)).get("path"));
+    }
+
+    @Test
+    void writesValidJsonForAnEmptyRun() throws IOException {
+        Map<String, Object> json = writeAndParse(new RunMetrics());
+        assertEquals(0.0, number(json.get("filesPerSecond")));
+        assertTrue(object(json.get("phases")).isEmpty());
+        assertTrue(object(json.get("counters")).isEmpty());
+        assertTrue(array(object(json.get("fileLatency")).get("histogram")).isEmpty());
+        assertTrue(array(json.get("slowestFiles")).isEmpty());
+    }
+
+    @Test
+    void reportsWhatTheAnalyzerRecorded() throws IOException {
+        Path source = Files.createDirectory(directory.resolve("src"));
+        Files.write(source.resolve("a.cfm"), "<cfquery name=\"q\">SELECT 1 FROM t</cfquery>\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(source.resolve("b.cfm"), "<cfinclude template=\"a.cfm\">\n".getBytes(StandardCharsets.UTF_8));
+        RunMetrics metrics = new RunMetrics();
+        FileAnalyzer analyzer = new FileAnalyzer(2);
+        analyzer.setMetrics(metrics);
+        analyzer.analyzeDirectory(source.toFile());
+
+        Map<String, Object> json = writeAndParse(metrics);
+        assertEquals(2.0, number(json.get("files")));
+        assertEquals((double) (Files.size(source.resolve("a.cfm")) + Files.size(source.resolve("b.cfm"))),
+            number(json.get("bytes")));
+        assertTrue(number(json.get("analysisMillis")) > 0);
+        Map<String, Object> counters = object(json.get("counters"));
+        assertEquals(1.0, number(counters.get("records.queries")));
+        assertEquals(1.0, number(counters.get("records.includes")));
+        Map<String, Object> phases = object(json.get("phases"));
+        assertEquals(1.0, number(object(phases.get("analysis")).get("count")));
+        assertEquals(2.0, number(object(phases.get("analysis.read")).get("count")));
+        assertEquals(2.0, number(object(json.get("fileLatency")).get("count")));
+        assertEquals(List.of("a.cfm", "b.cfm"), array(json.get("slowestFiles")).stream()
+            .map(file -> (String) object(file).get("path")).sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    void replacesThePreviousFileWithoutLeavingATemporaryOne() throws IOException {
+        Path file = directory.resolve("report_metrics.json");
+        Files.write(file, "not json".getBytes(StandardCharsets.UTF_8));
+        // Left over by an interrupted run
+        Files.write(directory.resolve("report_metrics.json.tmp"), "partial".getBytes(StandardCharsets.UTF_8));
+
+        RunMetrics metrics = new RunMetrics();
+        metrics.increment("files.analyzed", 1);
+        assertEquals(1.0, number(writeAndParse(metrics).get("files")));
+        assertEquals(List.of("report_metrics.json"), fileNames());
+    }
+
+    @Test
+    void leavesNoTemporaryFileWhenTheReplaceFails() throws IOException {
+        // A non-empty directory cannot be replaced by a file
+        Path target = Files.createDirectory(directory.resolve("report_metrics.json"));
+        Files.write(target.resolve("keep"), new byte[0]);
+
+        assertThrows(IOException.class, () -> new MetricsReporter().writeJson(new RunMetrics(), target.toFile()));
+        assertEquals(List.of("report_metrics.json"), fileNames());
+        assertTrue(Files.exists(target.resolve("keep")));
+    }
+
+    private List<String> fileNames() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Minimal JSON parser for checking the written documents; numbers are read as doubles
+     */
+    private static class Json {
+        private final String text;
+        private int pos;
+
+        private Json(String text) {
+            this.text = text;
+        }
+
+        static Object parse(String text) {
+            Json json = new Json(text);
+            Object value = json.value();
+            json.skipWhitespace();
+            if (json.pos != text.length()) throw json.error("trailing content");
+            return value;
+        }
+
+        private Object value() {
+            skipWhitespace();
+            if (pos >= text.length()) throw error("unexpected end");
+            char c = text.charAt(pos);
+            if (c == '{') return object();
+            if (c == '[') return array();
+            if (c == '"') return string();
+            if (text.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            if (text.startsWith("true", pos) || text.startsWith("false", pos)) {
+                boolean value = c == 't';
+                pos += value ? 4 : 5;
+                return value;
+            }
+            int start = pos;
+            while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) pos++;
+            if (start == pos) throw error("unexpected character");
+            return Double.parseDouble(text.substring(start, pos));
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            pos++;
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = string();
+                expect(':');
+                object.put(key, value());
+                skipWhitespace();
+                if (peek() == '}') {
+                    pos++;
+                    return object;
+                }
+                expect(',');
+            }
+        }
+
+        private List<Object> array() {
+            List<Object> array = new ArrayList<>();
+            pos++;
+            skipWhitespace();
+            if (peek() == ']') {
+                pos++;
+                return array;
+            }
+            while (true) {
+                array.add(value());
+                skipWhitespace();
+                if (peek() == ']') {
+                    pos++;
+                    return array;
+                }
+                expect(',');
+            }
+        }
+
+        private String string() {
+            if (peek() != '"') throw error("expected a string");
+            StringBuilder value = new StringBuilder();
+            pos++;
+            while (true) {
+                char c = text.charAt(pos++);
+                if (c == '"') return value.toString();
+                if (c < 0x20) throw error("unescaped control character");
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case 'n': value.append('\n'); break;
+                    case 'r': value.append('\r'); break;
+                    case 't': value.append('\t'); break;
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'u':
+                        value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    case '"': case '\\': case '/': value.append(escaped); break;
+                    default: throw error("bad escape");
+                }
+            }
+        }
+
+        private void expect(char c) {
+            skipWhitespace();
+            if (peek() != c) throw error("expected '" + c + "'");
+            pos++;
+        }
+
+        private char peek() {
+            return pos < text.length() ? text.charAt(pos) : '\0';
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at " + pos);
+        }
+    }
+}
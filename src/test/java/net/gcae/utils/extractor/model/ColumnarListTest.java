@@ -0,0 +1,106 @@
+package net.gcae.utils.extractor.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ColumnarListTest {
+    private final StringDictionary dictionary = new StringDictionary();
+
+    private ColumnarList<InvokeInfo> invokes(InvokeInfo... records) {
+        ColumnarList<InvokeInfo> invokes = new ColumnarList<>(ColumnLayouts.INVOKES, dictionary);
+        invokes.addAll(List.of(records));
+        return invokes;
+    }
+
+    private static void assertInvoke(InvokeInfo expected, InvokeInfo actual) {
+        assertEquals(expected.getComponent(), actual.getComponent());
+        assertEquals(expected.getMethod(), actual.getMethod());
+        assertEquals(expected.getFilePath(), actual.getFilePath());
+        assertEquals(expected.getLineNumber(), actual.getLineNumber());
+        assertArrayEquals(expected.getParameterPairs(), actual.getParameterPairs());
+    }
+
+    @Test
+    void readsBackNullsEmptyStringsAndEmptyPairs() {
+        InvokeInfo[] records = {
+            new InvokeInfo(null, "save", "a.cfm", 3, null),
+            new InvokeInfo("UserService", null, "", 0, new String[0]),
+            new InvokeInfo("UserService", "load", "b.cfm", Integer.MAX_VALUE, new String[] {"id", null, "", "x"}),
+        };
+        ColumnarList<InvokeInfo> invokes = invokes(records);
+
+        assertEquals(3, invokes.size());
+        for (int i = 0; i < records.length; i++) {
+            assertInvoke(records[i], invokes.get(i));
+        }
+        assertNull(invokes.get(0).getComponent());
+        assertEquals("", invokes.get(1).getParameters());
+        assertEquals("id=null, =x", invokes.get(2).getParameters());
+        assertThrows(IndexOutOfBoundsException.class, () -> invokes.get(3));
+    }
+
+    @Test
+    void readsBackLongsAndGrowsPastTheInitialCapacity() {
+        ColumnarList<FileInfo> files = new ColumnarList<>(ColumnLayouts.FILES, dictionary);
+        for (int i = 0; i < 1000; i++) {
+            files.add(new FileInfo("f" + i + ".cfm", "dir/f" + i + ".cfm", "cfm", (long) i << 33, i, i % 2 == 0 ? "UTF-8" : null));
+        }
+        assertEquals(1000, files.size());
+        FileInfo file = files.get(999);
+        assertEquals("dir/f999.cfm", file.getFilePath());
+        assertEquals(999L << 33, file.getFileSize());
+        assertEquals(999, file.getLineCount());
+        assertNull(file.getEncoding());
+        assertEquals("UTF-8", files.get(998).getEncoding());
+    }
+
+    @Test
+    void sharesTheDictionaryBetweenLists() {
+        ColumnarList<IncludeInfo> includes = new ColumnarList<>(ColumnLayouts.INCLUDES, dictionary);
+        ColumnarList<ModuleInfo> modules = new ColumnarList<>(ColumnLayouts.MODULES, dictionary);
+        includes.add(new IncludeInfo("header.cfm", "index.cfm", 1));
+        int size = dictionary.size();
+
+        includes.add(new IncludeInfo("header.cfm", "index.cfm", 2));
+        modules.add(new ModuleInfo("header.cfm", "index.cfm", 3, new String[] {"index.cfm", "header.cfm"}));
+        assertEquals(size, dictionary.size());
+        assertSame(includes.get(0).getTemplate(), modules.get(0).getTemplate());
+        assertEquals("index.cfm=header.cfm", modules.get(0).getAttributes());
+    }
+
+    @Test
+    void cursorRefillsOneRecordWithTheSameValuesAsGet() {
+        ColumnarList<InvokeInfo> invokes = invokes(
+            new InvokeInfo("A", "one", "a.cfm", 1, new String[] {"x", "1"}),
+            new InvokeInfo(null, null, "b.cfm", 2, null),
+            new InvokeInfo("C", "three", "c.cfm", 3, new String[] {"x", "1", "y", "2"}),
+            new InvokeInfo("D", "four", "d.cfm", 4, new String[] {"z", "3"}));
+
+        ColumnarList<InvokeInfo>.Cursor cursor = invokes.cursor();
+        assertThrows(IllegalStateException.class, cursor::get);
+        List<InvokeInfo> seen = new ArrayList<>();
+        for (int i = 0; i < invokes.size(); i++) {
+            assertTrue(cursor.next());
+            assertInvoke(invokes.get(i), cursor.get());
+            seen.add(cursor.get());
+        }
+        assertFalse(cursor.next());
+        assertSame(seen.get(0), seen.get(3));
+        assertEquals("z=3", seen.get(3).getParameters());
+    }
+
+    @Test
+    void cursorOverAnEmptyListHasNoRecords() {
+        assertFalse(invokes().cursor().next());
+    }
+}
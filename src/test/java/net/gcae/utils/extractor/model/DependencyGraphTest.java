@@ -0,0 +1,111 @@
+package net.gcae.utils.extractor.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class DependencyGraphTest {
+
+    private static DependencyGraph.Builder builder(int nodes) {
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) {
+            paths.add("f" + i + ".cfm");
+        }
+        return new DependencyGraph.Builder(paths);
+    }
+
+    /**
+     * Number of nodes reached from the node over the edges, the node itself only through a cycle
+     */
+    private static int bfs(int node, List<List<Integer>> edges) {
+        boolean[] reached = new boolean[edges.size()];
+        List<Integer> queue = new ArrayList<>(List.of(node));
+        int count = 0;
+        for (int head = 0; head < queue.size(); head++) {
+            for (int target : edges.get(queue.get(head))) {
+                if (!reached[target]) {
+                    reached[target] = true;
+                    count++;
+                    queue.add(target);
+                }
+            }
+        }
+        return count;
+    }
+
+    @Test
+    void reachCountsMatchBreadthFirstSearch() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            int n = 1 + random.nextInt(300);
+            int edgeCount = random.nextInt(3 * n);
+            DependencyGraph.Builder builder = builder(n);
+            List<List<Integer>> forward = new ArrayList<>();
+            List<List<Integer>> backward = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                forward.add(new ArrayList<>());
+                backward.add(new ArrayList<>());
+            }
+            for (int e = 0; e < edgeCount; e++) {
+                // Mostly towards lower nodes, so there are long chains as well as cycles
+                int from = random.nextInt(n);
+                int to = random.nextInt(10) == 0 ? random.nextInt(n) : random.nextInt(from + 1);
+                builder.addEdge(from, to);
+                forward.get(from).add(to);
+                backward.get(to).add(from);
+            }
+            DependencyGraph graph = builder.build();
+            for (int node = 0; node < n; node++) {
+                assertEquals(bfs(node, forward), graph.getTransitiveIncludeCount(node), "includes of " + node);
+                assertEquals(bfs(node, backward), graph.getAffectedFileCount(node), "affected by " + node);
+                assertEquals(graph.getTransitiveIncludeCount(node), graph.getTransitiveIncludes(node).cardinality());
+                assertEquals(graph.getAffectedFileCount(node), graph.getAffectedFiles(node).cardinality());
+            }
+        }
+    }
+
+    @Test
+    void countsEveryNodeOfACycleOnce() {
+        // 0 -> 1 -> 2 -> 0, and 3 pulls the cycle in
+        DependencyGraph graph = builder(4).addEdge(0, 1).addEdge(1, 2).addEdge(2, 0).addEdge(3, 0).build();
+        for (int node = 0; node < 3; node++) {
+            assertEquals(3, graph.getCycleSize(node));
+            assertEquals(3, graph.getTransitiveIncludeCount(node));
+            assertEquals(4, graph.getAffectedFileCount(node));
+        }
+        assertEquals(0, graph.getCycleSize(3));
+        assertEquals(3, graph.getTransitiveIncludeCount(3));
+        assertEquals(0, graph.getAffectedFileCount(3));
+    }
+
+    @Test
+    void treatsASelfIncludeAsACycleOfOne() {
+        DependencyGraph graph = builder(2).addEdge(0, 0).addEdge(1, 0).build();
+        assertEquals(1, graph.getCycleSize(0));
+        assertEquals(1, graph.getTransitiveIncludeCount(0));
+        assertEquals(2, graph.getAffectedFileCount(0));
+        assertEquals(0, graph.getCycleSize(1));
+        assertEquals(1, graph.getTransitiveIncludeCount(1));
+    }
+
+    @Test
+    void keepsEdgesSortedWithoutDuplicates() {
+        DependencyGraph graph = builder(3).addEdge(0, 2).addEdge(0, 1).addEdge(0, 2).build();
+        assertArrayEquals(new int[] {1, 2}, graph.getIncludes(0));
+        assertArrayEquals(new int[] {0}, graph.getIncludedBy(2));
+        assertEquals(2, graph.getEdgeCount());
+    }
+
+    @Test
+    void listsOnlyNodesWithEdgesOrUnresolvedTemplates() {
+        DependencyGraph graph = builder(4).addEdge(0, 1).addUnresolved(3, "missing.cfm").build();
+        assertArrayEquals(new int[] {0, 1, 3}, graph.getLinkedNodes());
+        assertEquals(List.of("missing.cfm"), graph.getUnresolved(3));
+        assertEquals(List.of(), graph.getUnresolved(2));
+    }
+}
@@ -0,0 +1,107 @@
+package net.gcae.utils.extractor.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+class RecordCodecTest {
+    private static AnalysisResult roundTrip(AnalysisResult result, StringPool pool) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            RecordCodec.writeResult(out, result);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return RecordCodec.readResult(in, pool);
+        }
+    }
+
+    @Test
+    void readsBackEveryRecordType() throws IOException {
+        AnalysisResult result = new AnalysisResult();
+        result.getFiles().add(new FileInfo("index.cfm", "app/index.cfm", "cfm", 5_000_000_000L, 12, "UTF-8"));
+        result.getQueries().add(new QueryInfo("getUsers", "users", "app/index.cfm", 3, "main",
+            "SELECT * FROM users WHERE id = 1", "Simple", "select * from users where id = ?"));
+        result.getFunctions().add(new FunctionInfo("save", "void", "public", "app/User.cfc", 4, 9,
+            new String[] {"id", "numeric"}, "app/index.cfm"));
+        result.getInvokes().add(new InvokeInfo("User", "save", "app/index.cfm", 7, new String[] {"id", "1"}));
+        result.getComponents().add(new ComponentInfo("User", "Base", "app/User.cfc", 1, "app/index.cfm"));
+        result.getIncludes().add(new IncludeInfo("header.cfm", "app/index.cfm", 1));
+        result.getModules().add(new ModuleInfo("footer.cfm", "app/index.cfm", 12, new String[] {"title", "Home"}));
+
+        AnalysisResult read = roundTrip(result, new StringPool());
+
+        FileInfo file = read.getFiles().get(0);
+        assertEquals("app/index.cfm", file.getFilePath());
+        assertEquals(5_000_000_000L, file.getFileSize());
+        assertEquals(12, file.getLineCount());
+        assertEquals("UTF-8", file.getEncoding());
+        QueryInfo query = read.getQueries().get(0);
+        assertEquals("users", query.getDbTable());
+        assertEquals("app/index.cfm:3", query.getFileLocation());
+        assertEquals("SELECT * FROM users WHERE id = 1", query.getSqlQuery());
+        assertEquals("select * from users where id = ?", query.getFingerprint());
+        FunctionInfo function = read.getFunctions().get(0);
+        assertEquals("save", function.getFunctionName());
+        assertEquals(9, function.getEndLineNumber());
+        assertEquals("id:numeric", function.getParameters());
+        InvokeInfo invoke = read.getInvokes().get(0);
+        assertEquals("User", invoke.getComponent());
+        assertEquals("id=1", invoke.getParameters());
+        ComponentInfo component = read.getComponents().get(0);
+        assertEquals("Base", component.getExtends());
+        assertEquals("app/User.cfc:1", component.getFileLocation());
+        assertEquals("header.cfm", read.getIncludes().get(0).getTemplate());
+        assertEquals("title=Home", read.getModules().get(0).getAttributes());
+    }
+
+    @Test
+    void leavesOutTheUsagesOfFunctionsAndComponents() throws IOException {
+        AnalysisResult result = new AnalysisResult();
+        result.getFunctions().add(new FunctionInfo("save", "void", "public", "User.cfc", 4, null, "index.cfm"));
+        result.getComponents().add(new ComponentInfo("User", null, "User.cfc", 1, "index.cfm"));
+
+        AnalysisResult read = roundTrip(result, new StringPool());
+        assertEquals("", read.getFunctions().get(0).getUsedIn());
+        assertEquals("", read.getComponents().get(0).getUsedIn());
+    }
+
+    @Test
+    void keepsNullsEmptyAndLongStrings() throws IOException {
+        String sql = "SELECT '" + "é".repeat(40_000) + "'";
+        AnalysisResult result = new AnalysisResult();
+        result.getQueries().add(new QueryInfo(null, "", "q.cfm", 0, null, sql, null, ""));
+        result.getInvokes().add(new InvokeInfo(null, null, "i.cfm", 1, null));
+
+        AnalysisResult read = roundTrip(result, new StringPool());
+        QueryInfo query = read.getQueries().get(0);
+        assertNull(query.getQueryName());
+        assertEquals("", query.getDbTable());
+        assertNull(query.getDataSource());
+        assertEquals(sql, query.getSqlQuery());
+        assertEquals("", query.getFingerprint());
+        assertArrayEquals(new String[0], read.getInvokes().get(0).getParameterPairs());
+    }
+
+    @Test
+    void takesRepeatedValuesAndPairsFromThePool() throws IOException {
+        AnalysisResult result = new AnalysisResult();
+        result.getInvokes().add(new InvokeInfo("User", "save", "index.cfm", 1, new String[] {"id", "1"}));
+        result.getInvokes().add(new InvokeInfo("User", "load", "index.cfm", 2, new String[] {"id", "1"}));
+
+        AnalysisResult read = roundTrip(result, new StringPool());
+        InvokeInfo first = read.getInvokes().get(0);
+        InvokeInfo second = read.getInvokes().get(1);
+        assertSame(first.getFilePath(), second.getFilePath());
+        assertSame(first.getComponent(), second.getComponent());
+        assertSame(first.getParameterPairs(), second.getParameterPairs());
+    }
+}
@@ -0,0 +1,132 @@
+package net.gcae.utils.extractor.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class SpillingListTest {
+    private static SpillingList<IncludeInfo> includes(int threshold) {
+        return new SpillingList<>(RecordCodec::writeInclude, RecordCodec::readInclude, threshold);
+    }
+
+    private static List<String> templates(Iterable<IncludeInfo> includes) {
+        List<String> templates = new ArrayList<>();
+        for (IncludeInfo include : includes) {
+            templates.add(include.getTemplate() + ":" + include.getLineNumber());
+        }
+        return templates;
+    }
+
+    private static List<String> expected(int count) {
+        List<String> templates = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            templates.add("t" + i + ".cfm:" + i);
+        }
+        return templates;
+    }
+
+    private static void add(SpillingList<IncludeInfo> includes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            includes.add(new IncludeInfo("t" + i + ".cfm", "index.cfm", i));
+        }
+    }
+
+    private static Set<Path> spillFiles() throws IOException {
+        Set<Path> files = new HashSet<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(System.getProperty("java.io.tmpdir")),
+                "cfextractor-*.spill")) {
+            stream.forEach(files::add);
+        }
+        return files;
+    }
+
+    @Test
+    void keepsRecordsBelowTheThresholdInMemory() throws IOException {
+        try (SpillingList<IncludeInfo> includes = includes(3)) {
+            add(includes, 0, 2);
+            assertEquals(0, includes.getSpilled());
+            assertEquals(expected(2), templates(includes));
+        }
+    }
+
+    @Test
+    void spillsInBatchesAndReadsEverythingBackInOrder() throws IOException {
+        try (SpillingList<IncludeInfo> includes = includes(3)) {
+            add(includes, 0, 7);
+            assertEquals(6, includes.getSpilled());
+            assertEquals(7, includes.size());
+            assertEquals(expected(7), templates(includes));
+            // A second pass reads the file again
+            assertEquals(expected(7), templates(includes));
+        }
+    }
+
+    @Test
+    void keepsAppendingAfterItWasIterated() throws IOException {
+        try (SpillingList<IncludeInfo> includes = includes(2)) {
+            add(includes, 0, 3);
+            assertEquals(expected(3), templates(includes));
+            add(includes, 3, 10);
+            assertEquals(10, includes.getSpilled());
+            assertEquals(expected(10), templates(includes));
+        }
+    }
+
+    @Test
+    void failsAnIteratorWhenRecordsAreAddedDuringIt() throws IOException {
+        try (SpillingList<IncludeInfo> includes = includes(2)) {
+            add(includes, 0, 3);
+            Iterator<IncludeInfo> iterator = includes.iterator();
+            iterator.next();
+            add(includes, 3, 4);
+            assertThrows(ConcurrentModificationException.class, iterator::next);
+        }
+    }
+
+    @Test
+    void doesNotSupportRandomAccess() throws IOException {
+        try (SpillingList<IncludeInfo> includes = includes(2)) {
+            add(includes, 0, 3);
+            assertThrows(UnsupportedOperationException.class, () -> includes.get(0));
+        }
+    }
+
+    @Test
+    void rejectsAThresholdBelowOne() {
+        assertThrows(IllegalArgumentException.class, () -> includes(0));
+    }
+
+    @Test
+    void closeDeletesTheFileAndEmptiesTheList() throws IOException {
+        Set<Path> before = spillFiles();
+        SpillingList<IncludeInfo> includes = includes(2);
+        add(includes, 0, 5);
+        Set<Path> created = spillFiles();
+        created.removeAll(before);
+        assertEquals(1, created.size());
+        Path file = created.iterator().next();
+
+        // An iterator left half way keeps the file open until the list is closed
+        Iterator<IncludeInfo> iterator = includes.iterator();
+        iterator.next();
+        includes.close();
+        assertFalse(Files.exists(file));
+        assertEquals(0, includes.size());
+        assertTrue(templates(includes).isEmpty());
+    }
+}
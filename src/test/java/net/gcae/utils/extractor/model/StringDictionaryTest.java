@@ -0,0 +1,54 @@
+package net.gcae.utils.extractor.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class StringDictionaryTest {
+    private final StringDictionary dictionary = new StringDictionary();
+
+    @Test
+    void givesDenseIdsInOrderOfFirstUseAndKeepsEqualStringsOnce() {
+        String first = new String("index.cfm");
+        assertEquals(0, dictionary.idOf(first));
+        assertEquals(1, dictionary.idOf("query"));
+        assertEquals(0, dictionary.idOf(new String("index.cfm")));
+        assertSame(first, dictionary.get(0));
+        assertEquals(2, dictionary.idOf(""));
+        assertEquals(3, dictionary.size());
+        assertEquals("query", dictionary.get(1));
+        assertEquals("", dictionary.get(2));
+    }
+
+    @Test
+    void mapsNullToItsOwnIdWithoutStoringIt() {
+        assertEquals(StringDictionary.NULL_ID, dictionary.idOf(null));
+        assertNull(dictionary.get(StringDictionary.NULL_ID));
+        assertEquals(0, dictionary.size());
+    }
+
+    @Test
+    void keepsIdsAcrossRehashes() {
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, dictionary.idOf("name" + i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, dictionary.idOf("name" + i));
+        }
+        assertEquals(10_000, dictionary.size());
+        assertEquals("name9999", dictionary.get(9999));
+    }
+
+    @Test
+    void tellsApartStringsWithTheSameHash() {
+        // "Aa" and "BB" share a hash code, so they probe the same slots
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        int aa = dictionary.idOf("Aa");
+        int bb = dictionary.idOf("BB");
+        assertEquals(1, bb - aa);
+        assertEquals(aa, dictionary.idOf("Aa"));
+        assertEquals("BB", dictionary.get(dictionary.idOf("BB")));
+    }
+}
@@ -0,0 +1,70 @@
+package net.gcae.utils.extractor.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class UsageListTest {
+
+    @Test
+    void joinsFilesInTheOrderTheyWereAdded() {
+        UsageList usages = new UsageList();
+        assertEquals("", usages.join());
+        for (String file : new String[] {"z.cfm", "a.cfm", "m/b.cfm"}) {
+            usages.add(file);
+        }
+        assertEquals("z.cfm, a.cfm, m/b.cfm", usages.join());
+        assertEquals(List.of("z.cfm", "a.cfm", "m/b.cfm"), new ArrayList<>(usages.toSet()));
+    }
+
+    @Test
+    void ignoresAFileAddedAgainRightAfterItself() {
+        UsageList usages = new UsageList();
+        usages.add("a.cfm");
+        usages.add("a.cfm");
+        usages.add(new String("a.cfm"));
+        usages.add("b.cfm");
+        usages.add("b.cfm");
+        assertEquals("a.cfm, b.cfm", usages.join());
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        UsageList usages = new UsageList();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            usages.add("f" + i + ".cfm");
+            expected.append(i == 0 ? "" : ", ").append("f").append(i).append(".cfm");
+        }
+        assertEquals(expected.toString(), usages.join());
+        assertEquals(100, usages.toSet().size());
+    }
+
+    @Test
+    void clearForgetsEveryFile() {
+        UsageList usages = new UsageList();
+        usages.add("a.cfm");
+        usages.clear();
+        assertEquals("", usages.join());
+        assertTrue(usages.toSet().isEmpty());
+
+        usages.add("a.cfm");
+        assertEquals("a.cfm", usages.join());
+    }
+
+    @Test
+    void setIsAnUnmodifiableCopy() {
+        UsageList usages = new UsageList();
+        usages.add("a.cfm");
+        Set<String> files = usages.toSet();
+        usages.add("b.cfm");
+        assertEquals(Set.of("a.cfm"), files);
+        assertThrows(UnsupportedOperationException.class, () -> files.add("c.cfm"));
+    }
+}
@@ -0,0 +1,62 @@
+package net.gcae.utils.extractor.reporter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+class ColumnWidthsTest {
+
+    private static int[] widths(ColumnWidths columnWidths, int columns) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            columnWidths.apply(sheet);
+            int[] widths = new int[columns];
+            for (int i = 0; i < columns; i++) {
+                widths[i] = sheet.getColumnWidth(i) / 256;
+            }
+            return widths;
+        }
+    }
+
+    @Test
+    void measuresTheLongestLineWithPadding() throws IOException {
+        ColumnWidths columnWidths = new ColumnWidths(3, 1);
+        columnWidths.track(0, "Name");
+        columnWidths.startRow(1);
+        columnWidths.track(0, "SELECT *\nFROM users\nWHERE id = 1");
+        columnWidths.track(1, null);
+        columnWidths.track(2, "x");
+        // Columns past the header are ignored
+        columnWidths.track(3, "ignored");
+        assertEquals(12 + 2, widths(columnWidths, 3)[0]);
+        assertEquals(2, widths(columnWidths, 3)[1]);
+        assertEquals(1 + 2, widths(columnWidths, 3)[2]);
+    }
+
+    @Test
+    void capsTheWidthAtTheExcelMaximum() throws IOException {
+        ColumnWidths columnWidths = new ColumnWidths(1, 1);
+        columnWidths.track(0, "x".repeat(1000));
+        assertEquals(255, widths(columnWidths, 1)[0]);
+    }
+
+    @Test
+    void samplesOnlyRowsPastTheThreshold() throws IOException {
+        ColumnWidths sampled = new ColumnWidths(1, 10);
+        ColumnWidths full = new ColumnWidths(1, 1);
+        for (int row = 1; row <= 2000; row++) {
+            String value = row == 1000 ? "x".repeat(40) : row == 1005 ? "x".repeat(60) : "x";
+            sampled.startRow(row);
+            sampled.track(0, value);
+            full.startRow(row);
+            full.track(0, value);
+        }
+        // Row 1000 is within the threshold, row 1005 is not a sampled row
+        assertEquals(40 + 2, widths(sampled, 1)[0]);
+        assertEquals(60 + 2, widths(full, 1)[0]);
+    }
+}
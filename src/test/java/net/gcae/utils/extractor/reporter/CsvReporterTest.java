@@ -0,0 +1,86 @@
+package net.gcae.utils.extractor.reporter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.gcae.utils.extractor.model.AnalysisResult;
+import net.gcae.utils.extractor.model.IncludeInfo;
+import net.gcae.utils.extractor.model.ModuleInfo;
+
+class CsvReporterTest {
+    @TempDir
+    Path directory;
+
+    private static String row(Object... values) throws IOException {
+        StringWriter out = new StringWriter();
+        new CsvReporter().writeRow(out, values);
+        return out.toString();
+    }
+
+    @Test
+    void quotesOnlyFieldsThatNeedIt() throws IOException {
+        assertEquals("plain,42,,x y\r\n", row("plain", 42, null, "x y"));
+        assertEquals("\"a,b\",\"line\nbreak\",\"cr\rhere\"\r\n", row("a,b", "line\nbreak", "cr\rhere"));
+    }
+
+    @Test
+    void doublesQuotesInsideQuotedFields() throws IOException {
+        assertEquals("\"say \"\"hi\"\"\",\"\"\"\"\r\n", row("say \"hi\"", "\""));
+        // An empty value is written like a missing one
+        assertEquals(",\r\n", row("", null));
+    }
+
+    @Test
+    void writesOneFilePerTableWithAHeaderRow() throws IOException {
+        AnalysisResult result = new AnalysisResult();
+        result.getIncludes().add(new IncludeInfo("#a#, \"b\".cfm", "index.cfm", 7));
+        new CsvReporter().generateReport(result, directory.toFile(), "report");
+
+        Path table = directory.resolve("report_cfIncludesReport.csv");
+        assertEquals("Template,File:Line\r\n\"#a#, \"\"b\"\".cfm\",index.cfm:7\r\n",
+            new String(Files.readAllBytes(table), StandardCharsets.UTF_8));
+        assertFalse(Files.exists(directory.resolve("report_cfFilesReport.csv")));
+    }
+
+    @Test
+    void removesTheFileOfATableThatBecameEmpty() throws IOException {
+        AnalysisResult result = new AnalysisResult();
+        result.getIncludes().add(new IncludeInfo("header.cfm", "index.cfm", 1));
+        new CsvReporter().generateReport(result, directory.toFile(), "latest");
+        assertTrue(Files.exists(directory.resolve("latest_cfIncludesReport.csv")));
+
+        new CsvReporter().generateReport(new AnalysisResult(), directory.toFile(), "latest");
+        assertFalse(Files.exists(directory.resolve("latest_cfIncludesReport.csv")));
+    }
+
+    @Test
+    void writesColumnarRecordsLikeListedOnes() throws IOException {
+        for (AnalysisResult.Storage storage : List.of(AnalysisResult.Storage.LIST, AnalysisResult.Storage.COLUMNAR)) {
+            AnalysisResult result = AnalysisResult.create(storage);
+            result.getModules().add(new ModuleInfo("a.cfm", "index.cfm", 1, new String[] {"x", "1", "y", "2"}));
+            result.getModules().add(new ModuleInfo("b.cfm", "index.cfm", 2, null));
+            result.getModules().add(new ModuleInfo(null, "other.cfm", 3, new String[] {"z", "3"}));
+            new CsvReporter().generateReport(result, directory.toFile(), storage.name());
+        }
+
+        String expected = "Template,File:Line,Attributes\r\n"
+            + "a.cfm,index.cfm:1,\"x=1, y=2\"\r\n"
+            + "b.cfm,index.cfm:2,\r\n"
+            + ",other.cfm:3,z=3\r\n";
+        for (String storage : new String[] {"LIST", "COLUMNAR"}) {
+            assertEquals(expected, new String(Files.readAllBytes(directory.resolve(storage + "_cfModulesReport.csv")),
+                StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package net.gcae.utils.extractor.reporter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.gcae.utils.extractor.model.AnalysisResult;
+import net.gcae.utils.extractor.model.IncludeInfo;
+
+class ExcelReporterTest {
+    @TempDir
+    Path directory;
+
+    private static AnalysisResult includes(int count) {
+        AnalysisResult result = new AnalysisResult();
+        for (int i = 0; i < count; i++) {
+            result.getIncludes().add(new IncludeInfo("header" + i + ".cfm", "page" + i % 7 + ".cfm", i + 1));
+        }
+        return result;
+    }
+
+    private XSSFWorkbook read(String baseName) throws IOException {
+        try (InputStream in = Files.newInputStream(directory.resolve(baseName + ".xlsx"))) {
+            return new XSSFWorkbook(in);
+        }
+    }
+
+    private static List<String> rows(Sheet sheet) {
+        List<String> rows = new ArrayList<>();
+        for (Row row : sheet) {
+            StringBuilder line = new StringBuilder();
+            row.forEach(cell -> line.append(cell.getStringCellValue()).append('|'));
+            rows.add(line.toString());
+        }
+        return rows;
+    }
+
+    @Test
+    void streamingWritesMoreRowsThanTheWindow() throws IOException {
+        ExcelReporter streaming = new ExcelReporter();
+        streaming.setStreaming(true);
+        streaming.setRowWindow(10);
+        streaming.generateReport(includes(250), directory.toFile(), "streamed");
+        new ExcelReporter().generateReport(includes(250), directory.toFile(), "buffered");
+
+        try (XSSFWorkbook streamed = read("streamed"); XSSFWorkbook buffered = read("buffered")) {
+            Sheet sheet = streamed.getSheet("cfIncludesReport");
+            assertEquals(250, sheet.getLastRowNum());
+            assertEquals("Template|File:Line|", rows(sheet).get(0));
+            assertEquals("header0.cfm|page0.cfm:1|", rows(sheet).get(1));
+            assertEquals("header249.cfm|page4.cfm:250|", rows(sheet).get(250));
+            assertEquals(rows(buffered.getSheet("cfIncludesReport")), rows(sheet));
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertFalse(files.anyMatch(file -> file.getFileName().toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    void sampledWidthsMatchAFullScanOnASmallSheet() throws IOException {
+        AnalysisResult result = includes(0);
+        for (int i = 0; i < 300; i++) {
+            // The longest template is on a row a sample of every 50th row would skip
+            String template = i == 137 ? "a/much/longer/path/to/the/included/header.cfm" : "header" + i + ".cfm";
+            result.getIncludes().add(new IncludeInfo(template, "page.cfm", i + 1));
+        }
+        new ExcelReporter().generateReport(result, directory.toFile(), "full");
+        ExcelReporter sampling = new ExcelReporter();
+        sampling.setWidthSampling(50);
+        sampling.generateReport(result, directory.toFile(), "sampled");
+
+        try (XSSFWorkbook full = read("full"); XSSFWorkbook sampled = read("sampled")) {
+            Sheet fullSheet = full.getSheet("cfIncludesReport");
+            Sheet sampledSheet = sampled.getSheet("cfIncludesReport");
+            for (int column = 0; column < 2; column++) {
+                assertEquals(fullSheet.getColumnWidth(column), sampledSheet.getColumnWidth(column));
+            }
+            assertEquals(("a/much/longer/path/to/the/included/header.cfm".length() + 2) * 256, fullSheet.getColumnWidth(0));
+        }
+    }
+}
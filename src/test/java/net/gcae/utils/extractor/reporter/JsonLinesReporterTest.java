@@ -0,0 +1,61 @@
+package net.gcae.utils.extractor.reporter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.gcae.utils.extractor.model.AnalysisResult;
+import net.gcae.utils.extractor.model.IncludeInfo;
+
+class JsonLinesReporterTest {
+    @TempDir
+    Path directory;
+
+    private static String row(String[] headers, Object... values) throws IOException {
+        JsonLinesReporter reporter = new JsonLinesReporter();
+        StringWriter out = new StringWriter();
+        reporter.writeHeader(out, headers);
+        reporter.writeRow(out, values);
+        return out.toString();
+    }
+
+    @Test
+    void turnsHeadersIntoCamelCaseKeys() {
+        assertEquals("dbTable", JsonLinesReporter.toKey("DB Table"));
+        assertEquals("fileSizeBytes", JsonLinesReporter.toKey("File Size (bytes)"));
+        assertEquals("fileLine", JsonLinesReporter.toKey("File:Line"));
+        assertEquals("fanIn", JsonLinesReporter.toKey("Fan-In"));
+    }
+
+    @Test
+    void writesNumbersAndNullsBareAndEverythingElseAsStrings() throws IOException {
+        assertEquals("{\"name\":\"q\",\"lineCount\":12,\"hint\":null,\"flag\":\"true\"}\n",
+            row(new String[] {"Name", "Line Count", "Hint", "Flag"}, "q", 12, null, true));
+    }
+
+    @Test
+    void escapesQuotesBackslashesAndControlCharacters() throws IOException {
+        assertEquals("{\"v\":\"a\\\"b\\\\c\\nd\\re\\tf\\u0001g\\u001f\"}\n",
+            row(new String[] {"V"}, "a\"b\\c\nd\re\tf\u0001g\u001f"));
+        assertEquals("{\"v\":\"café 日本  \"}\n", row(new String[] {"V"}, "café 日本  "));
+    }
+
+    @Test
+    void writesOneObjectPerLine() throws IOException {
+        AnalysisResult result = new AnalysisResult();
+        result.getIncludes().add(new IncludeInfo("a.cfm", "index.cfm", 1));
+        result.getIncludes().add(new IncludeInfo("#dir#\\b.cfm", "index.cfm", 2));
+        new JsonLinesReporter().generateReport(result, directory.toFile(), "report");
+
+        assertEquals("{\"template\":\"a.cfm\",\"fileLine\":\"index.cfm:1\"}\n"
+                + "{\"template\":\"#dir#\\\\b.cfm\",\"fileLine\":\"index.cfm:2\"}\n",
+            new String(Files.readAllBytes(directory.resolve("report_cfIncludesReport.jsonl")), StandardCharsets.UTF_8));
+    }
+}